@@ -0,0 +1,96 @@
+package com.coderandom.core.benchmarks;
+
+import com.coderandom.core.utils.UuidCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link UuidCodec} with the code UUIDFetcher used before it delegated to the codec.
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar UuidCodec -prof gc} to include allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class UuidCodecBenchmark {
+
+    private static final int SIZE = 1024;
+
+    private final String[] names = new String[SIZE];
+    private final String[] dashless = new String[SIZE];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < SIZE; i++) {
+            names[i] = "Player_" + Integer.toString(random.nextInt(1 << 30), 36);
+            dashless[i] = new UUID(random.nextLong(), random.nextLong()).toString().replace("-", "");
+        }
+    }
+
+    private int index() {
+        return next++ & (SIZE - 1);
+    }
+
+    @Benchmark
+    public UUID offlineUUIDLegacy() throws NoSuchAlgorithmException {
+        MessageDigest md = MessageDigest.getInstance("MD5");
+        byte[] hash = md.digest(("OfflinePlayer:" + names[index()]).getBytes());
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < 8; i++) {
+            msb = (msb << 8) | (hash[i] & 0xff);
+        }
+        for (int i = 8; i < 16; i++) {
+            lsb = (lsb << 8) | (hash[i] & 0xff);
+        }
+        msb = (msb & 0xFFFFFFFFFFFF0FFFL) | 0x0000000000003000L;
+        lsb = (lsb & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    @Benchmark
+    public UUID offlineUUIDCodec() {
+        return UuidCodec.offlineUUID(names[index()]);
+    }
+
+    @Benchmark
+    public UUID floodgateUUIDLegacy() {
+        return UUID.nameUUIDFromBytes(("Floodgate:" + names[index()]).getBytes());
+    }
+
+    @Benchmark
+    public UUID floodgateUUIDCodec() {
+        return UuidCodec.floodgateUUID(names[index()]);
+    }
+
+    @Benchmark
+    public UUID parseDashlessLegacy() {
+        return UUID.fromString(dashless[index()].replaceFirst(
+                "(\\p{XDigit}{8})(\\p{XDigit}{4})(\\p{XDigit}{4})(\\p{XDigit}{4})(\\p{XDigit}{12})",
+                "$1-$2-$3-$4-$5"
+        ));
+    }
+
+    @Benchmark
+    public UUID parseDashlessCodec() {
+        return UuidCodec.parseDashless(dashless[index()]);
+    }
+}
@@ -1,30 +1,58 @@
 package com.coderandom.core;
 
-import com.coderandom.core.storage.JsonFileManager;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.coderandom.core.storage.IdentityStore;
+import com.coderandom.core.sync.InvalidationBus;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
 
 /**
  * Singleton class to manage Bedrock player UUIDs.
- * Loads and saves UUIDs from/to a JSON file.
+ * Keeps name to UUID and UUID to name indexes in a compact {@link IdentityStore} and persists
+ * only changed entries asynchronously, either to a binary snapshot and journal or to MySQL. With MySQL, entries
+ * saved by other servers are reloaded when the {@link InvalidationBus} reports them.
+ * Names are compared ignoring ASCII case everywhere, so a name saved with a different case replaces the old one.
  */
 public final class BedrockUUID {
 
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final long READY_TIMEOUT_MILLIS = MySQLManager.CONNECT_TIMEOUT_MILLIS + 30000;
+    private static final String INVALIDATION_TOPIC = "bedrock-uuid";
     private static volatile BedrockUUID instance;
-    private static JsonFileManager bedrockUUIDManager;
-    private static ConcurrentMap<String, UUID> bedrockUUIDMap;
+
+    private final CompletableFuture<BedrockUUID> ready;
+    private volatile BedrockUUIDStorage storage;
+    private final IdentityStore identities = new IdentityStore();
+    private final ConcurrentMap<String, PendingWrite> pendingWrites = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
 
     private BedrockUUID() {
-        bedrockUUIDManager = new JsonFileManager(CodeRandomCore.getInstance(), "DATA", "bedrockUUID");
-        bedrockUUIDMap = new ConcurrentHashMap<>();
-        loadUUIDData();
+        ready = CodeRandomCore.mySQLReady().thenApplyAsync(connected -> {
+            CodeRandomCore plugin = CodeRandomCore.getInstance();
+            try {
+                storage = connected
+                        ? new MySQLBedrockUUIDStorage(MySQLManager.getInstance(), plugin.getLogger())
+                        : new FileBedrockUUIDStorage(plugin, identities);
+                synchronized (storage) {
+                    loadUUIDData();
+                }
+                InvalidationBus.getInstance().subscribe(INVALIDATION_TOPIC, this::applyRemoteChange);
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.SEVERE, "Error loading Bedrock UUIDs", e);
+            }
+            return this;
+        }, CodeRandomCore.ioExecutor());
     }
 
     /**
@@ -44,54 +72,251 @@ public final class BedrockUUID {
     }
 
     /**
-     * Loads UUID data from the JSON file asynchronously.
+     * Returns a future that completes once the stored UUID data has been loaded.
+     *
+     * @return a future completed with this instance once it is ready
+     */
+    public CompletableFuture<BedrockUUID> whenReady() {
+        return ready;
+    }
+
+    /**
+     * Checks whether the stored UUID data has been loaded.
+     *
+     * @return true if lookups see every stored mapping
+     */
+    public boolean isReady() {
+        return ready.isDone();
+    }
+
+    /**
+     * Writes any pending changes and releases the storage, if the instance was ever created.
+     */
+    static void shutdown() {
+        BedrockUUID current = instance;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.ready.get(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            CodeRandomCore.getInstance().getLogger().log(Level.WARNING, "Bedrock UUIDs were not loaded before shutdown", e);
+        }
+        BedrockUUIDStorage storage = current.storage;
+        if (storage != null) {
+            synchronized (storage) {
+                current.flush();
+                storage.close();
+            }
+        }
+    }
+
+    /**
+     * Loads all stored UUID data into the in-memory indexes.
+     * Entries saved while loading was in progress take precedence over stored ones.
      */
     private void loadUUIDData() {
-        CompletableFuture<JsonElement> future = bedrockUUIDManager.getAsync();
-        future.thenAccept(jsonElement -> {
-            if (jsonElement != null && jsonElement.isJsonObject()) {
-                JsonObject jsonObject = jsonElement.getAsJsonObject();
-                jsonObject.keySet().forEach(key -> bedrockUUIDMap.put(key, UUID.fromString(jsonObject.get(key).getAsString())));
+        storage.loadAll(identities::putIfAbsent);
+    }
+
+    /**
+     * Reloads a mapping saved by another server, or every mapping if the name is null.
+     */
+    private void applyRemoteChange(String playerName) {
+        BedrockUUIDStorage current = storage;
+        if (current == null) {
+            return;
+        }
+        synchronized (current) {
+            if (playerName == null) {
+                current.loadAll(identities::put);
+                return;
+            }
+            UUID uuid = current.load(playerName);
+            if (uuid != null) {
+                identities.put(playerName, uuid);
             }
-        }).join();  // Wait for the async task to complete
+        }
     }
 
     /**
-     * Saves the UUID of a player to the map and updates the JSON file.
+     * Saves the UUID of a player. Nothing is written if the stored UUID is unchanged.
+     * Does not wait for the stored data to finish loading.
      *
      * @param player the player whose UUID is to be saved
      */
     public void saveUUID(Player player) {
-        bedrockUUIDMap.put(player.getName(), player.getUniqueId());
-        saveToFile();
+        put(player.getName(), player.getUniqueId());
+    }
+
+    /**
+     * Saves the UUID of a player by name, for callers that are not on the main thread.
+     * Nothing is written if the stored UUID is unchanged.
+     *
+     * @param playerName the name of the player
+     * @param uuid       the UUID of the player
+     */
+    public void saveUUID(String playerName, UUID uuid) {
+        put(playerName, uuid);
     }
 
     /**
      * Retrieves the UUID for the specified player name. If the UUID is not in the map,
      * it attempts to find the player on the server, add their UUID to the map, and save it.
+     * While the stored data is still loading, a player who is not known yet is looked up only once loading has
+     * finished: off the main thread this waits for it, at most as long as a database connection and load may take;
+     * on the main thread it fails instead, so use {@link #getUUIDAsync(String)} there during startup.
      *
      * @param playerName the name of the player
      * @return the UUID of the player, or null if not found
+     * @throws IllegalStateException if the stored data is not loaded yet and cannot be waited for
      */
     public UUID getUUID(String playerName) {
-        UUID uuid = bedrockUUIDMap.get(playerName);
+        UUID uuid = identities.getUUID(playerName);
         if (uuid == null) {
             Player player = Bukkit.getServer().getPlayer(playerName);
             if (player != null) {
                 uuid = player.getUniqueId();
-                bedrockUUIDMap.put(playerName, uuid);
-                saveToFile();
+                put(playerName, uuid);
+            } else if (!ready.isDone()) {
+                awaitReady();
+                uuid = identities.getUUID(playerName);
             }
         }
         return uuid;
     }
 
     /**
-     * Saves the current UUID map to the JSON file asynchronously.
+     * Retrieves the stored UUID for the specified player name once the stored data has been loaded.
+     *
+     * @param playerName the name of the player
+     * @return a future with the UUID of the player, or null if not stored
+     */
+    public CompletableFuture<UUID> getUUIDAsync(String playerName) {
+        return ready.thenApply(loaded -> identities.getUUID(playerName));
+    }
+
+    /**
+     * Retrieves the last known name for the specified Bedrock UUID.
+     * While the stored data is still loading, a UUID that is not known yet is looked up only once loading has
+     * finished, as in {@link #getUUID(String)}; use {@link #getNameAsync(UUID)} on the main thread during startup.
+     *
+     * @param uuid the UUID of the player
+     * @return the name of the player, or null if not known
+     * @throws IllegalStateException if the stored data is not loaded yet and cannot be waited for
+     */
+    public String getName(UUID uuid) {
+        String name = identities.getName(uuid);
+        if (name == null && !ready.isDone()) {
+            awaitReady();
+            name = identities.getName(uuid);
+        }
+        return name;
+    }
+
+    /**
+     * Retrieves the last known name for the specified Bedrock UUID once the stored data has been loaded.
+     *
+     * @param uuid the UUID of the player
+     * @return a future with the name of the player, or null if not known
+     */
+    public CompletableFuture<String> getNameAsync(UUID uuid) {
+        return ready.thenApply(loaded -> identities.getName(uuid));
+    }
+
+    /**
+     * Waits for the stored data to finish loading, at most as long as connecting to the database and loading may take.
+     * The main thread never waits, so a lookup there fails instead of answering that a stored player is unknown.
+     *
+     * @throws IllegalStateException if called on the main thread, or if loading does not finish in time
+     */
+    private void awaitReady() {
+        if (Bukkit.isPrimaryThread()) {
+            throw new IllegalStateException("Bedrock UUIDs are still loading; use getUUIDAsync or getNameAsync on the main thread");
+        }
+        try {
+            ready.get(READY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Bedrock UUIDs to load", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Bedrock UUIDs did not finish loading", e);
+        }
+    }
+
+    /**
+     * Updates the indexes and queues the entry for persistence if it changed.
+     */
+    private void put(String playerName, UUID uuid) {
+        if (!identities.put(playerName, uuid)) {
+            return;
+        }
+        pendingWrites.put(IdentityStore.normalize(playerName), new PendingWrite(playerName, uuid));
+        scheduleFlush();
+    }
+
+    /**
+     * Schedules an asynchronous flush of pending changes unless one is already queued.
+     * The flush waits for loading to finish so the storage backend is known.
+     */
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            ready.thenRunAsync(() -> {
+                boolean saved = false;
+                try {
+                    BedrockUUIDStorage current = storage;
+                    if (current != null) {
+                        synchronized (current) {
+                            saved = flush();
+                        }
+                    }
+                } finally {
+                    flushScheduled.set(false);
+                    // After a failure the remaining entries wait for the next change or shutdown
+                    if (saved && !pendingWrites.isEmpty()) {
+                        scheduleFlush();
+                    }
+                }
+            }, CodeRandomCore.ioExecutor());
+        }
+    }
+
+    /**
+     * Writes the pending changes to storage. Entries that change again while
+     * being written stay queued for the next flush.
+     *
+     * @return true if all drained changes were stored, false otherwise
+     */
+    private boolean flush() {
+        if (pendingWrites.isEmpty()) {
+            return true;
+        }
+        Map<String, UUID> changes = new HashMap<>();
+        pendingWrites.forEach((key, write) -> {
+            if (pendingWrites.remove(key, write)) {
+                changes.put(write.name(), write.uuid());
+            }
+        });
+        if (changes.isEmpty()) {
+            return true;
+        }
+        try {
+            if (storage.saveChanges(changes)) {
+                changes.keySet().forEach(name -> InvalidationBus.getInstance().publish(INVALIDATION_TOPIC, name));
+                return true;
+            }
+        } catch (RuntimeException e) {
+            CodeRandomCore.getInstance().getLogger().log(Level.SEVERE, "Error saving Bedrock UUIDs", e);
+        }
+        changes.forEach((name, uuid) -> pendingWrites.putIfAbsent(IdentityStore.normalize(name), new PendingWrite(name, uuid)));
+        return false;
+    }
+
+    /**
+     * A mapping waiting to be stored, keyed by its {@link IdentityStore#normalize(String) normalized} name.
      */
-    private void saveToFile() {
-        JsonObject jsonObject = new JsonObject();
-        bedrockUUIDMap.forEach((key, value) -> jsonObject.addProperty(key, value.toString()));
-        bedrockUUIDManager.setAsync(jsonObject).join(); // Ensure data is saved
+    private record PendingWrite(String name, UUID uuid) {
     }
 }
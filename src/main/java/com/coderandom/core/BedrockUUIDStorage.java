@@ -0,0 +1,40 @@
+package com.coderandom.core;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Backend used by {@link BedrockUUID} to persist name to UUID mappings.
+ * Implementations are only ever called from one thread at a time.
+ */
+interface BedrockUUIDStorage {
+
+    /**
+     * Loads every stored mapping.
+     *
+     * @param action receives each stored name and UUID
+     */
+    void loadAll(BiConsumer<String, UUID> action);
+
+    /**
+     * Loads the stored mapping of one name.
+     *
+     * @param name the player name
+     * @return the stored UUID, or null if there is none or loading failed
+     */
+    UUID load(String name);
+
+    /**
+     * Persists the given changed mappings, leaving all other stored mappings untouched.
+     *
+     * @param changes the name to UUID mappings that changed since the last save
+     * @return true if the changes were stored, false otherwise
+     */
+    boolean saveChanges(Map<String, UUID> changes);
+
+    /**
+     * Releases any resources held by the storage.
+     */
+    void close();
+}
@@ -1,68 +1,251 @@
 package com.coderandom.core;
 
+import com.coderandom.core.command.AsyncCommandExecutor;
+import com.coderandom.core.command.CoreCommand;
+import com.coderandom.core.command.PlayerNameIndex;
+import com.coderandom.core.diagnostics.TickSampler;
+import com.coderandom.core.economy.EconomyService;
+import com.coderandom.core.listener.AsyncCommandListener;
+import com.coderandom.core.listener.HandlerStats;
+import com.coderandom.core.listener.ObserverLanes;
 import com.coderandom.core.listener.OnBedrockPlayerJoinListener;
+import com.coderandom.core.listener.PlayerDataListener;
+import com.coderandom.core.listener.PlayerNameIndexListener;
+import com.coderandom.core.metrics.MetricsRegistry;
+import com.coderandom.core.metrics.PrometheusExporter;
+import com.coderandom.core.scheduler.ManagedExecutor;
+import com.coderandom.core.scheduler.CoreExecutors;
+import com.coderandom.core.scheduler.MainThreadQueue;
+import com.coderandom.core.storage.SnapshotEngine;
+import com.coderandom.core.sync.InvalidationBus;
+import com.coderandom.core.sync.MySQLInvalidationTransport;
+import com.coderandom.core.utils.HudDispatcher;
 import net.milkbowl.vault.economy.Economy;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.RegisteredServiceProvider;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 
 /**
  * Main class for the CodeRandomCore plugin.
  * Handles initialization, dependency checks, and MySQL management.
+ * The class is not final because MockBukkit loads plugins in tests through a generated subclass.
  */
-public final class CodeRandomCore extends JavaPlugin {
+public class CodeRandomCore extends JavaPlugin {
 
+    private static final long MYSQL_WAIT_MARGIN_MILLIS = 5000;
     private static volatile CodeRandomCore instance;
-    private static boolean usingMySQL = false;
-    private Economy economy;
+    private static volatile CompletableFuture<Boolean> mySQLReady = CompletableFuture.completedFuture(false);
+    private static volatile CoreExecutors executors;
+    private volatile EconomyService economyService;
+    private PrometheusExporter metricsExporter;
 
     /**
      * Called when the plugin is enabled.
-     * Initializes configuration, MySQL, and necessary listeners.
+     * Initializes configuration and listeners on the main thread, and connects to MySQL
+     * and loads Bedrock UUIDs in the background so a slow database does not hold up the server.
      */
     @Override
     public void onEnable() {
-        saveDefaultConfig();
-        initializeMySQL();
-        setupBedrockListener();
         setInstance();
+        saveDefaultConfig();
+        executors = new CoreExecutors(getConfig(), getLogger());
+        StartupPhases startup = new StartupPhases(getLogger(), executors.io());
+        MainThreadQueue.getInstance().start(this, getConfig().getDouble("MainThread.tick-budget-ms", 2),
+                getConfig().getInt("MainThread.max-pending", 100_000));
+        startup.runSync("metrics", this::setupMetrics);
+        startup.runSync("tick-sampler", this::setupTickSampler);
+        mySQLReady = initializeMySQL(startup);
+        setupInvalidationBus(startup);
+        startup.runSync("listeners", () -> {
+            HandlerStats.start(this, getConfig().getDouble("Listeners.slow-handler-ms", 5));
+            setupBedrockListener(startup);
+            new AsyncCommandListener();
+        });
+        startup.runSync("player-data", () -> {
+            PlayerDataManager.start(this, Math.max(1, getConfig().getLong("PlayerData.save-interval-seconds", 60)) * 20L);
+            new PlayerDataListener();
+        });
+        setupPlayerNameIndex(startup);
+        startup.runSync("snapshots", this::setupSnapshots);
+        startup.runSync("commands", () -> new CoreCommand(this, metricsExporter));
+        startup.reportWhenDone();
     }
 
     /**
      * Called when the plugin is disabled.
-     * Disconnects from MySQL if it is being used.
+     * Cancels running asynchronous commands, pays out batched economy deposits, finishes asynchronous event observers,
+     * runs queued main thread work, saves changed player data and pending Bedrock UUID changes, waits for a running
+     * snapshot, publishes the last cache invalidations, drains the core executors and disconnects from MySQL if it is being used.
      */
     @Override
     public void onDisable() {
-        if (usingMySQL) {
-            MySQLManager.getInstance().disconnect();
+        if (metricsExporter != null) {
+            metricsExporter.stop();
+        }
+        TickSampler.shutdown();
+        AsyncCommandExecutor.shutdown();
+        if (economyService != null) {
+            economyService.shutdown();
+        }
+        HudDispatcher.shutdown();
+        ObserverLanes.shutdown();
+        MainThreadQueue.getInstance().shutdown();
+        PlayerDataManager.shutdown();
+        BedrockUUID.shutdown();
+        SnapshotEngine.shutdown();
+        InvalidationBus.getInstance().shutdown();
+        // Both are still unset if enabling failed early
+        CoreExecutors current = executors;
+        if (current != null) {
+            current.shutdown();
+        }
+        CompletableFuture<Boolean> connecting = mySQLReady;
+        if (connecting != null) {
+            // A connection still being established is closed as soon as it completes
+            connecting.thenAccept(connected -> {
+                if (connected) {
+                    MySQLManager.getInstance().disconnect();
+                }
+            });
+        }
+    }
+
+    /**
+     * Connects to MySQL in the background if enabled in the configuration.
+     *
+     * @param startup the startup phases to run the connection in
+     * @return a future completed with true once connected, or false if MySQL is disabled or unreachable
+     */
+    private CompletableFuture<Boolean> initializeMySQL(StartupPhases startup) {
+        if (!getConfig().getBoolean("MySQL.enabled")) {
+            return CompletableFuture.completedFuture(false);
         }
+        MySQLManager.initialize(this);
+        return startup.runAsync("mysql", () -> MySQLManager.getInstance().connect())
+                .exceptionally(throwable -> false);
     }
 
     /**
-     * Initializes MySQL connection if enabled in the configuration.
+     * Starts sharing cache invalidations with the other servers using the same MySQL database, if enabled.
+     *
+     * @param startup the startup phases to create the change-log table in
      */
-    private void initializeMySQL() {
-        if (getConfig().getBoolean("MySQL.enabled")) {
-            MySQLManager.initialize(this);
-            if (MySQLManager.getInstance().connect()) {
-                usingMySQL = true;
+    private void setupInvalidationBus(StartupPhases startup) {
+        if (!getConfig().getBoolean("Sync.enabled")) {
+            return;
+        }
+        startup.runAfter("invalidation-bus", mySQLReady, connected -> {
+            if (!connected) {
+                getLogger().warning("Sync is enabled but MySQL is not connected; caches will not be shared with other servers.");
+                return false;
+            }
+            try {
+                InvalidationBus.getInstance().start(this,
+                        new MySQLInvalidationTransport(MySQLManager.getInstance(), getLogger(), getConfig().getLong("Sync.retention-minutes", 10)),
+                        executors.io(), getConfig().getLong("Sync.poll-interval-ms", 500));
+                return true;
+            } catch (SQLException e) {
+                getLogger().log(Level.SEVERE, "Could not start the invalidation bus!", e);
+                return false;
             }
+        });
+    }
+
+    /**
+     * Registers metrics for the core executors and main thread queue, and starts the periodic Prometheus export.
+     */
+    private void setupMetrics() {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        for (ManagedExecutor executor : executors.all()) {
+            String name = executor.getName();
+            metrics.gauge("coderandom_executor_queued", "Tasks waiting to start", executor::getQueued, "executor", name);
+            metrics.gauge("coderandom_executor_active", "Tasks currently running", executor::getActive, "executor", name);
+            metrics.gauge("coderandom_executor_saturation", "Queued or in-flight tasks over the executor bound", executor::getSaturation, "executor", name);
+            metrics.counter("coderandom_executor_completed_total", "Tasks finished", executor::getCompleted, "executor", name);
+            metrics.counter("coderandom_executor_rejected_total", "Tasks submitted while saturated or shut down", executor::getRejected, "executor", name);
+            metrics.histogram("coderandom_executor_queue_wait_seconds", "Time tasks waited before starting", executor.getQueueWait(), "executor", name);
+        }
+        MainThreadQueue queue = MainThreadQueue.getInstance();
+        metrics.gauge("coderandom_main_queue_pending", "Tasks waiting for the main thread", queue::getPending);
+        metrics.counter("coderandom_main_queue_executed_total", "Tasks run on the main thread", queue::getExecuted);
+        metrics.counter("coderandom_main_queue_rejected_total", "Tasks rejected because the main thread queue was full", queue::getRejected);
+        metrics.counter("coderandom_main_queue_carried_over_ticks_total", "Ticks that used up their budget with work left", queue::getCarriedOverTicks);
+        metrics.histogram("coderandom_main_queue_drain_seconds", "Time spent draining the main thread queue per tick", queue.getDrainTimes());
+        metrics.gauge("coderandom_async_commands_running", "Asynchronous commands currently running", AsyncCommandExecutor::runningCount);
+
+        File file = new File(getDataFolder(), getConfig().getString("Metrics.export-file", "metrics/coderandom.prom"));
+        metricsExporter = new PrometheusExporter(this, metrics, file, executors.io());
+        metricsExporter.start(getConfig().getLong("Metrics.export-interval-seconds", 60));
+    }
+
+    /**
+     * Starts sampling tick times and main thread stacks during lag spikes, if enabled in the configuration.
+     */
+    private void setupTickSampler() {
+        if (getConfig().getBoolean("TickSampler.enabled", true)) {
+            TickSampler.getInstance().start(this, getConfig().getDouble("TickSampler.spike-threshold-ms", 100),
+                    getConfig().getInt("TickSampler.history-ticks", 1200), getConfig().getLong("TickSampler.sample-interval-ms", 10),
+                    getConfig().getInt("TickSampler.max-stack-depth", 64));
         }
     }
 
+    /**
+     * Starts taking incremental snapshots of the core data files, if enabled in the configuration.
+     * Dependent plugins can register their own data files with {@link SnapshotEngine#register(Plugin, String)}.
+     */
+    private void setupSnapshots() {
+        if (!getConfig().getBoolean("Snapshots.enabled", true)) {
+            return;
+        }
+        SnapshotEngine snapshots = SnapshotEngine.getInstance();
+        snapshots.start(this, new File(getDataFolder(), getConfig().getString("Snapshots.directory", "snapshots")).toPath(),
+                getConfig().getLong("Snapshots.interval-minutes", 10), getConfig().getInt("Snapshots.keep-last", 36),
+                getConfig().getInt("Snapshots.keep-daily", 7), getConfig().getDouble("Snapshots.max-mb-per-second", 20),
+                executors.io());
+        snapshots.register(this, "DATA");
+    }
+
     /**
      * Sets up the listener for Bedrock player joins if the Floodgate plugin is present.
+     * Bedrock UUIDs are loaded in the background once the storage backend is known.
+     *
+     * @param startup the startup phases to load Bedrock UUIDs in
      */
-    private void setupBedrockListener() {
+    private void setupBedrockListener(StartupPhases startup) {
         if (dependencyCheck("Floodgate")) {
-            BedrockUUID.getInstance();
+            startup.runChained("bedrock-uuid", () -> BedrockUUID.getInstance().whenReady());
             new OnBedrockPlayerJoinListener();
         }
     }
 
+    /**
+     * Builds the offline player name index in the background and keeps it updated on join.
+     * The offline players are listed on the main thread, as the server's player list is not thread-safe.
+     *
+     * @param startup the startup phases to build the index in
+     */
+    private void setupPlayerNameIndex(StartupPhases startup) {
+        new PlayerNameIndexListener();
+        OfflinePlayer[] offlinePlayers = getServer().getOfflinePlayers();
+        startup.runAsync("offline-names", () -> {
+            PlayerNameIndex index = PlayerNameIndex.offlinePlayers();
+            for (OfflinePlayer offlinePlayer : offlinePlayers) {
+                index.add(offlinePlayer.getName());
+            }
+            index.markReady();
+            return index.size();
+        });
+    }
+
     /**
      * Sets the instance of this plugin.
      */
@@ -118,27 +301,95 @@ public final class CodeRandomCore extends JavaPlugin {
         return instance;
     }
 
+    /**
+     * Retrieves the shared executors owned by the core plugin.
+     *
+     * @return the core executors, or null before the plugin is enabled
+     */
+    public static CoreExecutors getExecutors() {
+        return executors;
+    }
+
+    /**
+     * Retrieves the executor for blocking work. This is the core I/O executor while it is running, and
+     * {@link CoreExecutors#fallback() a fallback} before the plugin is enabled or after it is disabled,
+     * so it can always be used without checking the state of the core plugin.
+     *
+     * @return the I/O executor, never null
+     */
+    public static ManagedExecutor ioExecutor() {
+        CoreExecutors current = executors;
+        return current != null && !current.io().isShutdown() ? current.io() : CoreExecutors.fallback();
+    }
+
+    /**
+     * Retrieves the executor for many concurrent, mostly waiting tasks. This is the core virtual thread executor
+     * while it is running, and the same {@link CoreExecutors#fallback() fallback} as {@link #ioExecutor()} otherwise.
+     *
+     * @return the virtual thread executor, never null
+     */
+    public static ManagedExecutor virtualExecutor() {
+        CoreExecutors current = executors;
+        return current != null && !current.virtual().isShutdown() ? current.virtual() : CoreExecutors.fallback();
+    }
+
     /**
      * Checks if MySQL is being used.
+     * While the background connection attempt is still running this waits for it, at most as long as the
+     * connection timeout, so callers choosing a storage backend get the same answer as after startup.
+     * Use {@link #mySQLReady()} to avoid blocking.
      *
      * @return true if MySQL is being used, false otherwise
      */
     public static boolean usingMySQL() {
-        return usingMySQL;
+        try {
+            return mySQLReady.get(MySQLManager.CONNECT_TIMEOUT_MILLIS + MYSQL_WAIT_MARGIN_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns a future that completes once the MySQL connection attempt has finished.
+     *
+     * @return a future completed with true if MySQL is connected, false if it is disabled or unreachable
+     */
+    public static CompletableFuture<Boolean> mySQLReady() {
+        return mySQLReady;
     }
 
     /**
      * Retrieves the Economy provider if Vault is present.
+     * Transactions made through it keep the balance cache of {@link #getEconomyService()} up to date.
      *
      * @return the Economy provider, or null if not available
      */
     public Economy getEconomy() {
-        if (economy == null && dependencyCheck("Vault")) {
-            RegisteredServiceProvider<Economy> rsp = getServer().getServicesManager().getRegistration(Economy.class);
-            if (rsp != null) {
-                economy = rsp.getProvider();
+        EconomyService service = getEconomyService();
+        return service == null ? null : service.getEconomy();
+    }
+
+    /**
+     * Retrieves the cached, asynchronous economy facade if Vault and an economy provider are present.
+     *
+     * @return the EconomyService, or null if not available
+     */
+    public EconomyService getEconomyService() {
+        if (economyService == null && dependencyCheck("Vault")) {
+            synchronized (this) {
+                if (economyService == null) {
+                    RegisteredServiceProvider<Economy> rsp = getServer().getServicesManager().getRegistration(Economy.class);
+                    if (rsp != null) {
+                        economyService = new EconomyService(this, rsp.getProvider(),
+                                Math.max(0, getConfig().getLong("Economy.cache-ttl-seconds", 30)) * 1000L,
+                                Math.max(1, getConfig().getLong("Economy.batch-interval-ticks", 20)));
+                    }
+                }
             }
         }
-        return economy;
+        return economyService;
     }
 }
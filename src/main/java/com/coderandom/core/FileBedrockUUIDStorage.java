@@ -0,0 +1,215 @@
+package com.coderandom.core;
+
+import com.coderandom.core.storage.IdentityStore;
+import com.coderandom.core.storage.JsonFileManager;
+import com.coderandom.core.utils.UuidCodec;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.bukkit.plugin.Plugin;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stores Bedrock UUIDs in a binary {@link IdentityStore} snapshot plus an append-only journal of changes.
+ * Each save only appends the changed entries; the journal is folded back into
+ * the snapshot when it grows too large, on load and on close. Compaction writes the
+ * owner's in-memory store, so the storage keeps no copy of the mappings of its own.
+ * A JSON snapshot written by earlier versions is read once and then replaced by the binary one.
+ */
+final class FileBedrockUUIDStorage implements BedrockUUIDStorage {
+
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    private final Logger LOGGER;
+    private final Path snapshot;
+    private final Path legacySnapshot;
+    private final Path journal;
+    private final IdentityStore identities;
+    private boolean legacyImported;
+    private int journalEntries;
+
+    /**
+     * Constructs the storage.
+     *
+     * @param plugin     the plugin whose data folder holds the files
+     * @param identities the owner's store, which holds every mapping once {@link #loadAll} has run
+     *                   and is written out on compaction
+     */
+    FileBedrockUUIDStorage(Plugin plugin, IdentityStore identities) {
+        this.LOGGER = plugin.getLogger();
+        this.identities = identities;
+        Path directory = new File(plugin.getDataFolder(), "DATA").toPath();
+        this.snapshot = directory.resolve("bedrockUUID.bin");
+        this.legacySnapshot = directory.resolve("bedrockUUID.json");
+        this.journal = directory.resolve("bedrockUUID.journal");
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Could not create the Bedrock UUID folder", e);
+        }
+    }
+
+    /**
+     * Reads the snapshot and journal and passes every mapping to the action, which is expected to add it to
+     * the owner's store. The files read are dropped afterwards, and the journal is then folded into a new snapshot.
+     */
+    @Override
+    public void loadAll(BiConsumer<String, UUID> action) {
+        IdentityStore stored = readSnapshot();
+        journalEntries = replayJournal(stored);
+        stored.forEach(action);
+        if (journalEntries > 0 || legacyImported) {
+            compact();
+        }
+    }
+
+    /**
+     * Returns the mapping from the owner's store; no other server writes these files.
+     */
+    @Override
+    public UUID load(String name) {
+        return identities.getUUID(name);
+    }
+
+    @Override
+    public boolean saveChanges(Map<String, UUID> changes) {
+        Lock lock = JsonFileManager.writeLock();
+        lock.lock();
+        try (BufferedWriter writer = Files.newBufferedWriter(journal, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Map.Entry<String, UUID> entry : changes.entrySet()) {
+                writer.write(entry.getKey());
+                writer.write('\t');
+                writer.write(entry.getValue().toString());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error appending to Bedrock UUID journal", e);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+        journalEntries += changes.size();
+        if (journalEntries >= COMPACT_THRESHOLD) {
+            compact();
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (journalEntries > 0) {
+            compact();
+        }
+    }
+
+    /**
+     * Reads the binary snapshot, or the JSON snapshot of earlier versions if there is no binary one yet.
+     * An unreadable binary snapshot is kept aside as {@code bedrockUUID.bin.corrupt} instead of being overwritten.
+     */
+    private IdentityStore readSnapshot() {
+        if (Files.exists(snapshot)) {
+            try {
+                return IdentityStore.load(snapshot);
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Could not read the Bedrock UUID snapshot, keeping it as bedrockUUID.bin.corrupt", e);
+                try {
+                    Files.move(snapshot, snapshot.resolveSibling("bedrockUUID.bin.corrupt"), StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException moveFailed) {
+                    LOGGER.log(Level.SEVERE, "Could not move the corrupt Bedrock UUID snapshot", moveFailed);
+                }
+                return new IdentityStore();
+            }
+        }
+        IdentityStore store = new IdentityStore();
+        if (Files.exists(legacySnapshot)) {
+            try (Reader reader = Files.newBufferedReader(legacySnapshot, StandardCharsets.UTF_8)) {
+                JsonElement jsonElement = JsonParser.parseReader(reader);
+                if (jsonElement.isJsonObject()) {
+                    JsonObject jsonObject = jsonElement.getAsJsonObject();
+                    jsonObject.keySet().forEach(key -> {
+                        UUID uuid = UuidCodec.parse(jsonObject.get(key).getAsString());
+                        if (uuid != null) {
+                            store.put(key, uuid);
+                        }
+                    });
+                }
+                legacyImported = true;
+            } catch (IOException | JsonParseException | IllegalStateException e) {
+                LOGGER.log(Level.SEVERE, "Error reading the JSON Bedrock UUID snapshot", e);
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Applies the journal on top of the loaded snapshot.
+     *
+     * @param stored the mappings read from the snapshot
+     * @return the number of journal entries applied
+     */
+    private int replayJournal(IdentityStore stored) {
+        if (!Files.exists(journal)) {
+            return 0;
+        }
+        int entries = 0;
+        try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf('\t');
+                if (separator <= 0) {
+                    continue;
+                }
+                UUID uuid = UuidCodec.parse(line.substring(separator + 1));
+                if (uuid != null) {
+                    stored.put(line.substring(0, separator), uuid);
+                    entries++;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error reading Bedrock UUID journal", e);
+        }
+        return entries;
+    }
+
+    /**
+     * Rewrites the snapshot from the owner's store and truncates the journal. The store may already hold
+     * changes that are still waiting to be appended, which only makes the snapshot more recent.
+     * Replaying a journal that survived a crash after the snapshot was written is harmless.
+     * Both files change under one write lock, so backups see either the old or the new pair.
+     */
+    private void compact() {
+        Lock lock = JsonFileManager.writeLock();
+        lock.lock();
+        try {
+            identities.save(snapshot);
+            Files.deleteIfExists(journal);
+            journalEntries = 0;
+            if (legacyImported) {
+                Files.deleteIfExists(legacySnapshot);
+                legacyImported = false;
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error writing Bedrock UUID snapshot", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.coderandom.core;
+
+import com.coderandom.core.storage.JsonFileManager;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stores player data sections in one JSON file per player, with a property per section.
+ * Files are resolved by path and only created when a player's data is first saved.
+ */
+final class JsonPlayerDataStorage implements PlayerDataStorage {
+
+    private static final String DIRECTORY = "DATA/players";
+
+    private final Logger LOGGER;
+    private final Path directory;
+
+    JsonPlayerDataStorage(Plugin plugin) {
+        this.LOGGER = plugin.getLogger();
+        this.directory = new File(plugin.getDataFolder(), DIRECTORY).toPath();
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Could not create the player data folder", e);
+        }
+    }
+
+    @Override
+    public Map<String, String> load(UUID uuid, Collection<String> sections) {
+        Map<String, String> data = new HashMap<>();
+        // Players without saved data do not get an empty file
+        Path file = file(uuid);
+        if (!Files.exists(file)) {
+            return data;
+        }
+        JsonObject stored = read(file);
+        if (stored == null) {
+            return null;
+        }
+        for (String section : sections) {
+            JsonElement element = stored.get(section);
+            if (element != null) {
+                data.put(section, element.toString());
+            }
+        }
+        return data;
+    }
+
+    @Override
+    public boolean save(Map<UUID, Map<String, String>> changes) {
+        boolean saved = true;
+        for (Map.Entry<UUID, Map<String, String>> entry : changes.entrySet()) {
+            Path file = file(entry.getKey());
+            JsonObject stored = Files.exists(file) ? read(file) : new JsonObject();
+            if (stored == null) {
+                // Overwriting an unreadable file would lose the sections of other plugins
+                saved = false;
+                continue;
+            }
+            try {
+                entry.getValue().forEach((section, json) -> stored.add(section, JsonParser.parseString(json)));
+            } catch (JsonSyntaxException e) {
+                LOGGER.log(Level.SEVERE, "Invalid player data for " + entry.getKey(), e);
+                saved = false;
+                continue;
+            }
+            try {
+                JsonFileManager.write(file, stored);
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Could not save player data for " + entry.getKey(), e);
+                saved = false;
+            }
+        }
+        return saved;
+    }
+
+    @Override
+    public void close() {
+        // Every save is written immediately.
+    }
+
+    private Path file(UUID uuid) {
+        return directory.resolve(uuid + ".json");
+    }
+
+    /**
+     * Reads a player file, treating an empty file as no data.
+     *
+     * @return the stored sections, or null if the file could not be read
+     */
+    private JsonObject read(Path file) {
+        JsonElement element;
+        try {
+            element = JsonFileManager.read(file);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Could not read player data file " + file.getFileName(), e);
+            return null;
+        }
+        if (element.isJsonObject()) {
+            return element.getAsJsonObject();
+        }
+        if (element.isJsonNull()) {
+            return new JsonObject();
+        }
+        LOGGER.severe("Player data file does not contain a JSON object: " + element);
+        return null;
+    }
+}
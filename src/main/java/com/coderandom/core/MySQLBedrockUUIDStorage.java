@@ -0,0 +1,82 @@
+package com.coderandom.core;
+
+import com.coderandom.core.utils.UuidCodec;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stores Bedrock UUIDs in a MySQL table, upserting only the changed rows.
+ */
+final class MySQLBedrockUUIDStorage implements BedrockUUIDStorage {
+
+    private static final String TABLE = "coderandom_bedrock_uuid";
+
+    private final Logger LOGGER;
+    private final MySQLManager mySQLManager;
+
+    MySQLBedrockUUIDStorage(MySQLManager mySQLManager, Logger logger) {
+        this.LOGGER = logger;
+        this.mySQLManager = mySQLManager;
+        mySQLManager.createTables("CREATE TABLE IF NOT EXISTS " + TABLE + " (" +
+                "name VARCHAR(32) NOT NULL PRIMARY KEY, " +
+                "uuid BINARY(16) NOT NULL, " +
+                "INDEX idx_uuid (uuid))");
+    }
+
+    @Override
+    public void loadAll(BiConsumer<String, UUID> action) {
+        try (Connection connection = mySQLManager.getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT name, uuid FROM " + TABLE);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                action.accept(rs.getString(1), UuidCodec.fromBytes(rs.getBytes(2)));
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Could not load Bedrock UUIDs from MySQL!", e);
+        }
+    }
+
+    @Override
+    public UUID load(String name) {
+        try (Connection connection = mySQLManager.getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT uuid FROM " + TABLE + " WHERE name = ?")) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? UuidCodec.fromBytes(rs.getBytes(1)) : null;
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Could not load the Bedrock UUID of " + name + " from MySQL!", e);
+            return null;
+        }
+    }
+
+    @Override
+    public boolean saveChanges(Map<String, UUID> changes) {
+        Object[][] parameters = new Object[changes.size()][];
+        int i = 0;
+        for (Map.Entry<String, UUID> entry : changes.entrySet()) {
+            parameters[i++] = new Object[]{entry.getKey(), UuidCodec.toBytes(entry.getValue())};
+        }
+        try {
+            mySQLManager.executeBatchUpdate("INSERT INTO " + TABLE + " (name, uuid) VALUES (?, ?) " +
+                    "ON DUPLICATE KEY UPDATE uuid = VALUES(uuid)", parameters);
+            return true;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Could not save Bedrock UUIDs to MySQL!", e);
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        // The connection pool is owned and closed by CodeRandomCore.
+    }
+}
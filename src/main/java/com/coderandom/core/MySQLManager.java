@@ -1,10 +1,13 @@
 package com.coderandom.core;
 
+import com.coderandom.core.metrics.LatencyHistogram;
+import com.coderandom.core.metrics.MetricsRegistry;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.bukkit.plugin.Plugin;
 
 import java.sql.*;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -17,10 +20,35 @@ public final class MySQLManager {
     private static volatile MySQLManager instance;
     private static Plugin plugin;
     private static Logger LOGGER;
-    private HikariDataSource dataSource;
+    private static final String STATEMENT_METRIC = "coderandom_mysql_statement_seconds";
+    private static final String STATEMENT_HELP = "Time spent executing MySQL statements, including acquiring a connection";
+    private static final String ERROR_METRIC = "coderandom_mysql_errors_total";
+    private static final String ERROR_HELP = "MySQL statements that failed";
+    static final long CONNECT_TIMEOUT_MILLIS = 30000;
+
+    private volatile HikariDataSource dataSource;
+    private final LatencyHistogram connectionWait;
+    private final LatencyHistogram queryTimes;
+    private final LatencyHistogram updateTimes;
+    private final LatencyHistogram batchTimes;
+    private final LongAdder queryErrors;
+    private final LongAdder updateErrors;
+    private final LongAdder batchErrors;
 
     private MySQLManager() {
         LOGGER = plugin.getLogger();
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        connectionWait = metrics.histogram("coderandom_mysql_connection_wait_seconds", "Time spent waiting for a pooled MySQL connection");
+        queryTimes = metrics.histogram(STATEMENT_METRIC, STATEMENT_HELP, "operation", "query");
+        updateTimes = metrics.histogram(STATEMENT_METRIC, STATEMENT_HELP, "operation", "update");
+        batchTimes = metrics.histogram(STATEMENT_METRIC, STATEMENT_HELP, "operation", "batch");
+        queryErrors = metrics.counter(ERROR_METRIC, ERROR_HELP, "operation", "query");
+        updateErrors = metrics.counter(ERROR_METRIC, ERROR_HELP, "operation", "update");
+        batchErrors = metrics.counter(ERROR_METRIC, ERROR_HELP, "operation", "batch");
+        metrics.gauge("coderandom_mysql_connected", "Whether the MySQL connection pool is open", () -> {
+            HikariDataSource current = dataSource;
+            return current != null && !current.isClosed() ? 1 : 0;
+        });
     }
 
     /**
@@ -74,20 +102,22 @@ public final class MySQLManager {
 
     /**
      * Initializes the HikariCP data source with the configuration from the plugin.
+     * A full JDBC URL in {@code MySQL.url} takes precedence over the host, port and database.
      */
     private void initializeDataSource() {
         HikariConfig config = new HikariConfig();
-        config.setJdbcUrl("jdbc:mysql://" + plugin.getConfig().getString("MySQL.host", "localhost") +
+        String url = plugin.getConfig().getString("MySQL.url", "");
+        config.setJdbcUrl(url.isEmpty() ? "jdbc:mysql://" + plugin.getConfig().getString("MySQL.host", "localhost") +
                 ":" + plugin.getConfig().getString("MySQL.port", "3306") +
                 "/" + plugin.getConfig().getString("MySQL.database", "code_random") +
-                "?useSSL=false");
+                "?useSSL=false" : url);
         config.setUsername(plugin.getConfig().getString("MySQL.username", "root"));
         config.setPassword(plugin.getConfig().getString("MySQL.password", ""));
         config.setMaximumPoolSize(10);
         config.setMinimumIdle(2);
         config.setIdleTimeout(30000);
         config.setMaxLifetime(600000);
-        config.setConnectionTimeout(30000);
+        config.setConnectionTimeout(CONNECT_TIMEOUT_MILLIS);
 
         this.dataSource = new HikariDataSource(config);
         LOGGER.log(Level.INFO, "MySQL connection pool initialized.");
@@ -105,12 +135,25 @@ public final class MySQLManager {
 
     /**
      * Retrieves a connection from the HikariCP data source.
+     * If the plugin is still connecting in the background, waits for it at most as long as the connection timeout.
      *
      * @return a SQL connection
-     * @throws SQLException if a database access error occurs
+     * @throws SQLException if MySQL is not connected or a database access error occurs
      */
     public Connection getConnection() throws SQLException {
-        return dataSource.getConnection();
+        long start = System.nanoTime();
+        try {
+            HikariDataSource current = dataSource;
+            if (current == null && CodeRandomCore.usingMySQL()) {
+                current = dataSource;
+            }
+            if (current == null) {
+                throw new SQLException("MySQL is not connected.");
+            }
+            return current.getConnection();
+        } finally {
+            connectionWait.record(System.nanoTime() - start);
+        }
     }
 
     /**
@@ -122,10 +165,16 @@ public final class MySQLManager {
      * @throws SQLException if a database access error occurs
      */
     public ResultSet executeQuery(String query, Object... parameters) throws SQLException {
+        long start = System.nanoTime();
         try (Connection connection = getConnection();
              PreparedStatement ps = connection.prepareStatement(query)) {
             setParameters(ps, parameters);
             return ps.executeQuery();
+        } catch (SQLException e) {
+            queryErrors.increment();
+            throw e;
+        } finally {
+            queryTimes.record(System.nanoTime() - start);
         }
     }
 
@@ -137,10 +186,16 @@ public final class MySQLManager {
      * @throws SQLException if a database access error occurs
      */
     public void executeUpdate(String query, Object... parameters) throws SQLException {
+        long start = System.nanoTime();
         try (Connection connection = getConnection();
              PreparedStatement ps = connection.prepareStatement(query)) {
             setParameters(ps, parameters);
             ps.executeUpdate();
+        } catch (SQLException e) {
+            updateErrors.increment();
+            throw e;
+        } finally {
+            updateTimes.record(System.nanoTime() - start);
         }
     }
 
@@ -152,6 +207,7 @@ public final class MySQLManager {
      * @throws SQLException if a database access error occurs
      */
     public void executeBatchUpdate(String query, Object[][] parameters) throws SQLException {
+        long start = System.nanoTime();
         try (Connection connection = getConnection();
              PreparedStatement ps = connection.prepareStatement(query)) {
             for (Object[] parameterSet : parameters) {
@@ -159,6 +215,11 @@ public final class MySQLManager {
                 ps.addBatch();
             }
             ps.executeBatch();
+        } catch (SQLException e) {
+            batchErrors.increment();
+            throw e;
+        } finally {
+            batchTimes.record(System.nanoTime() - start);
         }
     }
 
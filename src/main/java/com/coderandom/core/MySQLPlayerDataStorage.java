@@ -0,0 +1,80 @@
+package com.coderandom.core;
+
+import com.coderandom.core.utils.UuidCodec;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stores player data sections in a MySQL table with one row per player and section.
+ */
+final class MySQLPlayerDataStorage implements PlayerDataStorage {
+
+    private static final String TABLE = "coderandom_player_data";
+
+    private final Logger LOGGER;
+    private final MySQLManager mySQLManager;
+
+    MySQLPlayerDataStorage(MySQLManager mySQLManager, Logger logger) {
+        this.LOGGER = logger;
+        this.mySQLManager = mySQLManager;
+        mySQLManager.createTables("CREATE TABLE IF NOT EXISTS " + TABLE + " (" +
+                "uuid BINARY(16) NOT NULL, " +
+                "section VARCHAR(64) NOT NULL, " +
+                "data MEDIUMTEXT NOT NULL, " +
+                "PRIMARY KEY (uuid, section))");
+    }
+
+    @Override
+    public Map<String, String> load(UUID uuid, Collection<String> sections) {
+        Map<String, String> data = new HashMap<>();
+        try (Connection connection = mySQLManager.getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT section, data FROM " + TABLE + " WHERE uuid = ?")) {
+            ps.setBytes(1, UuidCodec.toBytes(uuid));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String section = rs.getString(1);
+                    if (sections.contains(section)) {
+                        data.put(section, rs.getString(2));
+                    }
+                }
+            }
+            return data;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Could not load player data of " + uuid + " from MySQL!", e);
+            return null;
+        }
+    }
+
+    @Override
+    public boolean save(Map<UUID, Map<String, String>> changes) {
+        List<Object[]> rows = new ArrayList<>();
+        changes.forEach((uuid, sections) -> {
+            byte[] key = UuidCodec.toBytes(uuid);
+            sections.forEach((section, json) -> rows.add(new Object[]{key, section, json}));
+        });
+        try {
+            mySQLManager.executeBatchUpdate("INSERT INTO " + TABLE + " (uuid, section, data) VALUES (?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE data = VALUES(data)", rows.toArray(new Object[0][]));
+            return true;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Could not save player data to MySQL!", e);
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        // The connection pool is owned and closed by CodeRandomCore.
+    }
+}
@@ -0,0 +1,469 @@
+package com.coderandom.core;
+
+import com.coderandom.core.metrics.LatencyHistogram;
+import com.coderandom.core.metrics.MetricsRegistry;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Singleton that keeps the data of online players in memory.
+ * <p>
+ * Plugins register named data sections once. Every registered section of a player is loaded while they log in,
+ * on the asynchronous pre-login thread, so it is available without blocking from the moment they join.
+ * Changed sections are marked dirty and written in batches on the I/O executor, periodically and when the
+ * player quits; a player's data stays in memory until all their changes are stored. Data is kept in MySQL
+ * when it is enabled and in one JSON file per player otherwise.
+ * <p>
+ * Section objects should only be changed on the main thread, where they are also serialized for saving.
+ */
+public final class PlayerDataManager {
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final long UNJOINED_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static volatile PlayerDataManager instance;
+
+    private final Logger LOGGER;
+    private final Gson gson = new Gson();
+    private final CompletableFuture<PlayerDataStorage> storage;
+    private final ConcurrentMap<String, PlayerDataSection<?>> sections = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, Session> sessions = new ConcurrentHashMap<>();
+    private final Object saveLock = new Object();
+    private CompletableFuture<Void> saveChain = CompletableFuture.completedFuture(null);
+    private BukkitTask saveTask;
+
+    private final LatencyHistogram loadTimes;
+    private final LatencyHistogram saveTimes;
+    private final LongAdder loadErrors;
+    private final LongAdder saveErrors;
+    private final LongAdder savedSections;
+
+    private PlayerDataManager() {
+        CodeRandomCore plugin = CodeRandomCore.getInstance();
+        this.LOGGER = plugin.getLogger();
+        this.storage = CodeRandomCore.mySQLReady().thenApplyAsync(connected -> connected
+                ? new MySQLPlayerDataStorage(MySQLManager.getInstance(), LOGGER)
+                : new JsonPlayerDataStorage(plugin), CodeRandomCore.ioExecutor());
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        loadTimes = metrics.histogram("coderandom_player_data_seconds", "Time spent loading and saving player data", "operation", "load");
+        saveTimes = metrics.histogram("coderandom_player_data_seconds", "Time spent loading and saving player data", "operation", "save");
+        loadErrors = metrics.counter("coderandom_player_data_errors_total", "Player data loads and saves that failed", "operation", "load");
+        saveErrors = metrics.counter("coderandom_player_data_errors_total", "Player data loads and saves that failed", "operation", "save");
+        savedSections = metrics.counter("coderandom_player_data_saved_sections_total", "Player data sections written");
+        metrics.gauge("coderandom_player_data_sessions", "Players whose data is in memory", sessions::size);
+        metrics.gauge("coderandom_player_data_dirty_sections", "Changed player data sections waiting to be saved", () -> {
+            int dirty = 0;
+            for (Session session : sessions.values()) {
+                dirty += session.dirty.size();
+            }
+            return dirty;
+        });
+    }
+
+    /**
+     * Returns the singleton instance of PlayerDataManager.
+     *
+     * @return the PlayerDataManager instance
+     */
+    public static PlayerDataManager getInstance() {
+        if (instance == null) {
+            synchronized (PlayerDataManager.class) {
+                if (instance == null) {
+                    instance = new PlayerDataManager();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Starts the periodic save and loads the data of players already online, for example after a reload.
+     *
+     * @param plugin        the plugin that owns the save task
+     * @param intervalTicks how often changed data is saved
+     */
+    static void start(Plugin plugin, long intervalTicks) {
+        PlayerDataManager manager = getInstance();
+        manager.saveTask = Bukkit.getScheduler().runTaskTimer(plugin, manager::saveAll, intervalTicks, intervalTicks);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            UUID uuid = player.getUniqueId();
+            manager.storage.thenRunAsync(() -> {
+                if (manager.preload(uuid)) {
+                    manager.onJoin(uuid);
+                }
+            }, CodeRandomCore.ioExecutor());
+        }
+    }
+
+    /**
+     * Saves all changed data and releases the storage, if the instance was ever created. Must be called on the main thread.
+     */
+    static void shutdown() {
+        PlayerDataManager current = instance;
+        if (current == null) {
+            return;
+        }
+        if (current.saveTask != null) {
+            current.saveTask.cancel();
+        }
+        PlayerDataStorage storage;
+        CompletableFuture<Void> pending;
+        synchronized (current.saveLock) {
+            pending = current.saveChain;
+        }
+        try {
+            storage = current.storage.get(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            current.LOGGER.log(Level.SEVERE, "Interrupted while waiting for player data storage; changed player data was not saved");
+            return;
+        } catch (ExecutionException | TimeoutException e) {
+            current.LOGGER.log(Level.SEVERE, "Player data storage is unavailable; changed player data was not saved", e);
+            return;
+        }
+        try {
+            pending.get(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            current.LOGGER.log(Level.WARNING, "Interrupted while waiting for queued player data saves");
+        } catch (ExecutionException | TimeoutException e) {
+            // Sections of a batch that failed are dirty again, so the final write below still includes them
+            current.LOGGER.log(Level.SEVERE, "Queued player data saves did not finish before shutdown", e);
+        }
+        current.write(storage, current.snapshot(current.sessions.keySet()));
+        storage.close();
+    }
+
+    /**
+     * Registers a data section. Register sections while enabling; for players who are already loaded, a section
+     * registered later is loaded in the background on first access.
+     *
+     * @param name     the section name, unique across plugins, such as {@code "myplugin-stats"}
+     * @param type     the section type, serialized with Gson
+     * @param defaults creates the data of players who have none stored
+     * @param <T>      the section type
+     * @return the section, used to read and mark the data
+     * @throws IllegalArgumentException if a section with the name is already registered with a different type
+     */
+    public <T> PlayerDataSection<T> register(String name, Class<T> type, Supplier<T> defaults) {
+        if (name == null || name.isEmpty() || name.length() > 64) {
+            throw new IllegalArgumentException("Section names must be between 1 and 64 characters long.");
+        }
+        PlayerDataSection<?> existing = sections.putIfAbsent(name, new PlayerDataSection<>(name, type, defaults));
+        if (existing != null && existing.getType() != type) {
+            throw new IllegalArgumentException("Player data section " + name + " is already registered with type " + existing.getType().getName());
+        }
+        @SuppressWarnings("unchecked")
+        PlayerDataSection<T> section = (PlayerDataSection<T>) sections.get(name);
+        return section;
+    }
+
+    /**
+     * Returns a section of a player's data.
+     *
+     * @param uuid    the UUID of the player
+     * @param section the section
+     * @param <T>     the section type
+     * @return the data, or null if the player's data is not loaded, or the section was registered after it was
+     * loaded and is still being loaded
+     */
+    public <T> T get(UUID uuid, PlayerDataSection<T> section) {
+        Session session = sessions.get(uuid);
+        if (session == null) {
+            return null;
+        }
+        Object value = session.values.get(section.getName());
+        if (value == null) {
+            loadLate(uuid, session, section);
+            return null;
+        }
+        return section.getType().cast(value);
+    }
+
+    /**
+     * Checks whether a player's data is loaded.
+     *
+     * @param uuid the UUID of the player
+     * @return true if the data is in memory
+     */
+    public boolean isLoaded(UUID uuid) {
+        return sessions.containsKey(uuid);
+    }
+
+    /**
+     * Marks a section of a player's data as changed, so it is saved with the next batch.
+     *
+     * @param uuid    the UUID of the player
+     * @param section the section
+     */
+    public void markDirty(UUID uuid, PlayerDataSection<?> section) {
+        Session session = sessions.get(uuid);
+        if (session != null && session.values.containsKey(section.getName())) {
+            session.dirty.add(section.getName());
+        }
+    }
+
+    /**
+     * Saves all changed data now instead of waiting for the next periodic save. Must be called on the main thread.
+     *
+     * @return a future completed once the data was written
+     */
+    public CompletableFuture<Void> saveAll() {
+        evictExpired();
+        return save(snapshot(sessions.keySet()));
+    }
+
+    /**
+     * Loads every registered section of a player, unless their data is still in memory. Blocks until loaded;
+     * called while the player logs in.
+     *
+     * @param uuid the UUID of the player
+     * @return true if the data is available, false if it could not be loaded
+     */
+    public boolean preload(UUID uuid) {
+        if (sessions.computeIfPresent(uuid, (key, session) -> session.revive()) != null) {
+            return true;
+        }
+        PlayerDataStorage store = storage.join();
+        long start = System.nanoTime();
+        Map<String, String> stored;
+        try {
+            stored = store.load(uuid, List.copyOf(sections.keySet()));
+        } finally {
+            loadTimes.record(System.nanoTime() - start);
+        }
+        if (stored == null) {
+            loadErrors.increment();
+            return false;
+        }
+        Session session = new Session();
+        for (PlayerDataSection<?> section : sections.values()) {
+            Object value = decode(uuid, section, stored.get(section.getName()));
+            if (value == null) {
+                loadErrors.increment();
+                return false;
+            }
+            session.values.put(section.getName(), value);
+        }
+        Session existing = sessions.putIfAbsent(uuid, session);
+        if (existing != null) {
+            existing.revive();
+        }
+        return true;
+    }
+
+    /**
+     * Marks a player's data as in use by an online player.
+     *
+     * @param uuid the UUID of the player
+     */
+    public void onJoin(UUID uuid) {
+        Session session = sessions.get(uuid);
+        if (session != null) {
+            session.joined = true;
+        }
+    }
+
+    /**
+     * Saves a player's changed data and releases it once stored. Must be called on the main thread.
+     *
+     * @param uuid the UUID of the player
+     */
+    public void unload(UUID uuid) {
+        Session session = sessions.get(uuid);
+        if (session == null) {
+            return;
+        }
+        session.quit = true;
+        save(snapshot(Set.of(uuid)));
+        evict(uuid);
+    }
+
+    /**
+     * Loads a section registered after the player's data was loaded on the I/O executor, unless it is already being
+     * loaded. If loading fails, the section stays absent, so no defaults overwrite the stored data, and the next
+     * access tries again.
+     */
+    private void loadLate(UUID uuid, Session session, PlayerDataSection<?> section) {
+        String name = section.getName();
+        if (!session.loadingLate.add(name)) {
+            return;
+        }
+        storage.thenApplyAsync(store -> {
+            long start = System.nanoTime();
+            try {
+                return store.load(uuid, List.of(name));
+            } finally {
+                loadTimes.record(System.nanoTime() - start);
+            }
+        }, CodeRandomCore.ioExecutor()).whenComplete((stored, error) -> {
+            Object value = stored == null ? null : decode(uuid, section, stored.get(name));
+            if (value == null) {
+                loadErrors.increment();
+                LOGGER.log(Level.SEVERE, "Player data section " + name + " of " + uuid + " could not be loaded", error);
+            } else {
+                session.values.putIfAbsent(name, value);
+            }
+            session.loadingLate.remove(name);
+        });
+    }
+
+    /**
+     * Creates a section's data from its stored JSON, or from its defaults if nothing is stored.
+     *
+     * @return the data, or null if the stored JSON is invalid
+     */
+    private Object decode(UUID uuid, PlayerDataSection<?> section, String json) {
+        if (json == null) {
+            return section.createDefault();
+        }
+        try {
+            Object value = gson.fromJson(json, section.getType());
+            return value != null ? value : section.createDefault();
+        } catch (JsonParseException e) {
+            LOGGER.log(Level.SEVERE, "Invalid player data section " + section.getName() + " of " + uuid, e);
+            return null;
+        }
+    }
+
+    /**
+     * Serializes the dirty sections of the given players and clears their dirty marks.
+     * Sections marked again while being serialized stay dirty for the next batch.
+     */
+    private Batch snapshot(Set<UUID> players) {
+        Map<UUID, Map<String, String>> changes = new HashMap<>();
+        Map<UUID, Session> included = new HashMap<>();
+        for (UUID uuid : players) {
+            Session session = sessions.get(uuid);
+            if (session == null || session.dirty.isEmpty()) {
+                continue;
+            }
+            Map<String, String> data = new HashMap<>();
+            for (String name : List.copyOf(session.dirty)) {
+                session.dirty.remove(name);
+                data.put(name, gson.toJson(session.values.get(name)));
+            }
+            session.savesInFlight.incrementAndGet();
+            changes.put(uuid, data);
+            included.put(uuid, session);
+        }
+        return new Batch(changes, included);
+    }
+
+    /**
+     * Queues a batch to be written after every batch queued before it.
+     */
+    private CompletableFuture<Void> save(Batch batch) {
+        if (batch.changes.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        synchronized (saveLock) {
+            saveChain = saveChain.handleAsync((ignored, error) -> {
+                write(storage.join(), batch);
+                return null;
+            }, CodeRandomCore.ioExecutor());
+            return saveChain;
+        }
+    }
+
+    /**
+     * Writes a batch. After a failure its sections are marked dirty again and retried with the next batch.
+     */
+    private void write(PlayerDataStorage store, Batch batch) {
+        if (batch.changes.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        boolean saved = false;
+        try {
+            saved = store.save(batch.changes);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Error saving player data", e);
+        } finally {
+            saveTimes.record(System.nanoTime() - start);
+        }
+        if (saved) {
+            batch.changes.values().forEach(data -> savedSections.add(data.size()));
+        } else {
+            saveErrors.increment();
+        }
+        for (Map.Entry<UUID, Session> entry : batch.sessions.entrySet()) {
+            Session session = entry.getValue();
+            if (!saved) {
+                session.dirty.addAll(batch.changes.get(entry.getKey()).keySet());
+            }
+            session.savesInFlight.decrementAndGet();
+            evict(entry.getKey());
+        }
+    }
+
+    /**
+     * Releases the data of players who logged in but never joined.
+     */
+    private void evictExpired() {
+        for (UUID uuid : sessions.keySet()) {
+            evict(uuid);
+        }
+    }
+
+    private void evict(UUID uuid) {
+        long now = System.nanoTime();
+        sessions.computeIfPresent(uuid, (key, session) -> session.isEvictable(now) ? null : session);
+    }
+
+    private record Batch(Map<UUID, Map<String, String>> changes, Map<UUID, Session> sessions) {
+    }
+
+    /**
+     * The loaded data of one player.
+     */
+    private static final class Session {
+        private final ConcurrentMap<String, Object> values = new ConcurrentHashMap<>();
+        private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+        private final Set<String> loadingLate = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger savesInFlight = new AtomicInteger();
+        private volatile long loadedAt = System.nanoTime();
+        private volatile boolean joined;
+        private volatile boolean quit;
+
+        /**
+         * Keeps the data for a player logging in again before it was released.
+         */
+        private Session revive() {
+            loadedAt = System.nanoTime();
+            joined = false;
+            quit = false;
+            return this;
+        }
+
+        /**
+         * The data can be released once every change is stored and the player has left,
+         * or never joined after logging in.
+         */
+        private boolean isEvictable(long now) {
+            return dirty.isEmpty() && savesInFlight.get() == 0
+                    && (quit || (!joined && now - loadedAt > UNJOINED_TIMEOUT_NANOS));
+        }
+    }
+}
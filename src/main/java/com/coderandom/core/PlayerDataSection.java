@@ -0,0 +1,71 @@
+package com.coderandom.core;
+
+import org.bukkit.entity.Player;
+
+import java.util.function.Supplier;
+
+/**
+ * A named part of a player's data, registered with {@link PlayerDataManager#register(String, Class, Supplier)}.
+ * The data is an object of the section type, stored as JSON.
+ *
+ * @param <T> the section type
+ */
+public final class PlayerDataSection<T> {
+
+    private final String name;
+    private final Class<T> type;
+    private final Supplier<T> defaults;
+
+    PlayerDataSection(String name, Class<T> type, Supplier<T> defaults) {
+        this.name = name;
+        this.type = type;
+        this.defaults = defaults;
+    }
+
+    /**
+     * Returns this section's data for an online player.
+     *
+     * @param player the player
+     * @return the data, or null if the player's data is not loaded, or the section was registered after it was
+     * loaded and is still being loaded
+     */
+    public T get(Player player) {
+        return PlayerDataManager.getInstance().get(player.getUniqueId(), this);
+    }
+
+    /**
+     * Marks this section of a player's data as changed, so it is saved with the next batch.
+     *
+     * @param player the player
+     */
+    public void markDirty(Player player) {
+        PlayerDataManager.getInstance().markDirty(player.getUniqueId(), this);
+    }
+
+    /**
+     * Returns the name of this section, unique across plugins.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the type of this section's data.
+     *
+     * @return the type
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Creates the data of a player who has none stored.
+     *
+     * @return the default data
+     */
+    T createDefault() {
+        return defaults.get();
+    }
+}
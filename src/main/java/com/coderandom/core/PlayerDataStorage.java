@@ -0,0 +1,34 @@
+package com.coderandom.core;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Backend used by {@link PlayerDataManager} to persist player data sections as JSON text.
+ * Saves are never run concurrently, and a player is never loaded while a save for them is in flight.
+ */
+interface PlayerDataStorage {
+
+    /**
+     * Loads the stored sections of a player.
+     *
+     * @param uuid     the UUID of the player
+     * @param sections the names of the sections to load
+     * @return the stored JSON of each section that exists, or null if loading failed
+     */
+    Map<String, String> load(UUID uuid, Collection<String> sections);
+
+    /**
+     * Persists changed sections, leaving all other stored sections untouched.
+     *
+     * @param changes the JSON of each changed section, by player
+     * @return true if the changes were stored, false otherwise
+     */
+    boolean save(Map<UUID, Map<String, String>> changes);
+
+    /**
+     * Releases any resources held by the storage.
+     */
+    void close();
+}
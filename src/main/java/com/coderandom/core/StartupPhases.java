@@ -0,0 +1,127 @@
+package com.coderandom.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the plugin's startup phases, in parallel where possible, and reports how long each one took.
+ */
+final class StartupPhases {
+
+    private final Logger LOGGER;
+    private final Executor executor;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> durations = new LinkedHashMap<>();
+    private final List<CompletableFuture<?>> pending = new ArrayList<>();
+
+    StartupPhases(Logger logger, Executor executor) {
+        this.LOGGER = logger;
+        this.executor = executor;
+    }
+
+    /**
+     * Runs a phase on the calling thread.
+     *
+     * @param phase the name of the phase
+     * @param task  the work to run
+     */
+    void runSync(String phase, Runnable task) {
+        long start = System.nanoTime();
+        task.run();
+        record(phase, start);
+    }
+
+    /**
+     * Runs a phase on a background thread.
+     *
+     * @param phase the name of the phase
+     * @param task  the work to run
+     * @param <T>   the result type of the phase
+     * @return a future completed with the phase result once it is ready
+     */
+    <T> CompletableFuture<T> runAsync(String phase, Supplier<T> task) {
+        return track(phase, CompletableFuture.supplyAsync(() -> timed(phase, task), executor));
+    }
+
+    /**
+     * Runs a phase on a background thread once another phase has completed.
+     *
+     * @param phase      the name of the phase
+     * @param dependency the phase this one waits for
+     * @param task       the work to run with the result of the dependency
+     * @param <T>        the result type of the dependency
+     * @param <R>        the result type of the phase
+     * @return a future completed with the phase result once it is ready
+     */
+    <T, R> CompletableFuture<R> runAfter(String phase, CompletableFuture<T> dependency, Function<T, R> task) {
+        return track(phase, dependency.thenApplyAsync(result -> timed(phase, () -> task.apply(result)), executor));
+    }
+
+    /**
+     * Starts a phase that completes asynchronously on its own, such as one chained on other futures.
+     * The calling thread only starts the phase and does not wait for it.
+     *
+     * @param phase the name of the phase
+     * @param task  starts the work and returns a future completing when it is done
+     * @param <T>   the result type of the phase
+     * @return the future returned by the task
+     */
+    <T> CompletableFuture<T> runChained(String phase, Supplier<CompletableFuture<T>> task) {
+        long start = System.nanoTime();
+        return track(phase, task.get().whenComplete((result, throwable) -> record(phase, start)));
+    }
+
+    /**
+     * Logs a timing report once every tracked phase has finished.
+     */
+    void reportWhenDone() {
+        long enableMillis = (System.nanoTime() - startNanos) / 1_000_000L;
+        CompletableFuture<?>[] futures;
+        synchronized (this) {
+            futures = pending.toArray(new CompletableFuture<?>[0]);
+        }
+        CompletableFuture.allOf(futures).handle((ignored, throwable) -> {
+            long totalMillis = (System.nanoTime() - startNanos) / 1_000_000L;
+            StringBuilder report = new StringBuilder("Startup finished in ").append(totalMillis)
+                    .append(" ms (enable returned after ").append(enableMillis).append(" ms):");
+            synchronized (this) {
+                durations.forEach((phase, millis) -> report.append(' ').append(phase).append('=').append(millis).append("ms"));
+            }
+            LOGGER.info(report.toString());
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<T> track(String phase, CompletableFuture<T> future) {
+        synchronized (this) {
+            pending.add(future);
+        }
+        future.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                LOGGER.log(Level.SEVERE, "Startup phase '" + phase + "' failed", throwable);
+            }
+        });
+        return future;
+    }
+
+    private <T> T timed(String phase, Supplier<T> task) {
+        long start = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            record(phase, start);
+        }
+    }
+
+    private synchronized void record(String phase, long start) {
+        durations.put(phase, (System.nanoTime() - start) / 1_000_000L);
+    }
+}
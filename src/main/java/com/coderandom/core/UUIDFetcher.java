@@ -1,5 +1,8 @@
 package com.coderandom.core;
 
+import com.coderandom.core.metrics.LatencyHistogram;
+import com.coderandom.core.metrics.MetricsRegistry;
+import com.coderandom.core.utils.UuidCodec;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import org.bukkit.Bukkit;
@@ -7,9 +10,9 @@ import org.bukkit.Bukkit;
 import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 
 /**
@@ -17,6 +20,14 @@ import java.util.logging.Level;
  */
 public final class UUIDFetcher {
 
+    private static final String LOOKUP_METRIC = "coderandom_mojang_lookups_total";
+    private static final String LOOKUP_HELP = "Mojang profile lookups by result";
+    private static final LatencyHistogram LOOKUP_TIMES = MetricsRegistry.getInstance().histogram(
+            "coderandom_mojang_lookup_seconds", "Time spent looking up UUIDs from the Mojang API");
+    private static final LongAdder FOUND = MetricsRegistry.getInstance().counter(LOOKUP_METRIC, LOOKUP_HELP, "result", "found");
+    private static final LongAdder NOT_FOUND = MetricsRegistry.getInstance().counter(LOOKUP_METRIC, LOOKUP_HELP, "result", "not_found");
+    private static final LongAdder FAILED = MetricsRegistry.getInstance().counter(LOOKUP_METRIC, LOOKUP_HELP, "result", "error");
+
     private UUIDFetcher() {
         throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
     }
@@ -28,6 +39,7 @@ public final class UUIDFetcher {
      * @return the UUID of the player, or null if not found or an error occurs
      */
     public static UUID getOnlineUUID(String playerName) {
+        long start = System.nanoTime();
         try {
             URL url = new URL("https://api.mojang.com/users/profiles/minecraft/" + playerName);
             HttpURLConnection connection = (HttpURLConnection) url.openConnection();
@@ -37,16 +49,17 @@ public final class UUIDFetcher {
             connection.addRequestProperty("User-Agent", "Mozilla/5.0");
 
             if (connection.getResponseCode() == 200) {
-                InputStreamReader reader = new InputStreamReader(connection.getInputStream());
+                InputStreamReader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8);
                 JsonObject jsonObject = JsonParser.parseReader(reader).getAsJsonObject();
-                String uuidString = jsonObject.get("id").getAsString();
-                return UUID.fromString(uuidString.replaceFirst(
-                        "(\\p{XDigit}{8})(\\p{XDigit}{4})(\\p{XDigit}{4})(\\p{XDigit}{4})(\\p{XDigit}{12})",
-                        "$1-$2-$3-$4-$5"
-                ));
+                FOUND.increment();
+                return UuidCodec.parseDashless(jsonObject.get("id").getAsString());
             }
+            NOT_FOUND.increment();
         } catch (Exception e) {
+            FAILED.increment();
             CodeRandomCore.getInstance().getLogger().log(Level.SEVERE, "Error fetching UUID for player: " + playerName, e);
+        } finally {
+            LOOKUP_TIMES.record(System.nanoTime() - start);
         }
         return null;
     }
@@ -58,7 +71,7 @@ public final class UUIDFetcher {
      * @return the generated UUID
      */
     public static UUID getFloodgateUUID(String playerName) {
-        return UUID.nameUUIDFromBytes(("Floodgate:" + playerName).getBytes());
+        return UuidCodec.floodgateUUID(playerName);
     }
 
     /**
@@ -68,32 +81,18 @@ public final class UUIDFetcher {
      * @return the generated UUID
      */
     public static UUID getOfflineUUID(String playerName) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] hash = md.digest(("OfflinePlayer:" + playerName).getBytes());
-            long msb = 0;
-            long lsb = 0;
-            for (int i = 0; i < 8; i++) {
-                msb = (msb << 8) | (hash[i] & 0xff);
-            }
-            for (int i = 8; i < 16; i++) {
-                lsb = (lsb << 8) | (hash[i] & 0xff);
-            }
-            msb = (msb & 0xFFFFFFFFFFFF0FFFL) | 0x0000000000003000L; // set the version to 3
-            lsb = (lsb & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L; // set the variant to 2
-            return new UUID(msb, lsb);
-        } catch (NoSuchAlgorithmException e) {
-            CodeRandomCore.getInstance().getLogger().log(Level.SEVERE, "Error generating offline UUID for player: " + playerName, e);
-            return null;
-        }
+        return UuidCodec.offlineUUID(playerName);
     }
 
     /**
      * Retrieves the UUID for the specified player name. It checks if the player is a Bedrock player first.
      * If not, it fetches the online UUID if the server is in online mode or generates an offline UUID otherwise.
+     * Bedrock lookups of players who are not known yet wait for the stored Bedrock UUIDs to finish loading when called
+     * off the main thread, and fail on the main thread; see {@link BedrockUUID#getUUID(String)}.
      *
      * @param playerName the name of the player
      * @return the UUID of the player
+     * @throws IllegalStateException if a Bedrock lookup needs the stored Bedrock UUIDs and they are not loaded yet
      */
     public static UUID getUUID(String playerName) {
         if (playerName.startsWith(".")) {
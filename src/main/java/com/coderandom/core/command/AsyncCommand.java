@@ -0,0 +1,111 @@
+package com.coderandom.core.command;
+
+import com.coderandom.core.utils.MessageUtils;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.CancellationException;
+import java.util.logging.Level;
+
+/**
+ * Base class for commands whose body runs off the main thread, for commands that query MySQL,
+ * read files or call web APIs. Bukkit API calls inside the body must go through
+ * {@link AsyncCommandContext#sync(java.util.function.Supplier)}.
+ * <p>
+ * Each sender may only have a limited number of invocations running at once; invocations
+ * are cancelled when they time out or when the sending player disconnects. The {@link CommandStats}
+ * of the command record how long the body ran and whether it threw.
+ */
+public abstract class AsyncCommand extends BaseCommand {
+
+    private static final long DEFAULT_TIMEOUT_MILLIS = 30_000L;
+
+    private final Plugin plugin;
+    private int maxConcurrentPerSender = 1;
+    private long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+    /**
+     * Constructs a new asynchronous command with the specified parameters.
+     *
+     * @param plugin      the plugin instance
+     * @param command     the name of the command
+     * @param aliases     the aliases for the command
+     * @param permission  the required permission to use the command
+     * @param description the description of the command
+     */
+    public AsyncCommand(Plugin plugin, String command, String[] aliases, String permission, String description) {
+        super(plugin, command, aliases, permission, description);
+        this.plugin = plugin;
+    }
+
+    /**
+     * Sets how many invocations of this command a single sender may have running at once.
+     *
+     * @param maxConcurrentPerSender the limit, at least 1 (default 1)
+     */
+    protected void setMaxConcurrentPerSender(int maxConcurrentPerSender) {
+        this.maxConcurrentPerSender = Math.max(1, maxConcurrentPerSender);
+    }
+
+    /**
+     * Sets the time after which a running invocation is cancelled.
+     *
+     * @param timeoutMillis the timeout in milliseconds (default 30 seconds)
+     */
+    protected void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = Math.max(1, timeoutMillis);
+    }
+
+    /**
+     * Starts the command body on a virtual thread.
+     *
+     * @param sender the source of the command
+     * @param args   the arguments passed to the command
+     */
+    @Override
+    public final void executeCommand(CommandSender sender, String[] args) {
+        AsyncCommandContext context = new AsyncCommandContext(sender, args, timeoutMillis);
+        AsyncCommandExecutor.Submission submission = AsyncCommandExecutor.submit(senderKey(sender), getName(),
+                maxConcurrentPerSender, timeoutMillis, context,
+                () -> run(context),
+                () -> context.replyError("The command timed out."));
+        if (submission == AsyncCommandExecutor.Submission.LIMITED) {
+            MessageUtils.formattedErrorMessage(sender, "Please wait for your previous /" + getName() + " to finish.");
+        } else if (submission == AsyncCommandExecutor.Submission.REJECTED) {
+            MessageUtils.formattedErrorMessage(sender, "The server is busy, please try /" + getName() + " again shortly.");
+        }
+    }
+
+    /**
+     * Runs the command logic off the main thread.
+     *
+     * @param context the sender, arguments and main-thread access for this invocation
+     */
+    public abstract void executeAsync(AsyncCommandContext context);
+
+    /**
+     * Returns the key the concurrency limit and disconnect cancellation are tracked by.
+     *
+     * @param sender the command sender
+     * @return the player's UUID, or the sender's name for the console
+     */
+    static Object senderKey(CommandSender sender) {
+        return sender instanceof Player ? ((Player) sender).getUniqueId() : sender.getName();
+    }
+
+    private void run(AsyncCommandContext context) {
+        long start = System.nanoTime();
+        try {
+            executeAsync(context);
+        } catch (CancellationException e) {
+            // Timed out or the sender disconnected
+        } catch (Throwable throwable) {
+            getStats().recordError();
+            plugin.getLogger().log(Level.SEVERE, "Error executing asynchronous command /" + getName(), throwable);
+            context.replyError("An error occurred while executing this command.");
+        } finally {
+            getStats().recordExecution(System.nanoTime() - start);
+        }
+    }
+}
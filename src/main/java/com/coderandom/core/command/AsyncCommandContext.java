@@ -0,0 +1,139 @@
+package com.coderandom.core.command;
+
+import com.coderandom.core.scheduler.MainThreadQueue;
+import com.coderandom.core.utils.MessageUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * The state of an {@link AsyncCommand} invocation running off the main thread.
+ * Bukkit API calls must go through {@link #sync(Supplier)} or {@link #sync(Runnable)}.
+ */
+public final class AsyncCommandContext {
+
+    private final CommandSender sender;
+    private final String[] args;
+    private final long deadlineNanos;
+    private volatile boolean cancelled;
+
+    AsyncCommandContext(CommandSender sender, String[] args, long timeoutMillis) {
+        this.sender = sender;
+        this.args = args;
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    /**
+     * Returns the sender of the command.
+     *
+     * @return the command sender
+     */
+    public CommandSender getSender() {
+        return sender;
+    }
+
+    /**
+     * Returns the arguments passed to the command.
+     *
+     * @return the arguments
+     */
+    public String[] getArgs() {
+        return args;
+    }
+
+    /**
+     * Checks whether the command was cancelled because it timed out or the sender disconnected.
+     * Long-running loops should check this regularly.
+     *
+     * @return true if the command was cancelled, false otherwise
+     */
+    public boolean isCancelled() {
+        return cancelled || Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * Runs a task on the main thread and waits for its result.
+     *
+     * @param task the task to run
+     * @param <T>  the result type
+     * @return the result of the task
+     * @throws CancellationException if the command was cancelled or timed out while waiting
+     */
+    public <T> T sync(Supplier<T> task) {
+        checkCancelled();
+        if (Bukkit.isPrimaryThread()) {
+            return task.get();
+        }
+        CompletableFuture<T> future = MainThreadQueue.getInstance().supply(() -> {
+            if (cancelled) {
+                throw new CancellationException("Command was cancelled before reaching the main thread.");
+            }
+            return task.get();
+        });
+        try {
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Command was cancelled while waiting for the main thread.");
+        } catch (TimeoutException e) {
+            cancel();
+            throw new CancellationException("Command timed out while waiting for the main thread.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Runs a task on the main thread and waits for it to finish.
+     *
+     * @param task the task to run
+     * @throws CancellationException if the command was cancelled or timed out while waiting
+     */
+    public void sync(Runnable task) {
+        sync(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Sends a formatted message to the sender from the main thread, without waiting.
+     *
+     * @param message the message to send
+     */
+    public void reply(String message) {
+        MainThreadQueue.getInstance().submit(() -> MessageUtils.formattedMessage(sender, message));
+    }
+
+    /**
+     * Sends a formatted error message to the sender from the main thread, without waiting.
+     *
+     * @param message the error message to send
+     */
+    public void replyError(String message) {
+        MainThreadQueue.getInstance().submit(() -> MessageUtils.formattedErrorMessage(sender, message));
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    private void checkCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("Command was cancelled.");
+        }
+    }
+}
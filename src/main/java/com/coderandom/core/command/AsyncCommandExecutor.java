@@ -0,0 +1,180 @@
+package com.coderandom.core.command;
+
+import com.coderandom.core.CodeRandomCore;
+import com.coderandom.core.scheduler.ManagedExecutor;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link AsyncCommand} bodies on {@link CodeRandomCore#virtualExecutor() the core virtual thread executor}
+ * and tracks them per sender, so they can be limited per sender and command, timed out, and cancelled when the
+ * sender disconnects. Timeouts are run on the same executor once their delay has passed.
+ * Cancellation sets the context's cancelled flag and interrupts the command's thread.
+ */
+public final class AsyncCommandExecutor {
+
+    private static final Map<Object, Set<RunningCommand>> RUNNING = new ConcurrentHashMap<>();
+
+    private AsyncCommandExecutor() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Starts a command body unless the sender already has the maximum number of invocations of that command running.
+     * Invocations of other commands by the same sender do not count towards the limit.
+     *
+     * @param senderKey     the key identifying the sender
+     * @param commandName   the name of the command
+     * @param maxConcurrent the maximum number of invocations of the command the sender may have running at once
+     * @param timeoutMillis the time after which the command is cancelled
+     * @param context       the context of the command
+     * @param body          the command body
+     * @param onTimeout     run if the command is cancelled because it timed out
+     * @return whether the command was started, refused because of the limit, or rejected by the executor
+     */
+    static Submission submit(Object senderKey, String commandName, int maxConcurrent, long timeoutMillis,
+                             AsyncCommandContext context, Runnable body, Runnable onTimeout) {
+        RunningCommand command = new RunningCommand(commandName, context);
+        Set<RunningCommand> running;
+        while (true) {
+            running = RUNNING.computeIfAbsent(senderKey, key -> ConcurrentHashMap.newKeySet());
+            synchronized (running) {
+                // The set may have been released as empty between lookup and locking
+                if (RUNNING.get(senderKey) != running) {
+                    continue;
+                }
+                if (countRunning(running, commandName) >= maxConcurrent) {
+                    return Submission.LIMITED;
+                }
+                running.add(command);
+                break;
+            }
+        }
+
+        Set<RunningCommand> owner = running;
+        ManagedExecutor executor = CodeRandomCore.virtualExecutor();
+        command.timeout = CompletableFuture.runAsync(() -> {
+            if (!command.done) {
+                command.cancel();
+                onTimeout.run();
+            }
+        }, CompletableFuture.delayedExecutor(timeoutMillis, TimeUnit.MILLISECONDS, executor));
+        try {
+            executor.execute(() -> {
+                command.thread = Thread.currentThread();
+                try {
+                    if (!context.isCancelled()) {
+                        body.run();
+                    }
+                } finally {
+                    command.done = true;
+                    command.thread = null;
+                    command.timeout.cancel(false);
+                    release(senderKey, owner, command);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down or saturated
+            command.timeout.cancel(false);
+            release(senderKey, owner, command);
+            return Submission.REJECTED;
+        }
+        return Submission.STARTED;
+    }
+
+    /**
+     * Cancels every command running for a sender.
+     *
+     * @param senderKey the key identifying the sender
+     */
+    public static void cancelAll(Object senderKey) {
+        Set<RunningCommand> running = RUNNING.get(senderKey);
+        if (running != null) {
+            running.forEach(RunningCommand::cancel);
+        }
+    }
+
+    /**
+     * Cancels every running command. The executor itself is drained by the core plugin.
+     */
+    public static void shutdown() {
+        RUNNING.values().forEach(running -> running.forEach(RunningCommand::cancel));
+    }
+
+    /**
+     * Returns the number of commands currently running for all senders.
+     *
+     * @return the number of running commands
+     */
+    public static int runningCount() {
+        int count = 0;
+        for (Set<RunningCommand> running : RUNNING.values()) {
+            count += running.size();
+        }
+        return count;
+    }
+
+    /**
+     * Counts the running invocations of one command in a sender's set. Called with the set locked.
+     */
+    private static int countRunning(Set<RunningCommand> running, String commandName) {
+        int count = 0;
+        for (RunningCommand command : running) {
+            if (command.commandName.equals(commandName)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void release(Object senderKey, Set<RunningCommand> running, RunningCommand command) {
+        synchronized (running) {
+            running.remove(command);
+            if (running.isEmpty()) {
+                RUNNING.remove(senderKey, running);
+            }
+        }
+    }
+
+    /**
+     * The outcome of {@link #submit}.
+     */
+    enum Submission {
+        /** The command body was started. */
+        STARTED,
+        /** The sender already has the maximum number of invocations of the command running. */
+        LIMITED,
+        /** The executor is saturated or shut down. */
+        REJECTED
+    }
+
+    /**
+     * A submitted command body and the handles needed to cancel it.
+     */
+    private static final class RunningCommand {
+        private final String commandName;
+        private final AsyncCommandContext context;
+        private volatile Future<?> timeout;
+        private volatile Thread thread;
+        private volatile boolean done;
+
+        private RunningCommand(String commandName, AsyncCommandContext context) {
+            this.commandName = commandName;
+            this.context = context;
+        }
+
+        private void cancel() {
+            context.cancel();
+            Thread current = thread;
+            if (current != null) {
+                current.interrupt();
+            }
+        }
+    }
+}
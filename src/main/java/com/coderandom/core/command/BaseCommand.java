@@ -1,5 +1,6 @@
 package com.coderandom.core.command;
 
+import com.coderandom.core.utils.MessageUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandMap;
 import org.bukkit.command.CommandSender;
@@ -18,6 +19,9 @@ import java.util.List;
  */
 public abstract class BaseCommand extends BukkitCommand {
 
+    private final CommandStats stats;
+    private volatile RateLimiter rateLimiter;
+
     /**
      * Constructs a new command with the specified parameters.
      *
@@ -29,6 +33,7 @@ public abstract class BaseCommand extends BukkitCommand {
      */
     public BaseCommand(Plugin plugin, String command, String[] aliases, String permission, String description) {
         super(command);
+        this.stats = CommandStats.of(plugin.getName(), command);
         setDescription(description);
         setPermission(permission);
         setUsage('/' + command);
@@ -57,7 +62,8 @@ public abstract class BaseCommand extends BukkitCommand {
     }
 
     /**
-     * Executes the command.
+     * Executes the command, recording its duration and any error in its {@link CommandStats}.
+     * An {@link AsyncCommand} records the duration of its body when the body finishes instead.
      *
      * @param commandSender the source of the command
      * @param alias         the alias of the command which was used
@@ -71,7 +77,25 @@ public abstract class BaseCommand extends BukkitCommand {
             commandSender.sendMessage("This command can only be used by a player or the console.");
             return true;
         }
-        executeCommand(commandSender, args);
+        RateLimiter limiter = rateLimiter;
+        if (limiter != null) {
+            long waitNanos = limiter.tryAcquire(commandSender);
+            if (waitNanos > 0) {
+                MessageUtils.formattedErrorMessage(commandSender, "Please wait " + formatWait(waitNanos) + " before using this command again.");
+                return true;
+            }
+        }
+        long start = System.nanoTime();
+        try {
+            executeCommand(commandSender, args);
+        } catch (RuntimeException | Error e) {
+            stats.recordError();
+            throw e;
+        } finally {
+            if (!(this instanceof AsyncCommand)) {
+                stats.recordExecution(System.nanoTime() - start);
+            }
+        }
         return false;
     }
 
@@ -84,7 +108,7 @@ public abstract class BaseCommand extends BukkitCommand {
     public abstract void executeCommand(CommandSender sender, String[] args);
 
     /**
-     * Handles tab completion for the command.
+     * Handles tab completion for the command, recording its duration in its {@link CommandStats}.
      *
      * @param sender the source of the command
      * @param alias  the alias of the command which was used
@@ -94,7 +118,50 @@ public abstract class BaseCommand extends BukkitCommand {
      */
     @Override
     public List<String> tabComplete(CommandSender sender, String alias, String[] args) throws IllegalArgumentException {
-        return tabComplete(sender, args);
+        long start = System.nanoTime();
+        try {
+            return tabComplete(sender, args);
+        } finally {
+            stats.recordTabComplete(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Limits how often this command can be used. Uses that exceed the limit are rejected
+     * with a message before {@link #executeCommand(CommandSender, String[])} is called.
+     *
+     * @param limit the rate limit, or null to remove it
+     */
+    protected void setRateLimit(RateLimit limit) {
+        rateLimiter = limit == null ? null : new RateLimiter(limit);
+    }
+
+    /**
+     * Returns the rate limiter of this command.
+     *
+     * @return the rate limiter, or null if the command is not rate limited
+     */
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Formats a wait time in seconds, rounded up to one decimal place.
+     */
+    private static String formatWait(long nanos) {
+        long tenths = (nanos + 99_999_999L) / 100_000_000L;
+        return tenths % 10 == 0
+                ? tenths / 10 + (tenths == 10 ? " second" : " seconds")
+                : tenths / 10 + "." + tenths % 10 + " seconds";
+    }
+
+    /**
+     * Returns the execution statistics of this command.
+     *
+     * @return the command statistics
+     */
+    public CommandStats getStats() {
+        return stats;
     }
 
     /**
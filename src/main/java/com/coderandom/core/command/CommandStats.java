@@ -0,0 +1,148 @@
+package com.coderandom.core.command;
+
+import com.coderandom.core.metrics.LatencyHistogram;
+import com.coderandom.core.metrics.MetricsRegistry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution and tab completion statistics for a single {@link BaseCommand}.
+ * Recording is lock-free and does not allocate.
+ */
+public final class CommandStats {
+
+    private static final ConcurrentMap<String, CommandStats> ALL = new ConcurrentHashMap<>();
+
+    private final String plugin;
+    private final String command;
+    private final LatencyHistogram executions = new LatencyHistogram();
+    private final LatencyHistogram tabCompletions = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+
+    private CommandStats(String plugin, String command) {
+        this.plugin = plugin;
+        this.command = command;
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.histogram("coderandom_command_seconds", "Time spent executing commands, including the body of asynchronous commands",
+                executions, "plugin", plugin, "command", command);
+        metrics.histogram("coderandom_command_tab_complete_seconds", "Time spent computing tab completions",
+                tabCompletions, "plugin", plugin, "command", command);
+        metrics.counter("coderandom_command_errors_total", "Commands that threw an exception",
+                errors::sum, "plugin", plugin, "command", command);
+    }
+
+    /**
+     * Returns the statistics for a command, creating them on first use.
+     *
+     * @param plugin  the name of the plugin owning the command
+     * @param command the name of the command
+     * @return the statistics
+     */
+    public static CommandStats of(String plugin, String command) {
+        return ALL.computeIfAbsent(plugin + ':' + command, key -> new CommandStats(plugin, command));
+    }
+
+    /**
+     * Returns the statistics of every registered command.
+     *
+     * @return an unmodifiable view of all command statistics
+     */
+    public static Collection<CommandStats> all() {
+        return Collections.unmodifiableCollection(ALL.values());
+    }
+
+    /**
+     * Returns the commands that spent the most total time executing on the calling thread.
+     *
+     * @param limit the maximum number of commands to return
+     * @return the slowest commands, slowest first
+     */
+    public static List<CommandStats> top(int limit) {
+        List<CommandStats> sorted = new ArrayList<>(ALL.values());
+        sorted.sort((a, b) -> Long.compare(b.getTotalNanos(), a.getTotalNanos()));
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    /**
+     * Clears the statistics of every command.
+     */
+    public static void resetAll() {
+        for (CommandStats stats : ALL.values()) {
+            stats.executions.reset();
+            stats.tabCompletions.reset();
+            stats.errors.reset();
+        }
+    }
+
+    void recordExecution(long nanos) {
+        executions.record(nanos);
+    }
+
+    void recordTabComplete(long nanos) {
+        tabCompletions.record(nanos);
+    }
+
+    void recordError() {
+        errors.increment();
+    }
+
+    /**
+     * Returns the name of the plugin owning the command.
+     *
+     * @return the plugin name
+     */
+    public String getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Returns the name of the command.
+     *
+     * @return the command name
+     */
+    public String getCommand() {
+        return command;
+    }
+
+    /**
+     * Returns the execution latency histogram.
+     *
+     * @return the histogram of execution times
+     */
+    public LatencyHistogram getExecutions() {
+        return executions;
+    }
+
+    /**
+     * Returns the tab completion latency histogram.
+     *
+     * @return the histogram of tab completion times
+     */
+    public LatencyHistogram getTabCompletions() {
+        return tabCompletions;
+    }
+
+    /**
+     * Returns the number of executions that threw an exception.
+     *
+     * @return the error count
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * Returns the total time spent executing and tab completing the command.
+     *
+     * @return the total in nanoseconds
+     */
+    public long getTotalNanos() {
+        return executions.getSumNanos() + tabCompletions.getSumNanos();
+    }
+}
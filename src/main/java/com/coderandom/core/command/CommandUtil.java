@@ -1,21 +1,21 @@
 package com.coderandom.core.command;
 
 import com.coderandom.core.utils.MessageUtils;
-import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
-import org.bukkit.entity.Player;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * Utility class for command-related functionalities.
  */
 public final class CommandUtil {
 
+    /**
+     * The default maximum number of player names returned by tab completion.
+     */
+    public static final int DEFAULT_COMPLETION_LIMIT = 50;
+
     private CommandUtil() {
         throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
     }
@@ -57,71 +57,159 @@ public final class CommandUtil {
     }
 
     /**
-     * Parses a string to a double.
+     * Parses a string to a double without using exceptions for invalid input.
+     * Accepts plain decimal notation with an optional sign, fraction and exponent.
      *
      * @param doubleString the string to parse
-     * @return the parsed double, or null if parsing fails
+     * @return the parsed double, or null if parsing fails or the value is too large to be finite, such as {@code 1e400}
      */
     public static Double parseDouble(String doubleString) {
-        try {
-            return Double.parseDouble(doubleString);
-        } catch (NumberFormatException e) {
+        if (!isDecimal(doubleString)) {
             return null;
         }
+        double value = Double.parseDouble(doubleString);
+        return Double.isFinite(value) ? value : null;
     }
 
     /**
-     * Parses a string to an integer.
+     * Parses a string to an integer without using exceptions for invalid input.
      *
      * @param intString the string to parse
-     * @return the parsed integer, or null if parsing fails
+     * @return the parsed integer, or null if parsing fails or the value is out of range
      */
     public static Integer parseInt(String intString) {
-        try {
-            return Integer.parseInt(intString);
-        } catch (NumberFormatException e) {
+        if (intString == null || intString.isEmpty()) {
             return null;
         }
+        int length = intString.length();
+        int i = 0;
+        boolean negative = false;
+        char first = intString.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == length) {
+                return null;
+            }
+        }
+        long value = 0;
+        for (; i < length; i++) {
+            char c = intString.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            value = value * 10 + (c - '0');
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return null;
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            return null;
+        }
+        return (int) value;
     }
 
     /**
-     * Filters a list of options based on a partial argument.
+     * Checks whether a string is a plain decimal number such as {@code -1}, {@code 2.5} or {@code 1e3}.
+     *
+     * @param input the string to check
+     * @return true if the string can be parsed as a decimal number, false otherwise
+     */
+    private static boolean isDecimal(String input) {
+        if (input == null || input.isEmpty()) {
+            return false;
+        }
+        int length = input.length();
+        int i = 0;
+        if (input.charAt(0) == '-' || input.charAt(0) == '+') {
+            i++;
+        }
+        int digits = 0;
+        for (; i < length && input.charAt(i) >= '0' && input.charAt(i) <= '9'; i++) {
+            digits++;
+        }
+        if (i < length && input.charAt(i) == '.') {
+            for (i++; i < length && input.charAt(i) >= '0' && input.charAt(i) <= '9'; i++) {
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < length && (input.charAt(i) == 'e' || input.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (input.charAt(i) == '-' || input.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            for (; i < length && input.charAt(i) >= '0' && input.charAt(i) <= '9'; i++) {
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    /**
+     * Filters a list of options based on a partial argument, ignoring case.
      *
      * @param partialArg the partial argument to filter by
      * @param options    the list of options to filter
      * @return a list of options that start with the partial argument
      */
     public static List<String> tabCompleteFilter(String partialArg, String... options) {
-        return Arrays.stream(options)
-                .filter(option -> option.startsWith(partialArg.toLowerCase()))
-                .collect(Collectors.toList());
+        List<String> matches = new ArrayList<>();
+        int length = partialArg.length();
+        for (String option : options) {
+            if (option.regionMatches(true, 0, partialArg, 0, length)) {
+                matches.add(option);
+            }
+        }
+        return matches;
     }
 
     /**
      * Provides tab completion suggestions for online player names.
      *
      * @param partialName the partial player name to filter by
-     * @return a list of online player names that start with the partial name
+     * @return up to {@link #DEFAULT_COMPLETION_LIMIT} online player names that start with the partial name
      */
     public static List<String> tabCompleteOnlinePlayers(String partialName) {
-        return Bukkit.getOnlinePlayers().stream()
-                .map(Player::getName)
-                .filter(name -> name.toLowerCase().startsWith(partialName.toLowerCase()))
-                .collect(Collectors.toList());
+        return OnlinePlayerIndex.getInstance().complete(null, partialName, DEFAULT_COMPLETION_LIMIT);
+    }
+
+    /**
+     * Provides tab completion suggestions for online player names visible to the sender.
+     *
+     * @param sender      the sender requesting completions
+     * @param partialName the partial player name to filter by
+     * @return up to {@link #DEFAULT_COMPLETION_LIMIT} online player names that start with the partial name
+     */
+    public static List<String> tabCompleteOnlinePlayers(CommandSender sender, String partialName) {
+        return OnlinePlayerIndex.getInstance().complete(sender, partialName, DEFAULT_COMPLETION_LIMIT);
     }
 
     /**
      * Provides tab completion suggestions for offline player names.
      *
      * @param partialName the partial player name to filter by
-     * @return a list of offline player names that start with the partial name
-     * @deprecated This method may have performance issues. Run performance testing before using.
+     * @return up to {@link #DEFAULT_COMPLETION_LIMIT} known player names that start with the partial name
      */
-    @Deprecated //TODO: run performance testing.
     public static List<String> tabCompleteOfflinePlayers(String partialName) {
-        return Arrays.stream(Bukkit.getOfflinePlayers())
-                .map(OfflinePlayer::getName).filter(Objects::nonNull)
-                .filter(name -> name.toLowerCase().startsWith(partialName.toLowerCase()))
-                .collect(Collectors.toList());
+        return tabCompleteOfflinePlayers(partialName, DEFAULT_COMPLETION_LIMIT);
+    }
+
+    /**
+     * Provides tab completion suggestions for offline player names from the
+     * {@link PlayerNameIndex#offlinePlayers() offline player index}.
+     *
+     * @param partialName the partial player name to filter by
+     * @param limit       the maximum number of names to return
+     * @return known player names that start with the partial name, in alphabetical order
+     */
+    public static List<String> tabCompleteOfflinePlayers(String partialName, int limit) {
+        return PlayerNameIndex.offlinePlayers().complete(partialName, limit);
     }
 }
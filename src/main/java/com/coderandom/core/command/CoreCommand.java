@@ -0,0 +1,343 @@
+package com.coderandom.core.command;
+
+import com.coderandom.core.CodeRandomCore;
+import com.coderandom.core.command.tree.ArgumentParsers;
+import com.coderandom.core.command.tree.CommandContext;
+import com.coderandom.core.command.tree.TreeCommand;
+import com.coderandom.core.diagnostics.TickSampler;
+import com.coderandom.core.listener.HandlerStats;
+import com.coderandom.core.metrics.LatencyHistogram;
+import com.coderandom.core.metrics.MetricsRegistry;
+import com.coderandom.core.metrics.PrometheusExporter;
+import com.coderandom.core.storage.SnapshotEngine;
+import com.coderandom.core.utils.MessageUtils;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+
+import static com.coderandom.core.command.tree.ArgumentNode.argument;
+import static com.coderandom.core.command.tree.LiteralNode.literal;
+
+/**
+ * The {@code /crcore} administration command, exposing CodeRandomCore diagnostics.
+ */
+public final class CoreCommand extends TreeCommand {
+
+    /**
+     * The permission required to use the command.
+     */
+    public static final String PERMISSION = "coderandomcore.admin";
+
+    private static final int DEFAULT_TOP = 10;
+    private static final int MAX_METRIC_LINES = 40;
+
+    /**
+     * Constructs and registers the {@code /crcore} command.
+     *
+     * @param plugin   the plugin instance
+     * @param exporter the metrics exporter used by {@code /crcore metrics export}
+     */
+    public CoreCommand(Plugin plugin, PrometheusExporter exporter) {
+        super(plugin, literal("crcore")
+                        .then(literal("commands")
+                                .then(literal("top")
+                                        .executes(context -> showTopCommands(context, DEFAULT_TOP))
+                                        .then(argument("count", ArgumentParsers.integer(1, 100))
+                                                .executes(context -> showTopCommands(context, context.get("count", Integer.class)))))
+                                .then(literal("export")
+                                        .executes(context -> exportCommandStats(plugin, context.getSender())))
+                                .then(literal("reset")
+                                        .executes(context -> {
+                                            CommandStats.resetAll();
+                                            MessageUtils.formattedMessage(context.getSender(), "Command statistics reset.");
+                                        })))
+                        .then(literal("listeners")
+                                .then(literal("top")
+                                        .executes(context -> showTopListeners(context, DEFAULT_TOP))
+                                        .then(argument("count", ArgumentParsers.integer(1, 100))
+                                                .executes(context -> showTopListeners(context, context.get("count", Integer.class)))))
+                                .then(literal("reset")
+                                        .executes(context -> {
+                                            HandlerStats.resetAll();
+                                            MessageUtils.formattedMessage(context.getSender(), "Listener statistics reset.");
+                                        })))
+                        .then(literal("metrics")
+                                .executes(context -> showMetrics(context, ""))
+                                .then(literal("export")
+                                        .executes(context -> exportMetrics(exporter, context.getSender())))
+                                .then(argument("filter", ArgumentParsers.WORD)
+                                        .executes(context -> showMetrics(context, context.get("filter", String.class)))))
+                        .then(literal("lag")
+                                .executes(context -> showLag(context.getSender()))
+                                .then(literal("export")
+                                        .executes(context -> exportLag(plugin, context.getSender())))
+                                .then(literal("reset")
+                                        .executes(context -> {
+                                            TickSampler.getInstance().reset();
+                                            MessageUtils.formattedMessage(context.getSender(), "Lag spike samples reset.");
+                                        })))
+                        .then(literal("snapshot")
+                                .executes(context -> takeSnapshot(context.getSender()))
+                                .then(literal("list")
+                                        .executes(context -> listSnapshots(plugin, context.getSender())))
+                                .then(literal("restore")
+                                        .then(argument("name", ArgumentParsers.WORD)
+                                                .executes(context -> restoreSnapshot(plugin, context.getSender(),
+                                                        context.get("name", String.class)))))),
+                new String[]{"coderandomcore"}, PERMISSION, "CodeRandomCore diagnostics");
+    }
+
+    /**
+     * Shows the commands that spent the most time on the thread that ran them.
+     */
+    private static void showTopCommands(CommandContext context, int count) {
+        List<CommandStats> top = CommandStats.top(count);
+        if (top.isEmpty()) {
+            MessageUtils.formattedMessage(context.getSender(), "No commands have been recorded yet.");
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        for (CommandStats stats : top) {
+            LatencyHistogram executions = stats.getExecutions();
+            lines.add(stats.getPlugin() + ":" + stats.getCommand()
+                    + " runs " + executions.getCount()
+                    + ", total " + millis(stats.getTotalNanos())
+                    + ", avg " + millis((long) executions.getMeanNanos())
+                    + ", p99 " + millis(executions.getPercentileNanos(99))
+                    + ", max " + millis(executions.getMaxNanos())
+                    + ", tab p99 " + millis(stats.getTabCompletions().getPercentileNanos(99))
+                    + ", errors " + stats.getErrors());
+        }
+        MessageUtils.messageWithTitle(context.getSender(), "Top Commands", lines.toArray(new String[0]));
+    }
+
+    /**
+     * Shows the timed event handlers that spent the most time running.
+     */
+    private static void showTopListeners(CommandContext context, int count) {
+        List<HandlerStats> top = HandlerStats.top(count);
+        if (top.isEmpty()) {
+            MessageUtils.formattedMessage(context.getSender(), "No timed event handlers have been recorded yet.");
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        for (HandlerStats stats : top) {
+            LatencyHistogram calls = stats.getCalls();
+            lines.add(stats.getPlugin() + ":" + stats.getListener() + "." + stats.getHandler() + "(" + stats.getEvent() + ")"
+                    + " calls " + calls.getCount()
+                    + ", total " + millis(stats.getTotalNanos())
+                    + ", avg " + millis((long) calls.getMeanNanos())
+                    + ", p99 " + millis(calls.getPercentileNanos(99))
+                    + ", max " + millis(calls.getMaxNanos())
+                    + ", slow ticks " + stats.getSlowTicks());
+        }
+        MessageUtils.messageWithTitle(context.getSender(), "Top Listeners", lines.toArray(new String[0]));
+    }
+
+    /**
+     * Shows recent tick percentiles, the latest spikes with the core work in flight, and the hottest methods.
+     */
+    private static void showLag(CommandSender sender) {
+        TickSampler sampler = TickSampler.getInstance();
+        if (!sampler.isRunning()) {
+            MessageUtils.formattedErrorMessage(sender, "The tick sampler is disabled; set TickSampler.enabled in the config.");
+            return;
+        }
+        List<String> lines = new ArrayList<>(tickSummary(sampler));
+        List<TickSampler.Spike> spikes = sampler.getSpikes();
+        for (TickSampler.Spike spike : spikes.subList(Math.max(0, spikes.size() - 5), spikes.size())) {
+            lines.add("spike " + millis(spike.durationNanos()) + ", " + spike.samples() + " samples"
+                    + (spike.blockedOn() == null ? "" : ", blocked on " + spike.blockedOn())
+                    + ": " + String.join("; ", spike.inFlight()));
+        }
+        for (TickSampler.HotFrame frame : sampler.getHotFrames(DEFAULT_TOP)) {
+            lines.add(frame.self() + "/" + frame.total() + " " + frame.frame());
+        }
+        MessageUtils.messageWithTitle(sender, "Lag", lines.toArray(new String[0]));
+    }
+
+    private static List<String> tickSummary(TickSampler sampler) {
+        return List.of(sampler.getSampledTicks() + " ticks"
+                        + ", p50 " + millis(sampler.getTickPercentileNanos(50))
+                        + ", p95 " + millis(sampler.getTickPercentileNanos(95))
+                        + ", p99 " + millis(sampler.getTickPercentileNanos(99))
+                        + ", max " + millis(sampler.getTickPercentileNanos(100)),
+                String.format(Locale.ROOT, "average core backlog %.1f, %d spikes recorded",
+                        sampler.getAverageBacklog(), sampler.getSpikes().size()));
+    }
+
+    /**
+     * Writes the lag spikes, hot methods and folded stacks to a file off the main thread.
+     */
+    private static void exportLag(Plugin plugin, CommandSender sender) {
+        TickSampler sampler = TickSampler.getInstance();
+        List<String> summary = tickSummary(sampler);
+        File directory = new File(plugin.getDataFolder(), "exports");
+        CompletableFuture.runAsync(() -> {
+            try {
+                File file = sampler.export(directory, summary);
+                plugin.getLogger().info("Exported lag spikes to " + file.getPath());
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Could not export lag spikes", e);
+            }
+        }, CodeRandomCore.getExecutors().io());
+        MessageUtils.formattedMessage(sender, "Exporting lag spikes to " + directory.getName());
+    }
+
+    /**
+     * Takes a snapshot of the registered data files now instead of waiting for the next interval.
+     */
+    private static void takeSnapshot(CommandSender sender) {
+        SnapshotEngine.getInstance().snapshotAsync().whenComplete((name, throwable) -> {
+            if (throwable != null) {
+                MessageUtils.formattedErrorMessage(sender, "The snapshot failed, see the log.");
+            } else if (name == null) {
+                MessageUtils.formattedErrorMessage(sender, "Snapshots are disabled or one is already running.");
+            } else {
+                MessageUtils.formattedMessage(sender, "Took snapshot " + name + ".");
+            }
+        });
+    }
+
+    /**
+     * Lists the kept snapshots, reading the snapshot folder off the main thread.
+     */
+    private static void listSnapshots(Plugin plugin, CommandSender sender) {
+        CompletableFuture.runAsync(() -> {
+            try {
+                List<String> names = SnapshotEngine.getInstance().list();
+                if (names.isEmpty()) {
+                    MessageUtils.formattedMessage(sender, "No snapshots have been taken yet.");
+                } else {
+                    MessageUtils.messageWithTitle(sender, "Snapshots", names.toArray(new String[0]));
+                }
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Could not list snapshots", e);
+            }
+        }, CodeRandomCore.getExecutors().io());
+    }
+
+    /**
+     * Restores a snapshot into its own folder, leaving the live data files untouched.
+     */
+    private static void restoreSnapshot(Plugin plugin, CommandSender sender, String name) {
+        SnapshotEngine.getInstance().restoreAsync(name).whenComplete((target, throwable) -> {
+            if (throwable != null) {
+                plugin.getLogger().log(Level.SEVERE, "Could not restore snapshot " + name, throwable);
+                MessageUtils.formattedErrorMessage(sender, "Could not restore snapshot " + name + ", see the log.");
+            } else {
+                MessageUtils.formattedMessage(sender, "Restored snapshot " + name + " to " + target);
+            }
+        });
+    }
+
+    /**
+     * Shows the current value of every metric whose name contains the filter.
+     */
+    private static void showMetrics(CommandContext context, String filter) {
+        List<String> lines = new ArrayList<>();
+        int matched = 0;
+        for (MetricsRegistry.Sample sample : MetricsRegistry.getInstance().snapshot()) {
+            if (!sample.name().contains(filter)) {
+                continue;
+            }
+            if (++matched > MAX_METRIC_LINES) {
+                continue;
+            }
+            String series = sample.labels().isEmpty() ? sample.name() : sample.name() + "{" + sample.labels() + "}";
+            LatencyHistogram histogram = sample.histogram();
+            if (histogram != null) {
+                lines.add(series + " count " + histogram.getCount()
+                        + ", avg " + millis((long) histogram.getMeanNanos())
+                        + ", p50 " + millis(histogram.getPercentileNanos(50))
+                        + ", p99 " + millis(histogram.getPercentileNanos(99))
+                        + ", max " + millis(histogram.getMaxNanos()));
+            } else {
+                double value = sample.value();
+                lines.add(series + " " + (value == (long) value ? Long.toString((long) value) : String.format(Locale.ROOT, "%.3f", value)));
+            }
+        }
+        if (matched == 0) {
+            MessageUtils.formattedMessage(context.getSender(), "No metrics match '" + filter + "'.");
+            return;
+        }
+        if (matched > MAX_METRIC_LINES) {
+            lines.add((matched - MAX_METRIC_LINES) + " more, narrow the filter or use /crcore metrics export");
+        }
+        MessageUtils.messageWithTitle(context.getSender(), "Metrics", lines.toArray(new String[0]));
+    }
+
+    /**
+     * Writes the metrics file now instead of waiting for the next periodic export.
+     */
+    private static void exportMetrics(PrometheusExporter exporter, CommandSender sender) {
+        MessageUtils.formattedMessage(sender, "Writing metrics to " + exporter.getFile().getName());
+        exporter.writeAsync();
+    }
+
+    /**
+     * Writes every command's statistics, including histogram buckets, to a CSV file off the main thread.
+     */
+    private static void exportCommandStats(Plugin plugin, CommandSender sender) {
+        List<CommandStats> all = new ArrayList<>(CommandStats.all());
+        File file = new File(new File(plugin.getDataFolder(), "exports"),
+                "commands-" + new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.ROOT).format(new Date()) + ".csv");
+        CompletableFuture.runAsync(() -> {
+            try {
+                writeCsv(file, all);
+                plugin.getLogger().info("Exported command statistics to " + file.getPath());
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Could not export command statistics", e);
+            }
+        }, CodeRandomCore.getExecutors().io());
+        MessageUtils.formattedMessage(sender, "Exporting command statistics to " + file.getName());
+    }
+
+    private static void writeCsv(File file, List<CommandStats> all) throws IOException {
+        File directory = file.getParentFile();
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            StringBuilder header = new StringBuilder("plugin,command,type,count,errors,sum_ns,max_ns");
+            for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+                header.append(",lt_").append(LatencyHistogram.upperBound(i)).append("_ns");
+            }
+            writer.println(header);
+            for (CommandStats stats : all) {
+                writeRow(writer, stats, "execute", stats.getExecutions(), stats.getErrors());
+                writeRow(writer, stats, "tab_complete", stats.getTabCompletions(), 0);
+            }
+        }
+    }
+
+    private static void writeRow(PrintWriter writer, CommandStats stats, String type, LatencyHistogram histogram, long errors) {
+        StringBuilder row = new StringBuilder()
+                .append(stats.getPlugin()).append(',')
+                .append(stats.getCommand()).append(',')
+                .append(type).append(',')
+                .append(histogram.getCount()).append(',')
+                .append(errors).append(',')
+                .append(histogram.getSumNanos()).append(',')
+                .append(histogram.getMaxNanos());
+        for (long bucket : histogram.getBucketCounts()) {
+            row.append(',').append(bucket);
+        }
+        writer.println(row);
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2fms", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,103 @@
+package com.coderandom.core.command;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted index of online players keyed by their lowercased name.
+ * Maintained on join and quit by {@link com.coderandom.core.listener.PlayerNameIndexListener}.
+ */
+public final class OnlinePlayerIndex {
+
+    private static final OnlinePlayerIndex INSTANCE = new OnlinePlayerIndex();
+
+    private final ConcurrentNavigableMap<String, Player> players = new ConcurrentSkipListMap<>();
+
+    private OnlinePlayerIndex() {
+    }
+
+    /**
+     * Returns the index of players currently online.
+     *
+     * @return the online player index
+     */
+    public static OnlinePlayerIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Adds a player to the index.
+     *
+     * @param player the player that joined
+     */
+    public void add(Player player) {
+        players.put(player.getName().toLowerCase(Locale.ROOT), player);
+    }
+
+    /**
+     * Removes a player from the index.
+     *
+     * @param player the player that quit
+     */
+    public void remove(Player player) {
+        players.remove(player.getName().toLowerCase(Locale.ROOT), player);
+    }
+
+    /**
+     * Returns up to {@code limit} online player names starting with the prefix, ignoring case.
+     * If the sender is a player, players they cannot see (for example vanished players) are left out.
+     *
+     * @param sender the sender requesting completions, or null to skip visibility filtering
+     * @param prefix the partial name to complete
+     * @param limit  the maximum number of names to return
+     * @return the matching names in alphabetical order
+     */
+    public List<String> complete(CommandSender sender, String prefix, int limit) {
+        List<String> matches = new ArrayList<>(Math.min(limit, 16));
+        if (limit <= 0) {
+            return matches;
+        }
+        Player viewer = sender instanceof Player ? (Player) sender : null;
+        String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+        for (Map.Entry<String, Player> entry : players.tailMap(lowerPrefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(lowerPrefix)) {
+                break;
+            }
+            Player player = entry.getValue();
+            if (viewer != null && !viewer.canSee(player)) {
+                continue;
+            }
+            matches.add(player.getName());
+            if (matches.size() >= limit) {
+                break;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Retrieves an online player by exact name, ignoring case.
+     *
+     * @param name the player name
+     * @return the player, or null if no player with that name is online
+     */
+    public Player get(String name) {
+        return players.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns the number of indexed players.
+     *
+     * @return the number of online players
+     */
+    public int size() {
+        return players.size();
+    }
+}
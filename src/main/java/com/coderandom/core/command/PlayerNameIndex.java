@@ -0,0 +1,112 @@
+package com.coderandom.core.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Case-insensitive, sorted index of player names for prefix lookups.
+ * Lookups cost O(log n + results) and the index can be updated from any thread.
+ */
+public final class PlayerNameIndex {
+
+    private static final PlayerNameIndex OFFLINE_PLAYERS = new PlayerNameIndex();
+
+    private final ConcurrentNavigableMap<String, String> names = new ConcurrentSkipListMap<>();
+    private volatile boolean ready;
+
+    /**
+     * Returns the index of every player known to have joined the server.
+     * It is filled in the background during startup and updated on join.
+     *
+     * @return the offline player name index
+     */
+    public static PlayerNameIndex offlinePlayers() {
+        return OFFLINE_PLAYERS;
+    }
+
+    /**
+     * Adds a name to the index, replacing any entry that differs only in case.
+     *
+     * @param name the player name to add
+     */
+    public void add(String name) {
+        if (name != null && !name.isEmpty()) {
+            names.put(name.toLowerCase(Locale.ROOT), name);
+        }
+    }
+
+    /**
+     * Removes a name from the index, ignoring case.
+     *
+     * @param name the player name to remove
+     */
+    public void remove(String name) {
+        if (name != null) {
+            names.remove(name.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} names starting with the prefix, ignoring case, in alphabetical order.
+     *
+     * @param prefix the partial name to complete
+     * @param limit  the maximum number of names to return
+     * @return the matching names
+     */
+    public List<String> complete(String prefix, int limit) {
+        List<String> matches = new ArrayList<>(Math.min(limit, 16));
+        if (limit <= 0) {
+            return matches;
+        }
+        String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+        for (Map.Entry<String, String> entry : names.tailMap(lowerPrefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(lowerPrefix)) {
+                break;
+            }
+            matches.add(entry.getValue());
+            if (matches.size() >= limit) {
+                break;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Checks whether a name is in the index, ignoring case.
+     *
+     * @param name the player name
+     * @return true if the name is indexed, false otherwise
+     */
+    public boolean contains(String name) {
+        return names.containsKey(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns the number of indexed names.
+     *
+     * @return the number of names
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Checks whether the initial build of the index has finished.
+     *
+     * @return true if the index is fully built, false while it is still being filled
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Marks the initial build of the index as finished.
+     */
+    public void markReady() {
+        ready = true;
+    }
+}
@@ -0,0 +1,121 @@
+package com.coderandom.core.command;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Describes how often a command may be used: a fixed cooldown or a token bucket,
+ * applied per player or globally.
+ * <p>
+ * A token bucket of capacity {@code n} refilling one token every {@code t} allows bursts of
+ * {@code n} uses followed by one use every {@code t}. A cooldown is a bucket of capacity one.
+ */
+public final class RateLimit {
+
+    /**
+     * Who shares the limit.
+     */
+    public enum Scope {
+        /**
+         * Each player has their own limit.
+         */
+        PLAYER,
+        /**
+         * All senders share one limit.
+         */
+        GLOBAL
+    }
+
+    private final Scope scope;
+    private final long intervalNanos;
+    private final int capacity;
+    private final String bypassPermission;
+
+    private RateLimit(Scope scope, long intervalNanos, int capacity, String bypassPermission) {
+        if (intervalNanos <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("A rate limit needs a positive interval and a capacity of at least 1.");
+        }
+        this.scope = scope;
+        this.intervalNanos = intervalNanos;
+        this.capacity = capacity;
+        this.bypassPermission = bypassPermission;
+    }
+
+    /**
+     * Creates a per-player cooldown.
+     *
+     * @param duration the cooldown duration
+     * @param unit     the unit of the duration
+     * @return the rate limit
+     */
+    public static RateLimit cooldown(long duration, TimeUnit unit) {
+        return new RateLimit(Scope.PLAYER, unit.toNanos(duration), 1, null);
+    }
+
+    /**
+     * Creates a per-player token bucket.
+     *
+     * @param capacity       the number of uses that can be made in a burst
+     * @param refillDuration the time it takes to refill one token
+     * @param unit           the unit of the refill duration
+     * @return the rate limit
+     */
+    public static RateLimit tokenBucket(int capacity, long refillDuration, TimeUnit unit) {
+        return new RateLimit(Scope.PLAYER, unit.toNanos(refillDuration), capacity, null);
+    }
+
+    /**
+     * Returns a copy of this limit with a different scope.
+     *
+     * @param scope the new scope
+     * @return the rate limit
+     */
+    public RateLimit scope(Scope scope) {
+        return new RateLimit(scope, intervalNanos, capacity, bypassPermission);
+    }
+
+    /**
+     * Returns a copy of this limit that senders with the given permission are exempt from.
+     *
+     * @param permission the bypass permission
+     * @return the rate limit
+     */
+    public RateLimit bypassPermission(String permission) {
+        return new RateLimit(scope, intervalNanos, capacity, permission);
+    }
+
+    /**
+     * Returns who shares the limit.
+     *
+     * @return the scope
+     */
+    public Scope getScope() {
+        return scope;
+    }
+
+    /**
+     * Returns the time it takes to refill one use.
+     *
+     * @return the interval in nanoseconds
+     */
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    /**
+     * Returns the number of uses that can be made in a burst.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the permission that exempts senders from the limit.
+     *
+     * @return the bypass permission, or null if there is none
+     */
+    public String getBypassPermission() {
+        return bypassPermission;
+    }
+}
@@ -0,0 +1,376 @@
+package com.coderandom.core.command;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Enforces a {@link RateLimit} using the generic cell rate algorithm, which keeps a single
+ * "theoretical arrival time" per key instead of a token count and a timestamp.
+ * <p>
+ * State lives in an open-addressing table of primitive {@code long} keys and values. Checking
+ * a key that is already present is a lock-free compare-and-set and allocates nothing. Inserting
+ * a new key, deleting an expired one and rebuilding the table take a lock. Expired keys are found
+ * through a hashed time wheel, so reclaiming them never sweeps the whole table.
+ */
+public final class RateLimiter {
+
+    private static final long EMPTY = 0L;
+    private static final long TOMBSTONE = Long.MIN_VALUE;
+    private static final long DEAD = Long.MIN_VALUE;
+    private static final long MOVED = Long.MIN_VALUE + 1;
+    private static final long GLOBAL_KEY = 1L;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int WHEEL_SIZE = 512;
+    private static final long WHEEL_TICK_NANOS = 50_000_000L;
+
+    private final RateLimit limit;
+    private final long interval;
+    private final long tolerance;
+    private final long epoch = System.nanoTime() - 1;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+    private int used;
+    private int live;
+
+    private final long[][] wheel = new long[WHEEL_SIZE][];
+    private final int[] wheelSizes = new int[WHEEL_SIZE];
+    private long wheelTick;
+    private volatile long nextAdvance;
+
+    /**
+     * Creates a rate limiter for the given limit.
+     *
+     * @param limit the limit to enforce
+     */
+    public RateLimiter(RateLimit limit) {
+        this.limit = limit;
+        this.interval = limit.getIntervalNanos();
+        this.tolerance = interval * (limit.getCapacity() - 1);
+        this.wheelTick = now() / WHEEL_TICK_NANOS;
+        this.nextAdvance = (wheelTick + 1) * WHEEL_TICK_NANOS;
+    }
+
+    /**
+     * Returns the limit this rate limiter enforces.
+     *
+     * @return the rate limit
+     */
+    public RateLimit getLimit() {
+        return limit;
+    }
+
+    /**
+     * Attempts to use the limit on behalf of a sender, keyed according to the limit's scope.
+     * Senders holding the bypass permission are always allowed and use nothing.
+     *
+     * @param sender the sender using the command
+     * @return 0 if the use is allowed, otherwise the nanoseconds until it will be
+     */
+    public long tryAcquire(CommandSender sender) {
+        String bypass = limit.getBypassPermission();
+        if (bypass != null && sender.hasPermission(bypass)) {
+            return 0;
+        }
+        if (limit.getScope() == RateLimit.Scope.GLOBAL) {
+            return tryAcquire(GLOBAL_KEY);
+        }
+        if (sender instanceof Player player) {
+            return tryAcquire(player.getUniqueId());
+        }
+        return 0;
+    }
+
+    /**
+     * Attempts to use the limit on behalf of a player.
+     *
+     * @param uuid the UUID of the player
+     * @return 0 if the use is allowed, otherwise the nanoseconds until it will be
+     */
+    public long tryAcquire(UUID uuid) {
+        return tryAcquire(mix(uuid.getMostSignificantBits() ^ Long.rotateLeft(uuid.getLeastSignificantBits(), 32)));
+    }
+
+    /**
+     * Attempts to use the limit for a primitive key.
+     *
+     * @param key the key, which must not be 0 or {@link Long#MIN_VALUE}
+     * @return 0 if the use is allowed, otherwise the nanoseconds until it will be
+     */
+    public long tryAcquire(long key) {
+        long now = now();
+        if (now >= nextAdvance && lock.tryLock()) {
+            try {
+                advance(now);
+            } finally {
+                lock.unlock();
+            }
+        }
+        Table current = table;
+        int slot = current.find(key);
+        if (slot >= 0) {
+            for (;;) {
+                long arrival = current.values.get(slot);
+                if (arrival == DEAD || arrival == MOVED) {
+                    break;
+                }
+                long wait = arrival - tolerance - now;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (current.values.compareAndSet(slot, arrival, Math.max(arrival, now) + interval)) {
+                    return 0;
+                }
+            }
+        }
+        return acquireLocked(key, now);
+    }
+
+    /**
+     * Returns how long a player has to wait before the next use, without using the limit.
+     *
+     * @param uuid the UUID of the player
+     * @return 0 if a use would be allowed now, otherwise the nanoseconds until it will be
+     */
+    public long remaining(UUID uuid) {
+        return remaining(limit.getScope() == RateLimit.Scope.GLOBAL ? GLOBAL_KEY
+                : mix(uuid.getMostSignificantBits() ^ Long.rotateLeft(uuid.getLeastSignificantBits(), 32)));
+    }
+
+    private long remaining(long key) {
+        for (;;) {
+            Table current = table;
+            int slot = current.find(key);
+            if (slot < 0) {
+                return 0;
+            }
+            long arrival = current.values.get(slot);
+            if (arrival == MOVED) {
+                continue;
+            }
+            return arrival == DEAD ? 0 : Math.max(0, arrival - tolerance - now());
+        }
+    }
+
+    /**
+     * Returns the number of keys currently tracked, including ones that expired but were not yet reclaimed.
+     *
+     * @return the number of tracked keys
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return live;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets all state, allowing every key to use the limit again.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            Table old = table;
+            for (int i = 0; i < old.capacity(); i++) {
+                old.values.set(i, MOVED);
+            }
+            table = new Table(INITIAL_CAPACITY);
+            used = 0;
+            live = 0;
+            Arrays.fill(wheelSizes, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Slow path for keys that are absent or in the middle of being removed or moved.
+     */
+    private long acquireLocked(long key, long now) {
+        lock.lock();
+        try {
+            Table current = table;
+            int slot = current.find(key);
+            if (slot >= 0) {
+                // Only other lock-free callers can race with us here, so the value is always live
+                for (;;) {
+                    long arrival = current.values.get(slot);
+                    long wait = arrival - tolerance - now;
+                    if (wait > 0) {
+                        return wait;
+                    }
+                    if (current.values.compareAndSet(slot, arrival, Math.max(arrival, now) + interval)) {
+                        return 0;
+                    }
+                }
+            }
+            if ((used + 1) * 4 > current.capacity() * 3) {
+                current = rebuild(now);
+            }
+            long arrival = now + interval;
+            current.insert(key, arrival);
+            used++;
+            live++;
+            schedule(key, arrival);
+            return 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copies live entries into a new table sized for them and publishes it.
+     * Entries in the old table are marked as moved so lock-free callers retry on the new one.
+     */
+    private Table rebuild(long now) {
+        Table old = table;
+        int capacity = INITIAL_CAPACITY;
+        while (capacity * 3 < (live + 1) * 8) {
+            capacity <<= 1;
+        }
+        Table rebuilt = new Table(capacity);
+        int count = 0;
+        for (int i = 0; i < old.capacity(); i++) {
+            long key = old.keys.get(i);
+            if (key == EMPTY || key == TOMBSTONE) {
+                continue;
+            }
+            long arrival = old.values.getAndSet(i, MOVED);
+            if (arrival != DEAD && arrival > now) {
+                rebuilt.insert(key, arrival);
+                count++;
+            }
+        }
+        table = rebuilt;
+        used = count;
+        live = count;
+        return rebuilt;
+    }
+
+    /**
+     * Reclaims keys whose arrival time has passed, one wheel slot per elapsed tick.
+     */
+    private void advance(long now) {
+        long target = now / WHEEL_TICK_NANOS;
+        long from = Math.max(wheelTick + 1, target - WHEEL_SIZE + 1);
+        for (long tick = from; tick <= target; tick++) {
+            int index = (int) (tick & (WHEEL_SIZE - 1));
+            int count = wheelSizes[index];
+            if (count == 0) {
+                continue;
+            }
+            long[] keys = wheel[index];
+            wheel[index] = null;
+            wheelSizes[index] = 0;
+            for (int i = 0; i < count; i++) {
+                expire(keys[i], now);
+            }
+        }
+        wheelTick = target;
+        nextAdvance = (target + 1) * WHEEL_TICK_NANOS;
+    }
+
+    private void expire(long key, long now) {
+        Table current = table;
+        int slot = current.find(key);
+        if (slot < 0) {
+            return;
+        }
+        for (;;) {
+            long arrival = current.values.get(slot);
+            if (arrival > now) {
+                schedule(key, arrival);
+                return;
+            }
+            if (current.values.compareAndSet(slot, arrival, DEAD)) {
+                current.keys.set(slot, TOMBSTONE);
+                live--;
+                return;
+            }
+        }
+    }
+
+    private void schedule(long key, long arrival) {
+        // Arrivals further out than one revolution are simply revisited and rescheduled
+        int index = (int) ((arrival / WHEEL_TICK_NANOS + 1) & (WHEEL_SIZE - 1));
+        long[] keys = wheel[index];
+        int count = wheelSizes[index];
+        if (keys == null) {
+            keys = wheel[index] = new long[8];
+        } else if (count == keys.length) {
+            keys = wheel[index] = Arrays.copyOf(keys, count << 1);
+        }
+        keys[count] = key;
+        wheelSizes[index] = count + 1;
+    }
+
+    private long now() {
+        return System.nanoTime() - epoch;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value == EMPTY || value == TOMBSTONE ? GLOBAL_KEY + 1 : value;
+    }
+
+    /**
+     * Linear-probing table of keys and arrival times. Values are written before keys,
+     * so a reader that sees a key also sees its value.
+     */
+    private static final class Table {
+        private final AtomicLongArray keys;
+        private final AtomicLongArray values;
+        private final int mask;
+
+        private Table(int capacity) {
+            keys = new AtomicLongArray(capacity);
+            values = new AtomicLongArray(capacity);
+            mask = capacity - 1;
+        }
+
+        private int capacity() {
+            return mask + 1;
+        }
+
+        private int find(long key) {
+            int slot = (int) (key ^ (key >>> 32)) & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                long current = keys.get(slot);
+                if (current == key) {
+                    return slot;
+                }
+                if (current == EMPTY) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Inserts a key known to be absent. Tombstones are never reused, so a slot only ever
+         * holds one key and a lock-free caller can never update another key's value.
+         */
+        private void insert(long key, long value) {
+            int slot = (int) (key ^ (key >>> 32)) & mask;
+            for (;;) {
+                if (keys.get(slot) == EMPTY) {
+                    values.set(slot, value);
+                    keys.set(slot, key);
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+    }
+}
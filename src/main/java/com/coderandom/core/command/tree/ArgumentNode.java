@@ -0,0 +1,84 @@
+package com.coderandom.core.command.tree;
+
+/**
+ * A command tree node that parses a typed value.
+ *
+ * @param <T> the type of the parsed value
+ */
+public final class ArgumentNode<T> extends CommandNode {
+
+    private final ArgumentParser<T> parser;
+    private final boolean greedy;
+
+    private ArgumentNode(String name, ArgumentParser<T> parser, boolean greedy) {
+        super(name);
+        this.parser = parser;
+        this.greedy = greedy;
+    }
+
+    /**
+     * Creates an argument node consuming a single word.
+     *
+     * @param name   the name the value is stored under in the {@link CommandContext}
+     * @param parser the parser for the value
+     * @param <T>    the type of the parsed value
+     * @return the node
+     */
+    public static <T> ArgumentNode<T> argument(String name, ArgumentParser<T> parser) {
+        return new ArgumentNode<>(name, parser, false);
+    }
+
+    /**
+     * Creates an argument node consuming all remaining words, joined by spaces, such as a reason or message.
+     *
+     * @param name the name the value is stored under in the {@link CommandContext}
+     * @return the node
+     */
+    public static ArgumentNode<String> greedyString(String name) {
+        return new ArgumentNode<>(name, ArgumentParsers.WORD, true);
+    }
+
+    /**
+     * Returns the parser of this argument.
+     *
+     * @return the parser
+     */
+    public ArgumentParser<T> getParser() {
+        return parser;
+    }
+
+    /**
+     * Checks whether this argument consumes all remaining words.
+     *
+     * @return true if greedy, false otherwise
+     */
+    public boolean isGreedy() {
+        return greedy;
+    }
+
+    @Override
+    public String getUsageText() {
+        return greedy ? '<' + getName() + "...>" : '<' + getName() + '>';
+    }
+
+    @Override
+    public ArgumentNode<T> then(CommandNode child) {
+        if (greedy) {
+            throw new IllegalStateException("A greedy argument cannot have children.");
+        }
+        super.then(child);
+        return this;
+    }
+
+    @Override
+    public ArgumentNode<T> executes(CommandAction action) {
+        super.executes(action);
+        return this;
+    }
+
+    @Override
+    public ArgumentNode<T> requires(String permission) {
+        super.requires(permission);
+        return this;
+    }
+}
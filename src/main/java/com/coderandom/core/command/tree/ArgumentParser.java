@@ -0,0 +1,42 @@
+package com.coderandom.core.command.tree;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parses a single command argument into a typed value.
+ * Parsers report invalid input by returning null rather than throwing.
+ *
+ * @param <T> the type of the parsed value
+ */
+public interface ArgumentParser<T> {
+
+    /**
+     * Parses the input.
+     *
+     * @param sender the sender of the command
+     * @param input  the raw argument
+     * @return the parsed value, or null if the input is invalid
+     */
+    T parse(CommandSender sender, String input);
+
+    /**
+     * Returns the name of the expected type, used in error messages.
+     *
+     * @return the type name, such as {@code "number"}
+     */
+    String getTypeName();
+
+    /**
+     * Provides tab completion suggestions for a partial argument.
+     *
+     * @param sender  the sender requesting completions
+     * @param partial the partial argument
+     * @return the suggestions, empty by default
+     */
+    default List<String> suggest(CommandSender sender, String partial) {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,154 @@
+package com.coderandom.core.command.tree;
+
+import com.coderandom.core.command.CommandUtil;
+import com.coderandom.core.command.OnlinePlayerIndex;
+import com.coderandom.core.utils.UuidCodec;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Built-in argument parsers for command trees.
+ */
+public final class ArgumentParsers {
+
+    /**
+     * Parses a whole number.
+     */
+    public static final ArgumentParser<Integer> INTEGER = new SimpleParser<>("whole number") {
+        @Override
+        public Integer parse(CommandSender sender, String input) {
+            return CommandUtil.parseInt(input);
+        }
+    };
+
+    /**
+     * Parses a decimal number.
+     */
+    public static final ArgumentParser<Double> DOUBLE = new SimpleParser<>("number") {
+        @Override
+        public Double parse(CommandSender sender, String input) {
+            return CommandUtil.parseDouble(input);
+        }
+    };
+
+    /**
+     * Parses an online player visible to the sender, completing online player names.
+     */
+    public static final ArgumentParser<Player> PLAYER = new SimpleParser<>("online player") {
+        @Override
+        public Player parse(CommandSender sender, String input) {
+            Player player = OnlinePlayerIndex.getInstance().get(input);
+            if (player != null && sender instanceof Player && !((Player) sender).canSee(player)) {
+                return null;
+            }
+            return player;
+        }
+
+        @Override
+        public List<String> suggest(CommandSender sender, String partial) {
+            return CommandUtil.tabCompleteOnlinePlayers(sender, partial);
+        }
+    };
+
+    /**
+     * Parses a UUID in dashed or dashless form.
+     */
+    public static final ArgumentParser<UUID> UUID = new SimpleParser<>("UUID") {
+        @Override
+        public UUID parse(CommandSender sender, String input) {
+            return UuidCodec.parse(input);
+        }
+    };
+
+    /**
+     * Accepts any single word.
+     */
+    public static final ArgumentParser<String> WORD = new SimpleParser<>("word") {
+        @Override
+        public String parse(CommandSender sender, String input) {
+            return input;
+        }
+    };
+
+    private ArgumentParsers() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Parses a whole number within a range.
+     *
+     * @param min the smallest accepted value
+     * @param max the largest accepted value
+     * @return the parser
+     */
+    public static ArgumentParser<Integer> integer(int min, int max) {
+        return new SimpleParser<>("whole number from " + min + " to " + max) {
+            @Override
+            public Integer parse(CommandSender sender, String input) {
+                Integer value = CommandUtil.parseInt(input);
+                return value == null || value < min || value > max ? null : value;
+            }
+        };
+    }
+
+    /**
+     * Parses a decimal number within a range.
+     *
+     * @param min the smallest accepted value
+     * @param max the largest accepted value
+     * @return the parser
+     */
+    public static ArgumentParser<Double> decimal(double min, double max) {
+        return new SimpleParser<>("number from " + min + " to " + max) {
+            @Override
+            public Double parse(CommandSender sender, String input) {
+                Double value = CommandUtil.parseDouble(input);
+                return value == null || value < min || value > max ? null : value;
+            }
+        };
+    }
+
+    /**
+     * Accepts one of a fixed set of words, ignoring case, completing them as suggestions.
+     *
+     * @param choices the accepted words
+     * @return the parser
+     */
+    public static ArgumentParser<String> choice(String... choices) {
+        return new SimpleParser<>("one of " + String.join(", ", choices)) {
+            @Override
+            public String parse(CommandSender sender, String input) {
+                for (String choice : choices) {
+                    if (choice.equalsIgnoreCase(input)) {
+                        return choice;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public List<String> suggest(CommandSender sender, String partial) {
+                return CommandUtil.tabCompleteFilter(partial, choices);
+            }
+        };
+    }
+
+    /**
+     * Base class holding the type name of a parser.
+     */
+    private abstract static class SimpleParser<T> implements ArgumentParser<T> {
+        private final String typeName;
+
+        private SimpleParser(String typeName) {
+            this.typeName = typeName;
+        }
+
+        @Override
+        public String getTypeName() {
+            return typeName;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.coderandom.core.command.tree;
+
+/**
+ * The logic run when a command tree node is executed.
+ */
+@FunctionalInterface
+public interface CommandAction {
+
+    /**
+     * Executes the command.
+     *
+     * @param context the sender and parsed arguments
+     */
+    void execute(CommandContext context);
+}
@@ -0,0 +1,84 @@
+package com.coderandom.core.command.tree;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The sender, raw arguments and parsed argument values of a command tree invocation.
+ */
+public final class CommandContext {
+
+    private final CommandSender sender;
+    private final String[] args;
+    private final Map<String, Object> values = new HashMap<>(8);
+
+    CommandContext(CommandSender sender, String[] args) {
+        this.sender = sender;
+        this.args = args;
+    }
+
+    /**
+     * Returns the sender of the command.
+     *
+     * @return the command sender
+     */
+    public CommandSender getSender() {
+        return sender;
+    }
+
+    /**
+     * Returns the raw arguments passed to the command.
+     *
+     * @return the arguments
+     */
+    public String[] getArgs() {
+        return args;
+    }
+
+    /**
+     * Retrieves a parsed argument value.
+     *
+     * @param name the name of the argument node
+     * @param type the expected type of the value
+     * @param <T>  the type of the value
+     * @return the parsed value
+     * @throws IllegalArgumentException if no argument with that name was parsed
+     */
+    public <T> T get(String name, Class<T> type) {
+        Object value = values.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("No argument named '" + name + "' was parsed.");
+        }
+        return type.cast(value);
+    }
+
+    /**
+     * Retrieves an optional parsed argument value.
+     *
+     * @param name         the name of the argument node
+     * @param type         the expected type of the value
+     * @param defaultValue the value to return if the argument was not given
+     * @param <T>          the type of the value
+     * @return the parsed value, or the default value
+     */
+    public <T> T getOrDefault(String name, Class<T> type, T defaultValue) {
+        Object value = values.get(name);
+        return value == null ? defaultValue : type.cast(value);
+    }
+
+    /**
+     * Checks whether an argument was given.
+     *
+     * @param name the name of the argument node
+     * @return true if the argument was parsed, false otherwise
+     */
+    public boolean has(String name) {
+        return values.containsKey(name);
+    }
+
+    void put(String name, Object value) {
+        values.put(name, value);
+    }
+}
@@ -0,0 +1,112 @@
+package com.coderandom.core.command.tree;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A node in a command tree. Literal children are dispatched through a hash table keyed by
+ * their lowercased names and aliases; argument children are tried in the order they were added.
+ */
+public abstract class CommandNode {
+
+    private final String name;
+    private final Map<String, LiteralNode> literals = new HashMap<>();
+    private final List<LiteralNode> literalList = new ArrayList<>();
+    private final List<ArgumentNode<?>> arguments = new ArrayList<>();
+    private CommandAction action;
+    private String permission;
+
+    CommandNode(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Adds a child node.
+     *
+     * @param child the literal or argument node to add
+     * @return this node
+     * @throws IllegalArgumentException if a literal with the same name or alias already exists
+     */
+    public CommandNode then(CommandNode child) {
+        if (child instanceof LiteralNode literal) {
+            register(literal.getName(), literal);
+            for (String alias : literal.getAliases()) {
+                register(alias, literal);
+            }
+            literalList.add(literal);
+        } else {
+            arguments.add((ArgumentNode<?>) child);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the action run when the command ends at this node.
+     *
+     * @param action the action to run
+     * @return this node
+     */
+    public CommandNode executes(CommandAction action) {
+        this.action = action;
+        return this;
+    }
+
+    /**
+     * Sets the permission required to use this node and its children.
+     *
+     * @param permission the required permission
+     * @return this node
+     */
+    public CommandNode requires(String permission) {
+        this.permission = permission;
+        return this;
+    }
+
+    /**
+     * Returns the name of this node.
+     *
+     * @return the literal text or argument name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns how this node is shown in usage messages.
+     *
+     * @return the usage text
+     */
+    public abstract String getUsageText();
+
+    CommandAction getAction() {
+        return action;
+    }
+
+    boolean canUse(CommandSender sender) {
+        return permission == null || sender.hasPermission(permission);
+    }
+
+    LiteralNode getLiteral(String input) {
+        LiteralNode literal = literals.get(input);
+        return literal != null ? literal : literals.get(input.toLowerCase(Locale.ROOT));
+    }
+
+    List<LiteralNode> getLiterals() {
+        return literalList;
+    }
+
+    List<ArgumentNode<?>> getArguments() {
+        return arguments;
+    }
+
+    private void register(String key, LiteralNode literal) {
+        if (literals.putIfAbsent(key.toLowerCase(Locale.ROOT), literal) != null) {
+            throw new IllegalArgumentException("Duplicate literal '" + key + "' under '" + name + "'.");
+        }
+    }
+}
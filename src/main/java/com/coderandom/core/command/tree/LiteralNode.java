@@ -0,0 +1,60 @@
+package com.coderandom.core.command.tree;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A command tree node matching a fixed word, such as a subcommand name.
+ */
+public final class LiteralNode extends CommandNode {
+
+    private final List<String> aliases;
+
+    private LiteralNode(String name, String... aliases) {
+        super(name);
+        this.aliases = Arrays.asList(aliases);
+    }
+
+    /**
+     * Creates a literal node.
+     *
+     * @param name    the word to match, ignoring case
+     * @param aliases alternative words that match the same node
+     * @return the node
+     */
+    public static LiteralNode literal(String name, String... aliases) {
+        return new LiteralNode(name, aliases);
+    }
+
+    /**
+     * Returns the alternative words matching this node.
+     *
+     * @return the aliases
+     */
+    public List<String> getAliases() {
+        return aliases;
+    }
+
+    @Override
+    public String getUsageText() {
+        return getName();
+    }
+
+    @Override
+    public LiteralNode then(CommandNode child) {
+        super.then(child);
+        return this;
+    }
+
+    @Override
+    public LiteralNode executes(CommandAction action) {
+        super.executes(action);
+        return this;
+    }
+
+    @Override
+    public LiteralNode requires(String permission) {
+        super.requires(permission);
+        return this;
+    }
+}
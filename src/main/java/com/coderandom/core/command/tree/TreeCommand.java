@@ -0,0 +1,201 @@
+package com.coderandom.core.command.tree;
+
+import com.coderandom.core.command.BaseCommand;
+import com.coderandom.core.command.CommandUtil;
+import com.coderandom.core.utils.MessageUtils;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A command whose subcommands and arguments are declared as a tree of nodes.
+ * Dispatch and tab completion walk the tree once, costing O(depth), and invalid input
+ * is reported to the sender without exceptions.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * new TreeCommand(plugin, literal("eco")
+ *         .then(literal("give").requires("eco.give")
+ *                 .then(argument("player", ArgumentParsers.PLAYER)
+ *                         .then(argument("amount", ArgumentParsers.DOUBLE)
+ *                                 .executes(ctx -> give(ctx.get("player", Player.class), ctx.get("amount", Double.class)))))),
+ *         null, "eco.use", "Economy commands");
+ * }</pre>
+ */
+public class TreeCommand extends BaseCommand {
+
+    private final LiteralNode root;
+
+    /**
+     * Constructs and registers a command from a tree. The name of the root node is the command name.
+     *
+     * @param plugin      the plugin instance
+     * @param root        the root node of the command tree
+     * @param aliases     the aliases for the command
+     * @param permission  the required permission to use the command, or null for none
+     * @param description the description of the command
+     */
+    public TreeCommand(Plugin plugin, LiteralNode root, String[] aliases, String permission, String description) {
+        super(plugin, root.getName(), aliases, permission, description);
+        this.root = root;
+    }
+
+    /**
+     * Returns the root node of the command tree.
+     *
+     * @return the root node
+     */
+    public LiteralNode getRoot() {
+        return root;
+    }
+
+    @Override
+    public void executeCommand(CommandSender sender, String[] args) {
+        if (getPermission() != null && !CommandUtil.checkPermission(sender, getPermission())) {
+            return;
+        }
+        if (!root.canUse(sender)) {
+            MessageUtils.formattedErrorMessage(sender, "You don't have permission to use this command.");
+            return;
+        }
+
+        CommandContext context = new CommandContext(sender, args);
+        CommandNode node = root;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            LiteralNode literal = node.getLiteral(arg);
+            if (literal != null) {
+                if (!literal.canUse(sender)) {
+                    MessageUtils.formattedErrorMessage(sender, "You don't have permission to use this command.");
+                    return;
+                }
+                node = literal;
+                continue;
+            }
+
+            ArgumentNode<?> argument = matchArgument(node, context, args, i);
+            if (argument == null) {
+                reportInvalid(sender, node, args, i);
+                return;
+            }
+            node = argument;
+            if (argument.isGreedy()) {
+                break;
+            }
+        }
+
+        CommandAction action = node.getAction();
+        if (action == null) {
+            sendUsage(sender, node, args, args.length);
+            return;
+        }
+        action.execute(context);
+    }
+
+    @Override
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        if (!root.canUse(sender) || (getPermission() != null && !sender.hasPermission(getPermission()))) {
+            return Collections.emptyList();
+        }
+
+        CommandContext context = new CommandContext(sender, args);
+        CommandNode node = root;
+        for (int i = 0; i < args.length - 1; i++) {
+            LiteralNode literal = node.getLiteral(args[i]);
+            if (literal != null) {
+                if (!literal.canUse(sender)) {
+                    return Collections.emptyList();
+                }
+                node = literal;
+                continue;
+            }
+            ArgumentNode<?> argument = matchArgument(node, context, args, i);
+            if (argument == null || argument.isGreedy()) {
+                return Collections.emptyList();
+            }
+            node = argument;
+        }
+
+        String partial = args.length == 0 ? "" : args[args.length - 1];
+        List<String> completions = new ArrayList<>();
+        for (LiteralNode literal : node.getLiterals()) {
+            if (literal.canUse(sender) && literal.getName().regionMatches(true, 0, partial, 0, partial.length())) {
+                completions.add(literal.getName());
+            }
+        }
+        for (ArgumentNode<?> argument : node.getArguments()) {
+            if (argument.canUse(sender)) {
+                completions.addAll(argument.getParser().suggest(sender, partial));
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * Finds the first argument child that accepts the input and stores its value in the context.
+     *
+     * @return the matching argument node, or null if none accepts the input
+     */
+    private static ArgumentNode<?> matchArgument(CommandNode node, CommandContext context, String[] args, int index) {
+        for (ArgumentNode<?> argument : node.getArguments()) {
+            if (!argument.canUse(context.getSender())) {
+                continue;
+            }
+            Object value = argument.isGreedy()
+                    ? String.join(" ", Arrays.asList(args).subList(index, args.length))
+                    : argument.getParser().parse(context.getSender(), args[index]);
+            if (value != null) {
+                context.put(argument.getName(), value);
+                return argument;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tells the sender why an argument was rejected, followed by the valid usages.
+     */
+    private void reportInvalid(CommandSender sender, CommandNode node, String[] args, int index) {
+        ArgumentNode<?> expected = null;
+        for (ArgumentNode<?> argument : node.getArguments()) {
+            if (argument.canUse(sender)) {
+                expected = argument;
+                break;
+            }
+        }
+        if (expected != null && node.getLiterals().isEmpty()) {
+            MessageUtils.formattedErrorMessage(sender, "Invalid " + expected.getParser().getTypeName() + ": " + args[index]);
+        } else {
+            MessageUtils.formattedErrorMessage(sender, "Unknown argument: " + args[index]);
+        }
+        sendUsage(sender, node, args, index);
+    }
+
+    /**
+     * Lists the usages available from a node, prefixed with the arguments already consumed.
+     */
+    private void sendUsage(CommandSender sender, CommandNode node, String[] args, int consumed) {
+        StringBuilder prefix = new StringBuilder("/").append(root.getName());
+        for (int i = 0; i < consumed; i++) {
+            prefix.append(' ').append(args[i]);
+        }
+        List<String> usages = new ArrayList<>();
+        for (LiteralNode literal : node.getLiterals()) {
+            if (literal.canUse(sender)) {
+                usages.add(prefix + " " + literal.getUsageText());
+            }
+        }
+        for (ArgumentNode<?> argument : node.getArguments()) {
+            if (argument.canUse(sender)) {
+                usages.add(prefix + " " + argument.getUsageText());
+            }
+        }
+        if (!usages.isEmpty()) {
+            MessageUtils.messageWithTitle(sender, "Usage", usages.toArray(new String[0]));
+        }
+    }
+}
@@ -0,0 +1,443 @@
+package com.coderandom.core.diagnostics;
+
+import com.coderandom.core.CodeRandomCore;
+import com.coderandom.core.listener.ObserverLanes;
+import com.coderandom.core.metrics.MetricsRegistry;
+import com.coderandom.core.scheduler.MainThreadQueue;
+import com.coderandom.core.scheduler.ManagedExecutor;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Singleton sampler of main thread tick health, for diagnosing lag spikes without an external profiler.
+ * <p>
+ * Every tick, the time since the previous tick and the amount of core work in flight are written to ring buffers
+ * of primitive arrays, so sampling allocates nothing. A watchdog thread checks the tick heartbeat every sample
+ * interval; while a tick runs longer than the spike threshold it captures the main thread's stack, and the samples
+ * are aggregated into hot frames and folded stacks. Each spike records the state of the core executors, the main
+ * thread queue and the observer lanes when it was first seen, and the lock the main thread was waiting for, if any.
+ */
+public final class TickSampler {
+
+    private static final int MAX_SPIKES = 50;
+    private static final int MAX_FRAMES = 10_000;
+    private static volatile TickSampler instance;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final LongAdder spikeCount;
+    private final LongAdder stackSamples;
+
+    private long[] tickNanos = new long[0];
+    private int[] backlog = new int[0];
+    private long ticks;
+    private List<ManagedExecutor> executors = List.of();
+    private long thresholdNanos;
+    private long sampleIntervalNanos;
+    private int maxDepth;
+    private BukkitTask task;
+    private Thread watchdog;
+    private volatile boolean running;
+    private volatile long lastTickNanos;
+    private volatile long tickCount;
+    private long mainThreadId;
+
+    // Guarded by this
+    private final ArrayDeque<Spike> spikes = new ArrayDeque<>();
+    private final Map<String, long[]> hotFrames = new HashMap<>();
+    private final Map<String, long[]> foldedStacks = new HashMap<>();
+    private Stall stall;
+
+    private TickSampler() {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        spikeCount = metrics.counter("coderandom_tick_spikes_total", "Ticks that ran longer than the spike threshold");
+        stackSamples = metrics.counter("coderandom_tick_stack_samples_total", "Main thread stacks captured during lag spikes");
+        metrics.gauge("coderandom_tick_last_seconds", "Time between the two most recent ticks", this::lastTickSeconds);
+    }
+
+    /**
+     * Returns the singleton instance of TickSampler.
+     *
+     * @return the TickSampler instance
+     */
+    public static TickSampler getInstance() {
+        if (instance == null) {
+            synchronized (TickSampler.class) {
+                if (instance == null) {
+                    instance = new TickSampler();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Starts sampling ticks and watching for spikes. Must be called on the main thread.
+     *
+     * @param plugin             the plugin that owns the sampling task
+     * @param spikeThresholdMs   the time between ticks above which a tick is a spike, at least 55 ms
+     * @param historyTicks       the number of recent ticks kept for percentiles
+     * @param sampleIntervalMs   how often the watchdog checks the heartbeat and samples stalled ticks
+     * @param maxStackDepth      the maximum number of frames kept per stack sample
+     */
+    public synchronized void start(Plugin plugin, double spikeThresholdMs, int historyTicks, long sampleIntervalMs, int maxStackDepth) {
+        if (task != null) {
+            throw new IllegalStateException("The tick sampler has already been started.");
+        }
+        tickNanos = new long[Math.max(20, historyTicks)];
+        backlog = new int[tickNanos.length];
+        executors = CodeRandomCore.getExecutors().all();
+        thresholdNanos = (long) (Math.max(55, spikeThresholdMs) * 1_000_000);
+        sampleIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, sampleIntervalMs));
+        maxDepth = Math.max(8, maxStackDepth);
+        mainThreadId = Thread.currentThread().threadId();
+        lastTickNanos = System.nanoTime();
+        running = true;
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1, 1);
+        watchdog = new Thread(this::watch, "CodeRandomCore-tick-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+    }
+
+    /**
+     * Stops sampling, if the sampler was started. The recorded spikes stay readable.
+     */
+    public static void shutdown() {
+        TickSampler current = instance;
+        if (current == null) {
+            return;
+        }
+        synchronized (current) {
+            if (current.task == null) {
+                return;
+            }
+            current.running = false;
+            current.task.cancel();
+            current.task = null;
+            LockSupport.unpark(current.watchdog);
+        }
+    }
+
+    /**
+     * Checks whether ticks are being sampled.
+     *
+     * @return true if the sampler was started
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Records the time since the previous tick and the core work in flight, and closes a spike that just ended.
+     */
+    private void tick() {
+        long now = System.nanoTime();
+        long interval = now - lastTickNanos;
+        int queued = MainThreadQueue.getInstance().getPending() + ObserverLanes.queuedEvents();
+        for (int i = 0; i < executors.size(); i++) {
+            ManagedExecutor executor = executors.get(i);
+            queued += executor.getQueued() + executor.getActive();
+        }
+        int slot = (int) (ticks++ % tickNanos.length);
+        tickNanos[slot] = interval;
+        backlog[slot] = queued;
+        lastTickNanos = now;
+        tickCount++;
+        if (interval > thresholdNanos) {
+            recordSpike(interval);
+        }
+    }
+
+    private synchronized void recordSpike(long durationNanos) {
+        spikeCount.increment();
+        Stall ended = stall;
+        stall = null;
+        Spike spike = ended != null
+                ? new Spike(System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(durationNanos), durationNanos,
+                ended.samples, ended.state, ended.blockedOn, ended.inFlight)
+                : new Spike(System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(durationNanos), durationNanos,
+                0, null, null, inFlight());
+        if (spikes.size() == MAX_SPIKES) {
+            spikes.pollFirst();
+        }
+        spikes.addLast(spike);
+    }
+
+    /**
+     * Watchdog loop: samples the main thread for as long as the current tick is overdue.
+     */
+    private void watch() {
+        while (running) {
+            LockSupport.parkNanos(sampleIntervalNanos);
+            long tick = tickCount;
+            if (System.nanoTime() - lastTickNanos > thresholdNanos && running) {
+                sample(tick);
+            }
+        }
+    }
+
+    private void sample(long tick) {
+        ThreadInfo info = threads.getThreadInfo(mainThreadId, maxDepth);
+        if (info == null) {
+            return;
+        }
+        StackTraceElement[] stack = info.getStackTrace();
+        synchronized (this) {
+            if (tick != tickCount) {
+                // The tick ended while the stack was captured
+                return;
+            }
+            if (stall == null || stall.tick != tick) {
+                String blockedOn = info.getLockName() == null ? null
+                        : info.getLockName() + (info.getLockOwnerName() == null ? "" : " held by " + info.getLockOwnerName());
+                stall = new Stall(tick, info.getThreadState().name(), blockedOn, inFlight());
+            }
+            stall.samples++;
+            stackSamples.increment();
+            aggregate(stack);
+        }
+    }
+
+    /**
+     * Adds a stack sample to the hot frames, counting the top method as self time and every distinct method on the stack
+     * as total time, and to the folded stacks.
+     */
+    private void aggregate(StackTraceElement[] stack) {
+        if (stack.length == 0) {
+            return;
+        }
+        Set<String> seen = new HashSet<>();
+        StringBuilder folded = new StringBuilder();
+        for (int i = stack.length - 1; i >= 0; i--) {
+            String method = stack[i].getClassName() + "." + stack[i].getMethodName();
+            if (i == 0) {
+                increment(hotFrames, method, 0);
+            }
+            if (seen.add(method)) {
+                increment(hotFrames, method, 1);
+            }
+            if (folded.length() > 0) {
+                folded.append(';');
+            }
+            folded.append(method);
+        }
+        increment(foldedStacks, folded.toString(), 0);
+    }
+
+    private static void increment(Map<String, long[]> counts, String key, int slot) {
+        long[] count = counts.get(key);
+        if (count == null) {
+            if (counts.size() >= MAX_FRAMES) {
+                return;
+            }
+            count = new long[2];
+            counts.put(key, count);
+        }
+        count[slot]++;
+    }
+
+    /**
+     * Describes the core work queued or running, in the thread calling it.
+     */
+    private List<String> inFlight() {
+        List<String> work = new ArrayList<>();
+        for (ManagedExecutor executor : executors) {
+            work.add(executor.getName() + " " + executor.getActive() + " active, " + executor.getQueued() + " queued");
+        }
+        work.add("main thread queue " + MainThreadQueue.getInstance().getPending() + " pending");
+        work.add("observer lanes " + ObserverLanes.queuedEvents() + " queued");
+        return work;
+    }
+
+    private double lastTickSeconds() {
+        long last = ticks;
+        return last == 0 || tickNanos.length == 0 ? 0 : tickNanos[(int) ((last - 1) % tickNanos.length)] / 1e9;
+    }
+
+    /**
+     * Returns a percentile of the time between recent ticks. Must be called on the main thread.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the time in nanoseconds, or 0 if no tick was sampled
+     */
+    public long getTickPercentileNanos(double percentile) {
+        int count = (int) Math.min(ticks, tickNanos.length);
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(tickNanos, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    /**
+     * Returns the average core backlog over recent ticks: queued and running executor tasks, pending main thread tasks
+     * and queued observer events. Must be called on the main thread.
+     *
+     * @return the average backlog
+     */
+    public double getAverageBacklog() {
+        int count = (int) Math.min(ticks, backlog.length);
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += backlog[i];
+        }
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the number of ticks kept for percentiles.
+     *
+     * @return the number of sampled ticks, at most the history size
+     */
+    public int getSampledTicks() {
+        return (int) Math.min(ticks, tickNanos.length);
+    }
+
+    /**
+     * Returns the most recent spikes, oldest first.
+     *
+     * @return a copy of the recorded spikes
+     */
+    public synchronized List<Spike> getSpikes() {
+        return new ArrayList<>(spikes);
+    }
+
+    /**
+     * Returns the frames seen most often during spikes. A frame that was on top of the stack is where the time went,
+     * so frames are ranked by self samples first and by total samples only to break ties.
+     *
+     * @param limit the maximum number of frames
+     * @return the frames, ordered by self samples, then total samples, both descending
+     */
+    public synchronized List<HotFrame> getHotFrames(int limit) {
+        List<HotFrame> frames = new ArrayList<>(hotFrames.size());
+        hotFrames.forEach((frame, count) -> frames.add(new HotFrame(frame, count[0], count[1])));
+        frames.sort(Comparator.comparingLong(HotFrame::self).thenComparingLong(HotFrame::total).reversed());
+        return frames.size() > limit ? new ArrayList<>(frames.subList(0, limit)) : frames;
+    }
+
+    /**
+     * Clears the recorded spikes and stack samples.
+     */
+    public synchronized void reset() {
+        spikes.clear();
+        hotFrames.clear();
+        foldedStacks.clear();
+        stall = null;
+    }
+
+    /**
+     * Writes the spikes, hot frames and folded stacks to a file. The folded stacks can be rendered with flame graph tools.
+     * Reads the tick history, so the percentiles must be taken on the main thread and passed in.
+     *
+     * @param directory the directory to write the report to
+     * @param summary   lines describing recent ticks, written at the top
+     * @return the written file
+     * @throws IOException if the file cannot be written
+     */
+    public File export(File directory, List<String> summary) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        File file = new File(directory, "lag-" + new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.ROOT).format(new Date()) + ".txt");
+        List<Spike> spikeCopy;
+        List<HotFrame> frames;
+        Map<String, Long> folded = new HashMap<>();
+        synchronized (this) {
+            spikeCopy = new ArrayList<>(spikes);
+            frames = getHotFrames(Integer.MAX_VALUE);
+            foldedStacks.forEach((stack, count) -> folded.put(stack, count[0]));
+        }
+        SimpleDateFormat time = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.ROOT);
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            writer.println("# CodeRandomCore lag report");
+            summary.forEach(line -> writer.println("# " + line));
+            writer.println();
+            writer.println("## Spikes");
+            for (Spike spike : spikeCopy) {
+                writer.println(time.format(new Date(spike.startMillis())) + " " + millis(spike.durationNanos())
+                        + ", " + spike.samples() + " samples" + (spike.state() == null ? "" : ", main thread " + spike.state())
+                        + (spike.blockedOn() == null ? "" : " on " + spike.blockedOn()));
+                spike.inFlight().forEach(work -> writer.println("    " + work));
+            }
+            writer.println();
+            writer.println("## Hot methods (self samples, total samples)");
+            for (HotFrame frame : frames) {
+                writer.println(frame.self() + " " + frame.total() + " " + frame.frame());
+            }
+            writer.println();
+            writer.println("## Folded stacks");
+            folded.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .forEach(entry -> writer.println(entry.getKey() + " " + entry.getValue()));
+        }
+        return file;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2fms", nanos / 1_000_000.0);
+    }
+
+    /**
+     * A tick that ran longer than the spike threshold.
+     *
+     * @param startMillis   when the tick started, in milliseconds since the epoch
+     * @param durationNanos the time between this tick and the previous one
+     * @param samples       the number of main thread stacks captured during the tick
+     * @param state         the state of the main thread when the spike was first seen, or null if it was not sampled
+     * @param blockedOn     the lock the main thread was waiting for and its owner, or null
+     * @param inFlight      the core work queued or running when the spike was first seen
+     */
+    public record Spike(long startMillis, long durationNanos, int samples, String state, String blockedOn, List<String> inFlight) {
+    }
+
+    /**
+     * A method seen on the main thread stack during spikes.
+     *
+     * @param frame the class and method name
+     * @param self  the samples in which the frame was running
+     * @param total the samples in which the method was on the stack
+     */
+    public record HotFrame(String frame, long self, long total) {
+    }
+
+    private static final class Stall {
+        private final long tick;
+        private final String state;
+        private final String blockedOn;
+        private final List<String> inFlight;
+        private int samples;
+
+        private Stall(long tick, String state, String blockedOn, List<String> inFlight) {
+            this.tick = tick;
+            this.state = state;
+            this.blockedOn = blockedOn;
+            this.inFlight = inFlight;
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package com.coderandom.core.economy;
+
+import com.coderandom.core.metrics.LatencyHistogram;
+import com.coderandom.core.metrics.MetricsRegistry;
+import com.coderandom.core.scheduler.ManagedExecutor;
+import com.coderandom.core.sync.InvalidationBus;
+import net.milkbowl.vault.economy.Economy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Caching, asynchronous facade over the Vault {@link Economy} provider.
+ * <p>
+ * Balances are cached for a configurable time and kept up to date by transactions made through
+ * this facade or through the Economy returned by {@link #getEconomy()}. Every provider call made by the
+ * facade runs on a single economy thread, so the provider never sees concurrent calls from the facade;
+ * the synchronous methods wait a bounded time for that thread. Calls made through {@link #getEconomy()}
+ * run on the caller's thread, as Vault users expect. Cached balances are versioned, so a balance read
+ * from the provider never replaces a newer transaction result or invalidation. Small deposits made with {@link #depositBatched(OfflinePlayer, double)}
+ * are added up per player and paid out in one provider call per flush. When servers share an economy
+ * database, balances changed on other servers are dropped from the cache through the {@link InvalidationBus}.
+ */
+public final class EconomyService {
+
+    private static final String PROVIDER_METRIC = "coderandom_economy_provider_seconds";
+    private static final String PROVIDER_HELP = "Time spent in Vault economy provider calls";
+    private static final String INVALIDATION_TOPIC = "economy-balance";
+    private static final String LANE_NAME = "CodeRandomCore-economy";
+    private static final long CALL_TIMEOUT_SECONDS = 10;
+
+    private final Logger LOGGER;
+    private final Economy provider;
+    private final Economy tracked;
+    private final ManagedExecutor lane;
+    private final long cacheTtlNanos;
+    private final ConcurrentMap<UUID, CachedBalance> balances = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, PendingDeposit> pending = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+    private volatile long clearedAtVersion;
+    private final BukkitTask flushTask;
+
+    private final LongAdder cacheHits;
+    private final LongAdder cacheMisses;
+    private final LongAdder coalescedDeposits;
+    private final LatencyHistogram balanceTimes;
+    private final LatencyHistogram depositTimes;
+    private final LatencyHistogram withdrawTimes;
+
+    /**
+     * Constructs an EconomyService and starts flushing batched deposits periodically.
+     *
+     * @param plugin             the plugin that owns the flush task
+     * @param provider           the Vault economy provider
+     * @param cacheTtlMillis     how long a cached balance is trusted
+     * @param batchIntervalTicks how often batched deposits are paid out
+     */
+    public EconomyService(Plugin plugin, Economy provider, long cacheTtlMillis, long batchIntervalTicks) {
+        this.LOGGER = plugin.getLogger();
+        this.provider = provider;
+        this.tracked = (Economy) Proxy.newProxyInstance(Economy.class.getClassLoader(),
+                new Class<?>[]{Economy.class}, new TrackingHandler());
+        this.lane = ManagedExecutor.pool(LANE_NAME, 1, 100_000,
+                ManagedExecutor.RejectionPolicy.ABORT, LOGGER);
+        this.cacheTtlNanos = TimeUnit.MILLISECONDS.toNanos(cacheTtlMillis);
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        cacheHits = metrics.counter("coderandom_economy_cache_total", "Balance lookups by cache result", "result", "hit");
+        cacheMisses = metrics.counter("coderandom_economy_cache_total", "Balance lookups by cache result", "result", "miss");
+        coalescedDeposits = metrics.counter("coderandom_economy_coalesced_deposits_total", "Batched deposits merged into another deposit");
+        balanceTimes = metrics.histogram(PROVIDER_METRIC, PROVIDER_HELP, "operation", "balance");
+        depositTimes = metrics.histogram(PROVIDER_METRIC, PROVIDER_HELP, "operation", "deposit");
+        withdrawTimes = metrics.histogram(PROVIDER_METRIC, PROVIDER_HELP, "operation", "withdraw");
+        metrics.gauge("coderandom_economy_pending_deposits", "Players with batched deposits waiting to be paid", pending::size);
+
+        InvalidationBus.getInstance().subscribe(INVALIDATION_TOPIC, uuid -> {
+            if (uuid == null) {
+                invalidateAll();
+            } else {
+                invalidate(UUID.fromString(uuid));
+            }
+        });
+        this.flushTask = Bukkit.getScheduler().runTaskTimer(plugin, this::flushAsync, batchIntervalTicks, batchIntervalTicks);
+    }
+
+    /**
+     * Returns the provider wrapped so that transactions made through it by any plugin keep the cache correct.
+     *
+     * @return the tracked Economy
+     */
+    public Economy getEconomy() {
+        return tracked;
+    }
+
+    /**
+     * Returns a player's balance, including batched deposits not yet paid out.
+     * Served from the cache when possible; otherwise the calling thread waits for the provider on the economy thread,
+     * so code on the main thread should prefer {@link #getBalanceAsync(OfflinePlayer)}.
+     *
+     * @param player the player
+     * @return the balance
+     * @throws IllegalStateException if the economy thread does not answer in time
+     */
+    public double getBalance(OfflinePlayer player) {
+        CachedBalance cached = balances.get(player.getUniqueId());
+        double balance;
+        if (cached != null && System.nanoTime() - cached.expiresAtNanos < 0) {
+            cacheHits.increment();
+            balance = cached.balance;
+        } else {
+            cacheMisses.increment();
+            balance = call(() -> loadBalance(player));
+        }
+        return balance + pendingAmount(player.getUniqueId());
+    }
+
+    /**
+     * Returns a player's balance without blocking the calling thread on the provider.
+     *
+     * @param player the player
+     * @return a future completed with the balance, including batched deposits not yet paid out
+     */
+    public CompletableFuture<Double> getBalanceAsync(OfflinePlayer player) {
+        CachedBalance cached = balances.get(player.getUniqueId());
+        if (cached != null && System.nanoTime() - cached.expiresAtNanos < 0) {
+            cacheHits.increment();
+            return CompletableFuture.completedFuture(cached.balance + pendingAmount(player.getUniqueId()));
+        }
+        cacheMisses.increment();
+        return lane.supply(() -> loadBalance(player) + pendingAmount(player.getUniqueId()));
+    }
+
+    /**
+     * Checks whether a player has at least an amount, using the cached balance when possible.
+     * On a cache miss the calling thread waits as in {@link #getBalance(OfflinePlayer)}.
+     *
+     * @param player the player
+     * @param amount the amount
+     * @return true if the balance is at least the amount
+     * @throws IllegalStateException if the economy thread does not answer in time
+     */
+    public boolean has(OfflinePlayer player, double amount) {
+        return getBalance(player) >= amount;
+    }
+
+    /**
+     * Deposits an amount immediately, waiting for the economy thread.
+     *
+     * @param player the player
+     * @param amount the amount to deposit
+     * @return the provider's response
+     * @throws IllegalStateException if the economy thread does not answer in time; the deposit may still be made
+     */
+    public EconomyResponse deposit(OfflinePlayer player, double amount) {
+        return call(() -> depositNow(player, amount));
+    }
+
+    /**
+     * Withdraws an amount immediately, waiting for the economy thread. Batched deposits for the player are paid out first.
+     *
+     * @param player the player
+     * @param amount the amount to withdraw
+     * @return the provider's response
+     * @throws IllegalStateException if the economy thread does not answer in time; the withdrawal may still be made
+     */
+    public EconomyResponse withdraw(OfflinePlayer player, double amount) {
+        return call(() -> withdrawNow(player, amount));
+    }
+
+    /**
+     * Deposits an amount on the economy thread.
+     *
+     * @param player the player
+     * @param amount the amount to deposit
+     * @return a future completed with the provider's response
+     */
+    public CompletableFuture<EconomyResponse> depositAsync(OfflinePlayer player, double amount) {
+        return lane.supply(() -> depositNow(player, amount));
+    }
+
+    /**
+     * Withdraws an amount on the economy thread, after paying out batched deposits for the player.
+     *
+     * @param player the player
+     * @param amount the amount to withdraw
+     * @return a future completed with the provider's response
+     */
+    public CompletableFuture<EconomyResponse> withdrawAsync(OfflinePlayer player, double amount) {
+        return lane.supply(() -> withdrawNow(player, amount));
+    }
+
+    /**
+     * Adds an amount to the player's batched deposit, paid out with the next flush.
+     * Intended for frequent small rewards; the amount shows up in {@link #getBalance(OfflinePlayer)} immediately.
+     *
+     * @param player the player
+     * @param amount the amount to deposit, which must be positive
+     */
+    public void depositBatched(OfflinePlayer player, double amount) {
+        if (!(amount > 0)) {
+            throw new IllegalArgumentException("Batched deposits must be positive.");
+        }
+        pending.compute(player.getUniqueId(), (uuid, deposit) -> {
+            if (deposit == null) {
+                return new PendingDeposit(player, amount);
+            }
+            deposit.amount += amount;
+            coalescedDeposits.increment();
+            return deposit;
+        });
+    }
+
+    /**
+     * Forgets a player's cached balance so the next lookup asks the provider.
+     *
+     * @param uuid the UUID of the player
+     */
+    public void invalidate(UUID uuid) {
+        // Keep an expired entry so that a balance read before now is not cached over it
+        balances.put(uuid, new CachedBalance(0, System.nanoTime(), versions.incrementAndGet()));
+    }
+
+    /**
+     * Forgets every cached balance.
+     */
+    public void invalidateAll() {
+        clearedAtVersion = versions.incrementAndGet();
+        balances.clear();
+    }
+
+    /**
+     * Pays out all batched deposits on the economy thread.
+     *
+     * @return a future completed once the deposits were made
+     */
+    public CompletableFuture<Void> flushAsync() {
+        if (pending.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return lane.run(this::flush);
+    }
+
+    /**
+     * Stops the flush task, pays out all batched deposits on the economy thread and stops it,
+     * waiting up to {@value #CALL_TIMEOUT_SECONDS} seconds for queued calls to finish.
+     */
+    public void shutdown() {
+        flushTask.cancel();
+        if (!lane.isShutdown()) {
+            lane.run(this::flush);
+        }
+        lane.shutdown(System.nanoTime() + TimeUnit.SECONDS.toNanos(CALL_TIMEOUT_SECONDS));
+        if (!pending.isEmpty()) {
+            LOGGER.warning("Batched deposits for " + pending.size() + " players could not be paid out before shutdown.");
+        }
+    }
+
+    private void flush() {
+        List<UUID> players = new ArrayList<>(pending.keySet());
+        for (UUID uuid : players) {
+            flushPlayer(uuid);
+        }
+    }
+
+    private void flushPlayer(UUID uuid) {
+        PendingDeposit deposit = pending.remove(uuid);
+        if (deposit == null) {
+            return;
+        }
+        try {
+            EconomyResponse response = depositNow(deposit.player, deposit.amount);
+            if (response.transactionSuccess()) {
+                return;
+            }
+            LOGGER.warning("Batched deposit of " + deposit.amount + " to " + deposit.player.getName()
+                    + " failed: " + response.errorMessage + ". It will be retried.");
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Batched deposit of " + deposit.amount + " to " + deposit.player.getName()
+                    + " failed. It will be retried.", e);
+        }
+        // Put the amount back so it is retried with the next flush
+        double amount = deposit.amount;
+        pending.merge(uuid, deposit, (current, failed) -> {
+            current.amount += amount;
+            return current;
+        });
+    }
+
+    private double pendingAmount(UUID uuid) {
+        PendingDeposit deposit = pending.get(uuid);
+        return deposit == null ? 0 : deposit.amount;
+    }
+
+    /**
+     * Runs a provider call on the economy thread and waits a bounded time for its result.
+     * Calls made on the economy thread itself run directly.
+     */
+    private <T> T call(Supplier<T> task) {
+        if (Thread.currentThread().getName().startsWith(LANE_NAME + "-")) {
+            return task.get();
+        }
+        try {
+            return lane.supply(task).get(CALL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the economy thread", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("The economy thread did not answer within " + CALL_TIMEOUT_SECONDS + " seconds", e);
+        }
+    }
+
+    private EconomyResponse depositNow(OfflinePlayer player, double amount) {
+        return timed(depositTimes, player, () -> provider.depositPlayer(player, amount));
+    }
+
+    private EconomyResponse withdrawNow(OfflinePlayer player, double amount) {
+        flushPlayer(player.getUniqueId());
+        return timed(withdrawTimes, player, () -> provider.withdrawPlayer(player, amount));
+    }
+
+    /**
+     * Reads a balance from the provider and caches it, unless the player's balance was changed or invalidated
+     * after the read started.
+     */
+    private double loadBalance(OfflinePlayer player) {
+        long version = versions.incrementAndGet();
+        long start = System.nanoTime();
+        double balance = provider.getBalance(player);
+        balanceTimes.record(System.nanoTime() - start);
+        long expiresAtNanos = System.nanoTime() + cacheTtlNanos;
+        balances.compute(player.getUniqueId(), (uuid, current) ->
+                version < clearedAtVersion || (current != null && current.version > version)
+                        ? current
+                        : new CachedBalance(balance, expiresAtNanos, version));
+        return balance;
+    }
+
+    private void cache(UUID uuid, double balance) {
+        balances.put(uuid, new CachedBalance(balance, System.nanoTime() + cacheTtlNanos, versions.incrementAndGet()));
+    }
+
+    /**
+     * Calls the provider, records the time taken and updates the cached balance from the response.
+     */
+    private EconomyResponse timed(LatencyHistogram histogram, OfflinePlayer player, Supplier<EconomyResponse> call) {
+        long start = System.nanoTime();
+        EconomyResponse response;
+        try {
+            response = call.get();
+        } catch (RuntimeException e) {
+            invalidate(player.getUniqueId());
+            throw e;
+        } finally {
+            histogram.record(System.nanoTime() - start);
+        }
+        if (response.transactionSuccess()) {
+            cache(player.getUniqueId(), response.balance);
+            InvalidationBus.getInstance().publish(INVALIDATION_TOPIC, player.getUniqueId().toString());
+        } else {
+            invalidate(player.getUniqueId());
+        }
+        return response;
+    }
+
+    private record CachedBalance(double balance, long expiresAtNanos, long version) {
+    }
+
+    /**
+     * A batched deposit. The amount is only changed inside map operations on its key.
+     */
+    private static final class PendingDeposit {
+        private final OfflinePlayer player;
+        private volatile double amount;
+
+        private PendingDeposit(OfflinePlayer player, double amount) {
+            this.player = player;
+            this.amount = amount;
+        }
+    }
+
+    /**
+     * Forwards every call to the provider and drops the cached balance of any player
+     * whose account a call may have changed.
+     */
+    private final class TrackingHandler implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> "Tracked" + provider;
+                };
+            }
+            Object result;
+            try {
+                result = method.invoke(provider, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            String name = method.getName();
+            if (name.startsWith("deposit") || name.startsWith("withdraw") || name.startsWith("createPlayerAccount")) {
+                Object target = args == null || args.length == 0 ? null : args[0];
+                if (target instanceof OfflinePlayer player) {
+                    invalidate(player.getUniqueId());
+                    InvalidationBus.getInstance().publish(INVALIDATION_TOPIC, player.getUniqueId().toString());
+                } else {
+                    // Name-based methods cannot be mapped to a UUID reliably
+                    invalidateAll();
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.coderandom.core.leaderboard;
+
+import com.coderandom.core.CodeRandomCore;
+import com.coderandom.core.metrics.LatencyHistogram;
+import com.coderandom.core.metrics.MetricsRegistry;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Top-N leaderboard kept in memory and updated incrementally as scores change.
+ * <p>
+ * The highest scores are loaded once from a {@link LeaderboardSource}, and each {@link #update(UUID, double)}
+ * then moves a single entry in a {@link RankedSkipList}, so the top entries and the rank of a player are read
+ * in O(log n) without querying the database. The cache holds every score above a floor: once it is full, the
+ * lowest entries are evicted and the floor rises to their score, so ranks served from memory are always exact.
+ * Ranks of players at or below the floor are counted by {@link #getRankAsync(UUID)} in the database.
+ * <p>
+ * Changes made directly in the database or by other servers are picked up by reconciling with the source
+ * every interval. Updates made while the source is being read are applied again on top of the loaded scores.
+ * Players with equal scores are ordered by UUID in memory and share a rank when counted in the database.
+ */
+public final class Leaderboard {
+
+    private final String name;
+    private final LeaderboardSource source;
+    private final int capacity;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private volatile Logger logger = Logger.getLogger(Leaderboard.class.getName());
+    private RankedSkipList index = new RankedSkipList();
+    private double floor = Double.NEGATIVE_INFINITY;
+    private Map<UUID, Double> changedDuringReload;
+    private volatile boolean loaded;
+    private BukkitTask task;
+
+    private final LongAdder updates;
+    private final LongAdder evictions;
+    private final LongAdder drift;
+    private final LongAdder databaseRanks;
+    private final LatencyHistogram reloadTimes;
+
+    /**
+     * Creates a leaderboard. It serves no entries until it has been {@link #start(Plugin, long) started}
+     * or {@link #reload() reloaded}.
+     *
+     * @param name     the name of the leaderboard, used in logs and metrics
+     * @param source   the source of the scores
+     * @param capacity the maximum number of entries kept in memory
+     */
+    public Leaderboard(String name, LeaderboardSource source, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Leaderboard capacity must be at least 1.");
+        }
+        this.name = name;
+        this.source = source;
+        this.capacity = capacity;
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        updates = metrics.counter("coderandom_leaderboard_updates_total", "Score changes applied to leaderboards", "leaderboard", name);
+        evictions = metrics.counter("coderandom_leaderboard_evictions_total", "Entries evicted from full leaderboards", "leaderboard", name);
+        drift = metrics.counter("coderandom_leaderboard_drift_total", "Cached scores found to differ from the source when reconciling", "leaderboard", name);
+        databaseRanks = metrics.counter("coderandom_leaderboard_source_ranks_total", "Ranks counted in the source because the player was not cached", "leaderboard", name);
+        reloadTimes = metrics.histogram("coderandom_leaderboard_reload_seconds", "Time spent loading leaderboards from their source", "leaderboard", name);
+        metrics.gauge("coderandom_leaderboard_entries", "Entries cached per leaderboard", this::size, "leaderboard", name);
+    }
+
+    /**
+     * Loads the leaderboard and reconciles it with the source every interval.
+     *
+     * @param plugin           the plugin that owns the reconcile task
+     * @param reconcileSeconds how often the cache is reloaded from the source, or 0 to load it only once
+     */
+    public synchronized void start(Plugin plugin, long reconcileSeconds) {
+        if (task != null) {
+            throw new IllegalStateException("Leaderboard " + name + " has already been started.");
+        }
+        this.logger = plugin.getLogger();
+        reload();
+        if (reconcileSeconds > 0) {
+            long ticks = reconcileSeconds * 20;
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::reload, ticks, ticks);
+        }
+    }
+
+    /**
+     * Stops reconciling with the source. The cached entries stay readable.
+     */
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Reloads the top entries from the source on the I/O executor. Does nothing if a reload is already running.
+     *
+     * @return a future completing when the reload finished, or at once if one was already running
+     */
+    public CompletableFuture<Void> reload() {
+        if (!reloading.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        lock.writeLock().lock();
+        try {
+            if (changedDuringReload == null) {
+                changedDuringReload = new HashMap<>();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return CodeRandomCore.ioExecutor().run(this::load)
+                .whenComplete((ignored, throwable) -> {
+                    if (throwable != null) {
+                        // The next reload reads the source again, so the updates kept for this one are not needed
+                        lock.writeLock().lock();
+                        try {
+                            changedDuringReload = null;
+                        } finally {
+                            lock.writeLock().unlock();
+                        }
+                        logger.log(Level.SEVERE, "Could not load leaderboard " + name + "!", throwable);
+                    }
+                    reloading.set(false);
+                });
+    }
+
+    /**
+     * Checks whether the leaderboard has been loaded from its source at least once.
+     *
+     * @return true if entries are served from memory
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Returns the name of the leaderboard.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Applies a score change. The caller is responsible for storing the score in the source.
+     *
+     * @param uuid  the UUID of the player
+     * @param score the new score
+     */
+    public void update(UUID uuid, double score) {
+        lock.writeLock().lock();
+        try {
+            if (changedDuringReload != null) {
+                changedDuringReload.put(uuid, score);
+            }
+            if (loaded) {
+                apply(index, uuid, score);
+            }
+            updates.increment();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a player, for example after their score was deleted from the source.
+     *
+     * @param uuid the UUID of the player
+     */
+    public void remove(UUID uuid) {
+        update(uuid, Double.NaN);
+    }
+
+    /**
+     * Returns the rank of a player from memory, where the highest score has rank 1.
+     *
+     * @param uuid the UUID of the player
+     * @return the rank, or 0 if the player is not among the cached entries
+     */
+    public int getRank(UUID uuid) {
+        lock.readLock().lock();
+        try {
+            return index.rankOf(uuid);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the rank of a player, counting it in the source if the player is not among the cached entries.
+     *
+     * @param uuid the UUID of the player
+     * @return a future with the rank, or 0 if the player has no score
+     */
+    public CompletableFuture<Long> getRankAsync(UUID uuid) {
+        int cached = getRank(uuid);
+        if (cached > 0) {
+            return CompletableFuture.completedFuture((long) cached);
+        }
+        return CodeRandomCore.ioExecutor().supply(() -> {
+            try {
+                double score = source.loadScore(uuid);
+                if (Double.isNaN(score)) {
+                    return 0L;
+                }
+                int rank = getRank(uuid);
+                if (rank > 0) {
+                    return (long) rank;
+                }
+                databaseRanks.increment();
+                return source.countAbove(score) + 1;
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Returns the score of a player from memory.
+     *
+     * @param uuid the UUID of the player
+     * @return the score, or NaN if the player is not among the cached entries
+     */
+    public double getScore(UUID uuid) {
+        lock.readLock().lock();
+        try {
+            return index.getScore(uuid);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the highest scores from memory.
+     *
+     * @param count the maximum number of entries
+     * @return the entries, ordered from rank 1
+     */
+    public List<LeaderboardEntry> getTop(int count) {
+        return getPage(1, count);
+    }
+
+    /**
+     * Returns consecutive entries from memory.
+     *
+     * @param fromRank the first rank, starting at 1
+     * @param count    the maximum number of entries
+     * @return the entries, possibly fewer than requested
+     */
+    public List<LeaderboardEntry> getPage(int fromRank, int count) {
+        lock.readLock().lock();
+        try {
+            return index.range(fromRank, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return the size
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the source, then swaps in the loaded entries with the updates made meanwhile applied on top.
+     */
+    private void load() {
+        long start = System.nanoTime();
+        List<LeaderboardEntry> top;
+        try {
+            top = source.loadTop(capacity);
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        } finally {
+            reloadTimes.record(System.nanoTime() - start);
+        }
+        RankedSkipList loadedIndex = new RankedSkipList();
+        for (LeaderboardEntry entry : top) {
+            loadedIndex.put(entry.uuid(), entry.score());
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                for (LeaderboardEntry entry : top) {
+                    double cached = index.getScore(entry.uuid());
+                    if (!changedDuringReload.containsKey(entry.uuid()) && Double.compare(cached, entry.score()) != 0) {
+                        drift.increment();
+                    }
+                }
+            }
+            index = loadedIndex;
+            floor = Double.NEGATIVE_INFINITY;
+            if (top.size() >= capacity) {
+                raiseFloor(index, top.get(top.size() - 1).score());
+            }
+            for (Map.Entry<UUID, Double> change : changedDuringReload.entrySet()) {
+                apply(index, change.getKey(), change.getValue());
+            }
+            changedDuringReload = null;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves a player to their new score, keeping only scores above the floor and at most the capacity.
+     */
+    private void apply(RankedSkipList target, UUID uuid, double score) {
+        if (Double.isNaN(score) || score <= floor) {
+            // Untracked players may rank higher than this score, so its rank is not known in memory
+            target.remove(uuid);
+            return;
+        }
+        target.put(uuid, score);
+        if (target.size() > capacity) {
+            raiseFloor(target, target.entryAt(target.size()).score());
+        }
+    }
+
+    /**
+     * Raises the floor to a score and evicts every entry at or below it.
+     */
+    private void raiseFloor(RankedSkipList target, double score) {
+        floor = Math.max(floor, score);
+        LeaderboardEntry lowest;
+        while ((lowest = target.entryAt(target.size())) != null && lowest.score() <= floor) {
+            target.remove(lowest.uuid());
+            evictions.increment();
+        }
+    }
+}
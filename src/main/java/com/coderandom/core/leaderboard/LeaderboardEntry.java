@@ -0,0 +1,12 @@
+package com.coderandom.core.leaderboard;
+
+import java.util.UUID;
+
+/**
+ * The score of a player on a leaderboard.
+ *
+ * @param uuid  the UUID of the player
+ * @param score the score
+ */
+public record LeaderboardEntry(UUID uuid, double score) {
+}
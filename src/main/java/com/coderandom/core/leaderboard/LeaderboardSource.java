@@ -0,0 +1,39 @@
+package com.coderandom.core.leaderboard;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The authoritative store of leaderboard scores, read when a {@link Leaderboard} loads or reconciles
+ * and for players outside the cached top entries. Methods are called off the main thread.
+ */
+public interface LeaderboardSource {
+
+    /**
+     * Loads the highest scores.
+     *
+     * @param limit the maximum number of entries
+     * @return the entries, ordered from the highest score
+     * @throws SQLException if the scores cannot be read
+     */
+    List<LeaderboardEntry> loadTop(int limit) throws SQLException;
+
+    /**
+     * Loads the score of a player.
+     *
+     * @param uuid the UUID of the player
+     * @return the score, or NaN if the player has none
+     * @throws SQLException if the score cannot be read
+     */
+    double loadScore(UUID uuid) throws SQLException;
+
+    /**
+     * Counts the players with a strictly higher score.
+     *
+     * @param score the score
+     * @return the number of players ranked above the score
+     * @throws SQLException if the scores cannot be read
+     */
+    long countAbove(double score) throws SQLException;
+}
@@ -0,0 +1,108 @@
+package com.coderandom.core.leaderboard;
+
+import com.coderandom.core.MySQLManager;
+import com.coderandom.core.utils.UuidCodec;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads leaderboard scores from a MySQL table owned by the plugin that keeps the scores.
+ * The score column should be indexed, so the top entries and rank counts are read from the index.
+ */
+public final class MySQLLeaderboardSource implements LeaderboardSource {
+
+    private final MySQLManager mySQLManager;
+    private final boolean binaryUuid;
+    private final String topQuery;
+    private final String scoreQuery;
+    private final String countQuery;
+
+    /**
+     * Creates a source reading one score column of a table.
+     *
+     * @param mySQLManager the connected MySQL manager
+     * @param table        the table holding the scores
+     * @param uuidColumn   the column holding player UUIDs
+     * @param scoreColumn  the column holding scores
+     * @param binaryUuid   true if UUIDs are stored as BINARY(16), false if they are stored as dashed strings
+     * @throws IllegalArgumentException if a table or column name is not a plain identifier
+     */
+    public MySQLLeaderboardSource(MySQLManager mySQLManager, String table, String uuidColumn, String scoreColumn, boolean binaryUuid) {
+        this.mySQLManager = mySQLManager;
+        this.binaryUuid = binaryUuid;
+        String from = " FROM " + identifier(table);
+        String uuid = identifier(uuidColumn);
+        String score = identifier(scoreColumn);
+        this.topQuery = "SELECT " + uuid + ", " + score + from + " WHERE " + score + " IS NOT NULL ORDER BY " + score + " DESC LIMIT ?";
+        this.scoreQuery = "SELECT " + score + from + " WHERE " + uuid + " = ?";
+        this.countQuery = "SELECT COUNT(*)" + from + " WHERE " + score + " > ?";
+    }
+
+    @Override
+    public List<LeaderboardEntry> loadTop(int limit) throws SQLException {
+        List<LeaderboardEntry> entries = new ArrayList<>(limit);
+        try (Connection connection = mySQLManager.getConnection();
+             PreparedStatement ps = connection.prepareStatement(topQuery)) {
+            ps.setInt(1, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    UUID uuid = binaryUuid ? UuidCodec.fromBytes(rs.getBytes(1)) : UuidCodec.parse(rs.getString(1));
+                    if (uuid != null) {
+                        entries.add(new LeaderboardEntry(uuid, rs.getDouble(2)));
+                    }
+                }
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public double loadScore(UUID uuid) throws SQLException {
+        try (Connection connection = mySQLManager.getConnection();
+             PreparedStatement ps = connection.prepareStatement(scoreQuery)) {
+            if (binaryUuid) {
+                ps.setBytes(1, UuidCodec.toBytes(uuid));
+            } else {
+                ps.setString(1, uuid.toString());
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return Double.NaN;
+                }
+                double score = rs.getDouble(1);
+                // A NULL score means no score, not 0
+                return rs.wasNull() ? Double.NaN : score;
+            }
+        }
+    }
+
+    @Override
+    public long countAbove(double score) throws SQLException {
+        try (Connection connection = mySQLManager.getConnection();
+             PreparedStatement ps = connection.prepareStatement(countQuery)) {
+            ps.setDouble(1, score);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private static String identifier(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Table and column names must not be empty.");
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!(c == '_' || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9')) {
+                throw new IllegalArgumentException("Invalid table or column name: " + name);
+            }
+        }
+        return "`" + name + "`";
+    }
+}
@@ -0,0 +1,272 @@
+package com.coderandom.core.leaderboard;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Indexed skip list of player scores, ordered by score from highest to lowest and then by UUID.
+ * Every link stores how many entries it skips, so ranks can be computed and entries found by rank
+ * in O(log n) expected time. Not thread-safe.
+ */
+public final class RankedSkipList {
+
+    private static final int MAX_LEVEL = 32;
+
+    private final Node head = new Node(null, 0, MAX_LEVEL);
+    private final Map<UUID, Node> nodes = new HashMap<>();
+    private int level = 1;
+
+    /**
+     * Sets the score of a player, adding them if needed.
+     *
+     * @param uuid  the UUID of the player
+     * @param score the score
+     */
+    public void put(UUID uuid, double score) {
+        Node existing = nodes.get(uuid);
+        if (existing != null) {
+            if (Double.compare(existing.score, score) == 0) {
+                return;
+            }
+            delete(existing);
+        }
+        nodes.put(uuid, insert(uuid, score));
+    }
+
+    /**
+     * Removes a player.
+     *
+     * @param uuid the UUID of the player
+     * @return true if the player was present
+     */
+    public boolean remove(UUID uuid) {
+        Node node = nodes.remove(uuid);
+        if (node == null) {
+            return false;
+        }
+        delete(node);
+        return true;
+    }
+
+    /**
+     * Checks whether a player is present.
+     *
+     * @param uuid the UUID of the player
+     * @return true if the player has a score
+     */
+    public boolean contains(UUID uuid) {
+        return nodes.containsKey(uuid);
+    }
+
+    /**
+     * Returns the score of a player.
+     *
+     * @param uuid the UUID of the player
+     * @return the score, or NaN if the player is not present
+     */
+    public double getScore(UUID uuid) {
+        Node node = nodes.get(uuid);
+        return node == null ? Double.NaN : node.score;
+    }
+
+    /**
+     * Returns the rank of a player, where the highest score has rank 1.
+     *
+     * @param uuid the UUID of the player
+     * @return the rank, or 0 if the player is not present
+     */
+    public int rankOf(UUID uuid) {
+        Node target = nodes.get(uuid);
+        if (target == null) {
+            return 0;
+        }
+        int rank = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i], target.score, target.uuid) <= 0) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x == target) {
+                return rank;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the number of entries with a strictly higher score.
+     *
+     * @param score the score
+     * @return the number of entries ranked above the score
+     */
+    public int countAbove(double score) {
+        int count = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i].score > score) {
+                count += x.span[i];
+                x = x.next[i];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the entry at a rank.
+     *
+     * @param rank the rank, starting at 1
+     * @return the entry, or null if the rank is out of range
+     */
+    public LeaderboardEntry entryAt(int rank) {
+        Node node = nodeAt(rank);
+        return node == null ? null : new LeaderboardEntry(node.uuid, node.score);
+    }
+
+    /**
+     * Returns consecutive entries in rank order.
+     *
+     * @param fromRank the first rank, starting at 1
+     * @param count    the maximum number of entries
+     * @return the entries, possibly fewer than requested
+     */
+    public List<LeaderboardEntry> range(int fromRank, int count) {
+        List<LeaderboardEntry> entries = new ArrayList<>(Math.max(0, Math.min(count, size() - fromRank + 1)));
+        Node x = nodeAt(fromRank);
+        while (x != null && entries.size() < count) {
+            entries.add(new LeaderboardEntry(x.uuid, x.score));
+            x = x.next[0];
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the size
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        nodes.clear();
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            head.next[i] = null;
+            head.span[i] = 0;
+        }
+        level = 1;
+    }
+
+    private Node nodeAt(int rank) {
+        if (rank < 1 || rank > size()) {
+            return null;
+        }
+        int traversed = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= rank) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+            if (traversed == rank) {
+                return x;
+            }
+        }
+        return null;
+    }
+
+    private Node insert(UUID uuid, double score) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && compare(x.next[i], score, uuid) < 0) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = nodes.size();
+            }
+            level = nodeLevel;
+        }
+        x = new Node(uuid, score, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            x.next[i] = update[i].next[i];
+            update[i].next[i] = x;
+            x.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        return x;
+    }
+
+    private void delete(Node target) {
+        Node[] update = new Node[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i], target.score, target.uuid) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == target) {
+                update[i].span[i] += target.span[i] - 1;
+                update[i].next[i] = target.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+    }
+
+    /**
+     * Orders a node against a score and UUID: negative if the node ranks higher.
+     */
+    private static int compare(Node node, double score, UUID uuid) {
+        int byScore = Double.compare(score, node.score);
+        return byScore != 0 ? byScore : node.uuid.compareTo(uuid);
+    }
+
+    private static int randomLevel() {
+        int nodeLevel = 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (nodeLevel < MAX_LEVEL && random.nextInt(4) == 0) {
+            nodeLevel++;
+        }
+        return nodeLevel;
+    }
+
+    private static final class Node {
+        private final UUID uuid;
+        private final double score;
+        private final Node[] next;
+        private final int[] span;
+
+        private Node(UUID uuid, double score, int level) {
+            this.uuid = uuid;
+            this.score = score;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+}
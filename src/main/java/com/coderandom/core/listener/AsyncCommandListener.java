@@ -0,0 +1,31 @@
+package com.coderandom.core.listener;
+
+import com.coderandom.core.CodeRandomCore;
+import com.coderandom.core.command.AsyncCommandExecutor;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Listener that cancels a player's running asynchronous commands when they disconnect.
+ */
+public final class AsyncCommandListener extends BaseListener {
+
+    /**
+     * Constructs a new AsyncCommandListener and registers it with the plugin.
+     */
+    public AsyncCommandListener() {
+        super(CodeRandomCore.getInstance(), true);
+    }
+
+    /**
+     * Event handler for PlayerQuitEvent.
+     * Cancels every asynchronous command the player still has running.
+     *
+     * @param event the PlayerQuitEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onPlayerQuit(PlayerQuitEvent event) {
+        AsyncCommandExecutor.cancelAll(event.getPlayer().getUniqueId());
+    }
+}
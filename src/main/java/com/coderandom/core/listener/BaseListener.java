@@ -1,8 +1,21 @@
 package com.coderandom.core.listener;
 
 import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerEvent;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
 
 /**
  * Abstract base class for event listeners in the plugin.
@@ -10,12 +23,106 @@ import org.bukkit.plugin.Plugin;
  */
 public abstract class BaseListener implements Listener {
 
+    private final Plugin plugin;
+    private final boolean timed;
+
     /**
      * Constructs a new BaseListener and registers it with the plugin.
      *
      * @param plugin the plugin instance to register the listener with
      */
     public BaseListener(Plugin plugin) {
-        Bukkit.getServer().getPluginManager().registerEvents(this, plugin);
+        this(plugin, false);
+    }
+
+    /**
+     * Constructs a new BaseListener and registers it with the plugin.
+     * Handlers of a timed listener are invoked through method handles that record their call count and time
+     * in {@link HandlerStats}, and handlers that exceed the slow handler threshold within a tick are reported.
+     *
+     * @param plugin the plugin instance to register the listener with
+     * @param timed  true to time every handler of this listener
+     */
+    public BaseListener(Plugin plugin, boolean timed) {
+        this.plugin = plugin;
+        this.timed = timed;
+        if (timed) {
+            registerTimed(plugin);
+        } else {
+            Bukkit.getServer().getPluginManager().registerEvents(this, plugin);
+        }
+    }
+
+    /**
+     * Observes a player event off the main thread. The snapshot function runs when the event fires, at
+     * {@link EventPriority#MONITOR} and only if the event was not cancelled; it must copy everything the observer
+     * needs into an immutable object, or return null to skip the event. The observer then runs on an
+     * {@link ObserverLanes} lane, after every earlier observed event of the same player.
+     *
+     * @param eventClass the event class
+     * @param snapshot   captures the event data, or returns null to skip the event
+     * @param observer   processes the snapshot asynchronously
+     * @param <E>        the event type
+     * @param <S>        the snapshot type
+     */
+    protected final <E extends PlayerEvent, S> void observeAsync(Class<E> eventClass, Function<? super E, ? extends S> snapshot,
+                                                                 Consumer<? super S> observer) {
+        observeAsync(eventClass, event -> event.getPlayer().getUniqueId(), snapshot, observer,
+                ObserverLanes.getInstance().getDefaultPolicy());
+    }
+
+    /**
+     * Observes an event off the main thread. The snapshot function runs when the event fires, at
+     * {@link EventPriority#MONITOR} and only if the event was not cancelled; it must copy everything the observer
+     * needs into an immutable object, or return null to skip the event. The observer then runs on an
+     * {@link ObserverLanes} lane, after every earlier observed event with the same ordering key.
+     *
+     * @param eventClass the event class
+     * @param orderKey   returns the ordering key of an event, such as a UUID, or null if events need no ordering
+     * @param snapshot   captures the event data, or returns null to skip the event
+     * @param observer   processes the snapshot asynchronously
+     * @param policy     what to do when the lane of an event is full
+     * @param <E>        the event type
+     * @param <S>        the snapshot type
+     */
+    protected final <E extends Event, S> void observeAsync(Class<E> eventClass, Function<? super E, ?> orderKey,
+                                                           Function<? super E, ? extends S> snapshot, Consumer<? super S> observer,
+                                                           ObserverLanes.OverflowPolicy policy) {
+        HandlerStats stats = timed
+                ? HandlerStats.of(plugin.getName(), getClass().getSimpleName(), "observeAsync", eventClass.getSimpleName())
+                : null;
+        Bukkit.getServer().getPluginManager().registerEvent(eventClass, this, EventPriority.MONITOR,
+                new ObserverEventExecutor<>(eventClass, orderKey, snapshot, observer, policy, stats), plugin, true);
+    }
+
+    /**
+     * Registers every handler with its own timed executor, finding handlers the same way Bukkit does.
+     */
+    private void registerTimed(Plugin plugin) {
+        PluginManager pluginManager = Bukkit.getServer().getPluginManager();
+        for (Method method : handlerMethods()) {
+            EventHandler annotation = method.getAnnotation(EventHandler.class);
+            Class<?>[] parameters = method.getParameterTypes();
+            if (parameters.length != 1 || !Event.class.isAssignableFrom(parameters[0])) {
+                plugin.getLogger().severe(plugin.getName() + " attempted to register an invalid EventHandler method signature \""
+                        + method.toGenericString() + "\" in " + getClass());
+                continue;
+            }
+            Class<? extends Event> eventClass = parameters[0].asSubclass(Event.class);
+            HandlerStats stats = HandlerStats.of(plugin.getName(), getClass().getSimpleName(), method.getName(), eventClass.getSimpleName());
+            try {
+                pluginManager.registerEvent(eventClass, this, annotation.priority(),
+                        TimedEventExecutor.create(method, eventClass, stats), plugin, annotation.ignoreCancelled());
+            } catch (IllegalAccessException e) {
+                plugin.getLogger().log(Level.SEVERE, "Could not register event handler " + method.toGenericString(), e);
+            }
+        }
+    }
+
+    private Set<Method> handlerMethods() {
+        Set<Method> methods = new LinkedHashSet<>(List.of(getClass().getMethods()));
+        methods.addAll(List.of(getClass().getDeclaredMethods()));
+        methods.removeIf(method -> method.isBridge() || method.isSynthetic() || method.getAnnotation(EventHandler.class) == null);
+        return methods;
     }
 }
@@ -0,0 +1,213 @@
+package com.coderandom.core.listener;
+
+import com.coderandom.core.metrics.LatencyHistogram;
+import com.coderandom.core.metrics.MetricsRegistry;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Call statistics for a single event handler of a timed {@link BaseListener}.
+ * Recording is lock-free and does not allocate. Handlers that use more than the slow handler
+ * threshold within one tick are counted and reported in the log, at most once a minute per handler.
+ */
+public final class HandlerStats {
+
+    private static final ConcurrentMap<String, HandlerStats> ALL = new ConcurrentHashMap<>();
+    private static final long WARNING_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static volatile long currentTick;
+    private static volatile long slowThresholdNanos;
+    private static volatile Logger logger;
+
+    private final String plugin;
+    private final String listener;
+    private final String handler;
+    private final String event;
+    private final LatencyHistogram calls = new LatencyHistogram();
+    private final LongAdder slowTicks = new LongAdder();
+
+    // Only used for synchronous events, so only touched by the main thread
+    private long lastTick = -1;
+    private long tickNanos;
+    private boolean flagged;
+    private long lastWarningNanos;
+    private int unreportedSlowTicks;
+
+    private HandlerStats(String plugin, String listener, String handler, String event) {
+        this.plugin = plugin;
+        this.listener = listener;
+        this.handler = handler;
+        this.event = event;
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.histogram("coderandom_event_handler_seconds", "Time spent in event handlers of timed listeners",
+                calls, "plugin", plugin, "listener", listener, "handler", handler, "event", event);
+        metrics.counter("coderandom_event_handler_slow_ticks_total", "Ticks in which an event handler exceeded the slow handler threshold",
+                slowTicks::sum, "plugin", plugin, "listener", listener, "handler", handler, "event", event);
+    }
+
+    /**
+     * Starts counting ticks, which enables the per-tick slow handler check.
+     *
+     * @param plugin            the plugin that owns the tick counter task
+     * @param slowHandlerMillis the time a handler may use per tick before it is reported; 0 disables the check
+     */
+    public static void start(Plugin plugin, double slowHandlerMillis) {
+        logger = plugin.getLogger();
+        slowThresholdNanos = (long) (Math.max(0, slowHandlerMillis) * 1_000_000L);
+        if (slowThresholdNanos > 0) {
+            Bukkit.getScheduler().runTaskTimer(plugin, () -> currentTick++, 1L, 1L);
+        }
+    }
+
+    /**
+     * Returns the statistics for a handler, creating them on first use.
+     *
+     * @param plugin   the name of the plugin owning the listener
+     * @param listener the name of the listener class
+     * @param handler  the name of the handler method
+     * @param event    the name of the event class
+     * @return the statistics
+     */
+    public static HandlerStats of(String plugin, String listener, String handler, String event) {
+        return ALL.computeIfAbsent(plugin + ':' + listener + '.' + handler + '(' + event + ')',
+                key -> new HandlerStats(plugin, listener, handler, event));
+    }
+
+    /**
+     * Returns the statistics of every timed handler.
+     *
+     * @return an unmodifiable view of all handler statistics
+     */
+    public static Collection<HandlerStats> all() {
+        return Collections.unmodifiableCollection(ALL.values());
+    }
+
+    /**
+     * Returns the handlers that spent the most total time running.
+     *
+     * @param limit the maximum number of handlers to return
+     * @return the slowest handlers, slowest first
+     */
+    public static List<HandlerStats> top(int limit) {
+        List<HandlerStats> sorted = new ArrayList<>(ALL.values());
+        sorted.sort((a, b) -> Long.compare(b.getTotalNanos(), a.getTotalNanos()));
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    /**
+     * Clears the statistics of every handler.
+     */
+    public static void resetAll() {
+        for (HandlerStats stats : ALL.values()) {
+            stats.calls.reset();
+            stats.slowTicks.reset();
+        }
+    }
+
+    void record(long nanos, boolean mainThread) {
+        calls.record(nanos);
+        long threshold = slowThresholdNanos;
+        if (!mainThread || threshold <= 0) {
+            return;
+        }
+        long tick = currentTick;
+        if (tick != lastTick) {
+            lastTick = tick;
+            tickNanos = 0;
+            flagged = false;
+        }
+        tickNanos += nanos;
+        if (!flagged && tickNanos > threshold) {
+            flagged = true;
+            slowTicks.increment();
+            reportSlowTick(threshold);
+        }
+    }
+
+    private void reportSlowTick(long threshold) {
+        long now = System.nanoTime();
+        if (lastWarningNanos != 0 && now - lastWarningNanos < WARNING_INTERVAL_NANOS) {
+            unreportedSlowTicks++;
+            return;
+        }
+        lastWarningNanos = now;
+        String earlier = unreportedSlowTicks > 0 ? " (" + unreportedSlowTicks + " more slow ticks since the last report)" : "";
+        unreportedSlowTicks = 0;
+        logger.warning(String.format(Locale.ROOT, "Event handler %s:%s.%s(%s) used %.2fms in one tick, over the %.2fms threshold%s",
+                plugin, listener, handler, event, tickNanos / 1_000_000.0, threshold / 1_000_000.0, earlier));
+    }
+
+    /**
+     * Returns the name of the plugin owning the listener.
+     *
+     * @return the plugin name
+     */
+    public String getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Returns the name of the listener class.
+     *
+     * @return the listener name
+     */
+    public String getListener() {
+        return listener;
+    }
+
+    /**
+     * Returns the name of the handler method.
+     *
+     * @return the handler name
+     */
+    public String getHandler() {
+        return handler;
+    }
+
+    /**
+     * Returns the name of the handled event class.
+     *
+     * @return the event name
+     */
+    public String getEvent() {
+        return event;
+    }
+
+    /**
+     * Returns the call latency histogram.
+     *
+     * @return the histogram of call times
+     */
+    public LatencyHistogram getCalls() {
+        return calls;
+    }
+
+    /**
+     * Returns the number of ticks in which the handler exceeded the slow handler threshold.
+     *
+     * @return the slow tick count
+     */
+    public long getSlowTicks() {
+        return slowTicks.sum();
+    }
+
+    /**
+     * Returns the total time spent in the handler.
+     *
+     * @return the total in nanoseconds
+     */
+    public long getTotalNanos() {
+        return calls.getSumNanos();
+    }
+}
@@ -0,0 +1,58 @@
+package com.coderandom.core.listener;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Takes a snapshot of an event on the thread that fired it and hands the snapshot to an
+ * observer on its {@link ObserverLanes} lane.
+ *
+ * @param <E> the event type
+ * @param <S> the snapshot type
+ */
+final class ObserverEventExecutor<E extends Event, S> implements EventExecutor {
+
+    private final Class<E> eventClass;
+    private final Function<? super E, ?> orderKey;
+    private final Function<? super E, ? extends S> snapshot;
+    private final Consumer<? super S> observer;
+    private final ObserverLanes.OverflowPolicy policy;
+    private final HandlerStats stats;
+
+    ObserverEventExecutor(Class<E> eventClass, Function<? super E, ?> orderKey, Function<? super E, ? extends S> snapshot,
+                          Consumer<? super S> observer, ObserverLanes.OverflowPolicy policy, HandlerStats stats) {
+        this.eventClass = eventClass;
+        this.orderKey = orderKey;
+        this.snapshot = snapshot;
+        this.observer = observer;
+        this.policy = policy;
+        this.stats = stats;
+    }
+
+    @Override
+    public void execute(Listener listener, Event event) throws EventException {
+        if (!eventClass.isInstance(event)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            E typed = eventClass.cast(event);
+            S data = snapshot.apply(typed);
+            if (data != null) {
+                Object key = orderKey == null ? null : orderKey.apply(typed);
+                ObserverLanes.getInstance().submit(key, () -> observer.accept(data), policy);
+            }
+        } catch (RuntimeException e) {
+            throw new EventException(e);
+        } finally {
+            if (stats != null) {
+                stats.record(System.nanoTime() - start, !event.isAsynchronous());
+            }
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.coderandom.core.listener;
+
+import com.coderandom.core.CodeRandomCore;
+import com.coderandom.core.metrics.LatencyHistogram;
+import com.coderandom.core.metrics.MetricsRegistry;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Singleton set of single-thread lanes that run asynchronous event observers, configured from the
+ * {@code Listeners} section of the config. Work with the same ordering key, such as a player's UUID,
+ * always runs on the same lane, so it runs in the order it was submitted. Each lane has a bounded queue;
+ * what happens when it is full is decided by an {@link OverflowPolicy}.
+ */
+public final class ObserverLanes {
+
+    /**
+     * What to do with an observed event when its lane's queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Drop the new event.
+         */
+        DROP_NEWEST,
+        /**
+         * Drop the oldest queued event of the lane to make room for the new one.
+         */
+        DROP_OLDEST,
+        /**
+         * Wait for room for a short, configured time, then drop the new event.
+         */
+        BLOCK
+    }
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+    private static volatile ObserverLanes instance;
+
+    private final Logger LOGGER;
+    private final Lane[] lanes;
+    private final OverflowPolicy defaultPolicy;
+    private final long blockNanos;
+    private final AtomicInteger nextLane = new AtomicInteger();
+    private final LongAdder processed;
+    private final LongAdder dropped;
+    private final LatencyHistogram delays;
+    private volatile boolean accepting = true;
+
+    private ObserverLanes(FileConfiguration config, Logger logger) {
+        this.LOGGER = logger;
+        int capacity = Math.max(1, config.getInt("Listeners.async-queue", 10_000));
+        this.lanes = new Lane[Math.max(1, config.getInt("Listeners.async-lanes", 4))];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane("CodeRandomCore-observer-" + i, capacity);
+        }
+        this.defaultPolicy = policy(config.getString("Listeners.async-overflow", OverflowPolicy.DROP_NEWEST.name()));
+        this.blockNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, config.getLong("Listeners.async-block-ms", 50)));
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        processed = metrics.counter("coderandom_observer_events_total", "Observed events by outcome", "outcome", "processed");
+        dropped = metrics.counter("coderandom_observer_events_total", "Observed events by outcome", "outcome", "dropped");
+        delays = metrics.histogram("coderandom_observer_delay_seconds", "Time observed events waited for their lane");
+        metrics.gauge("coderandom_observer_queued", "Observed events waiting for their lane", this::getQueued);
+    }
+
+    /**
+     * Returns the singleton instance of ObserverLanes, starting the lanes on first use.
+     *
+     * @return the ObserverLanes instance
+     */
+    public static ObserverLanes getInstance() {
+        if (instance == null) {
+            synchronized (ObserverLanes.class) {
+                if (instance == null) {
+                    CodeRandomCore plugin = CodeRandomCore.getInstance();
+                    instance = new ObserverLanes(plugin.getConfig(), plugin.getLogger());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the number of events waiting on all lanes without starting them.
+     *
+     * @return the queued count, or 0 if the lanes were never started
+     */
+    public static int queuedEvents() {
+        ObserverLanes current = instance;
+        return current == null ? 0 : current.getQueued();
+    }
+
+    /**
+     * Stops accepting events and runs what is queued, if the lanes were ever started.
+     * Events still queued after a few seconds are dropped and logged.
+     */
+    public static void shutdown() {
+        ObserverLanes current = instance;
+        if (current == null) {
+            return;
+        }
+        current.accepting = false;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SHUTDOWN_TIMEOUT_SECONDS);
+        int left = 0;
+        for (Lane lane : current.lanes) {
+            left += lane.stop(deadline);
+        }
+        if (left > 0) {
+            current.LOGGER.warning("Dropped " + left + " observed events that could not be processed before shutdown");
+        }
+    }
+
+    private OverflowPolicy policy(String value) {
+        try {
+            return OverflowPolicy.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            LOGGER.warning("Unknown overflow policy '" + value + "' for Listeners.async-overflow, using " + OverflowPolicy.DROP_NEWEST);
+            return OverflowPolicy.DROP_NEWEST;
+        }
+    }
+
+    /**
+     * Returns the overflow policy configured for observers that do not choose their own.
+     *
+     * @return the default overflow policy
+     */
+    public OverflowPolicy getDefaultPolicy() {
+        return defaultPolicy;
+    }
+
+    /**
+     * Queues work on the lane of its ordering key.
+     *
+     * @param key    the ordering key, or null to use any lane
+     * @param task   the work
+     * @param policy what to do if the lane is full
+     * @return true if the work was queued, false if it was dropped
+     */
+    public boolean submit(Object key, Runnable task, OverflowPolicy policy) {
+        if (!accepting) {
+            dropped.increment();
+            return false;
+        }
+        Lane lane = lanes[laneIndex(key)];
+        Queued queued = new Queued(task, System.nanoTime());
+        boolean accepted = switch (policy) {
+            case DROP_NEWEST -> lane.queue.offer(queued);
+            case DROP_OLDEST -> {
+                while (!lane.queue.offer(queued)) {
+                    if (lane.queue.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+                yield true;
+            }
+            case BLOCK -> {
+                try {
+                    yield lane.queue.offer(queued, blockNanos, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    yield false;
+                }
+            }
+        };
+        if (!accepted) {
+            dropped.increment();
+        }
+        return accepted;
+    }
+
+    private int laneIndex(Object key) {
+        if (key == null) {
+            return Math.floorMod(nextLane.getAndIncrement(), lanes.length);
+        }
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    /**
+     * Returns the number of events waiting on all lanes.
+     *
+     * @return the queued count
+     */
+    public int getQueued() {
+        int queued = 0;
+        for (Lane lane : lanes) {
+            queued += lane.queue.size();
+        }
+        return queued;
+    }
+
+    /**
+     * Returns the number of events dropped because their lane was full or shut down.
+     *
+     * @return the dropped count
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    private record Queued(Runnable task, long enqueuedNanos) {
+    }
+
+    /**
+     * One thread and its queue.
+     */
+    private final class Lane implements Runnable {
+        private final BlockingQueue<Queued> queue;
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private Lane(String name, int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            while (running || !queue.isEmpty()) {
+                Queued next;
+                try {
+                    next = queue.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (next == null) {
+                    continue;
+                }
+                delays.record(System.nanoTime() - next.enqueuedNanos);
+                try {
+                    next.task.run();
+                } catch (Throwable throwable) {
+                    LOGGER.log(Level.SEVERE, "Uncaught error in asynchronous event observer", throwable);
+                }
+                processed.increment();
+            }
+        }
+
+        /**
+         * Lets the lane finish its queue until the deadline, then interrupts it.
+         *
+         * @return the number of events left unprocessed
+         */
+        private int stop(long deadlineNanos) {
+            running = false;
+            try {
+                thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!thread.isAlive()) {
+                return 0;
+            }
+            thread.interrupt();
+            int left = queue.size();
+            queue.clear();
+            return left;
+        }
+    }
+}
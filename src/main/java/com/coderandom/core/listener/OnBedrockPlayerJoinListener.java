@@ -2,11 +2,14 @@ package com.coderandom.core.listener;
 
 import com.coderandom.core.BedrockUUID;
 import com.coderandom.core.CodeRandomCore;
-import org.bukkit.event.EventHandler;
+import org.bukkit.entity.Player;
 import org.bukkit.event.player.PlayerJoinEvent;
 
+import java.util.UUID;
+
 /**
  * Listener for handling events when a Bedrock player joins the server.
+ * Saving runs off the main thread; only the name and UUID are read when the event fires.
  */
 public final class OnBedrockPlayerJoinListener extends BaseListener {
 
@@ -14,19 +17,22 @@ public final class OnBedrockPlayerJoinListener extends BaseListener {
      * Constructs a new OnBedrockPlayerJoinListener and registers it with the plugin.
      */
     public OnBedrockPlayerJoinListener() {
-        super(CodeRandomCore.getInstance());
+        super(CodeRandomCore.getInstance(), true);
+        observeAsync(PlayerJoinEvent.class, OnBedrockPlayerJoinListener::bedrockJoin,
+                join -> BedrockUUID.getInstance().saveUUID(join.name(), join.uuid()));
     }
 
     /**
-     * Event handler for PlayerJoinEvent.
-     * Saves the UUID of the player if their name starts with a period.
+     * Captures the name and UUID of a joining player if their name starts with a period.
      *
      * @param event the PlayerJoinEvent
+     * @return the captured join, or null for Java players
      */
-    @EventHandler
-    private void onPlayerJoin(PlayerJoinEvent event) {
-        if (event.getPlayer().getName().startsWith(".")) {
-            BedrockUUID.getInstance().saveUUID(event.getPlayer());
-        }
+    private static BedrockJoin bedrockJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        return player.getName().startsWith(".") ? new BedrockJoin(player.getName(), player.getUniqueId()) : null;
+    }
+
+    private record BedrockJoin(String name, UUID uuid) {
     }
 }
@@ -0,0 +1,63 @@
+package com.coderandom.core.listener;
+
+import com.coderandom.core.CodeRandomCore;
+import com.coderandom.core.PlayerDataManager;
+import org.bukkit.ChatColor;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Listener that loads player data while players log in and saves it when they quit.
+ */
+public final class PlayerDataListener extends BaseListener {
+
+    /**
+     * Constructs a new PlayerDataListener and registers it with the plugin.
+     */
+    public PlayerDataListener() {
+        super(CodeRandomCore.getInstance(), true);
+    }
+
+    /**
+     * Event handler for AsyncPlayerPreLoginEvent.
+     * Loads the player's data on the login thread, and refuses the login if it cannot be loaded
+     * so that defaults never overwrite stored data.
+     *
+     * @param event the AsyncPlayerPreLoginEvent
+     */
+    @EventHandler(priority = EventPriority.HIGHEST)
+    private void onPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        if (!PlayerDataManager.getInstance().preload(event.getUniqueId())) {
+            event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER,
+                    ChatColor.RED + "Your player data could not be loaded. Please try again later.");
+        }
+    }
+
+    /**
+     * Event handler for PlayerJoinEvent.
+     * Marks the player's data as in use.
+     *
+     * @param event the PlayerJoinEvent
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    private void onPlayerJoin(PlayerJoinEvent event) {
+        PlayerDataManager.getInstance().onJoin(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Event handler for PlayerQuitEvent.
+     * Saves the player's changed data and releases it once stored.
+     *
+     * @param event the PlayerQuitEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onPlayerQuit(PlayerQuitEvent event) {
+        PlayerDataManager.getInstance().unload(event.getPlayer().getUniqueId());
+    }
+}
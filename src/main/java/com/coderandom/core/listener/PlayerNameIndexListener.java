@@ -0,0 +1,51 @@
+package com.coderandom.core.listener;
+
+import com.coderandom.core.CodeRandomCore;
+import com.coderandom.core.command.OnlinePlayerIndex;
+import com.coderandom.core.command.PlayerNameIndex;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Listener that keeps the player name indexes used for tab completion up to date.
+ */
+public final class PlayerNameIndexListener extends BaseListener {
+
+    /**
+     * Constructs a new PlayerNameIndexListener and registers it with the plugin.
+     * Players already online (for example after a reload) are indexed immediately.
+     */
+    public PlayerNameIndexListener() {
+        super(CodeRandomCore.getInstance(), true);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            OnlinePlayerIndex.getInstance().add(player);
+        }
+    }
+
+    /**
+     * Event handler for PlayerJoinEvent.
+     * Adds the player to the online player index and their name to the offline player index.
+     *
+     * @param event the PlayerJoinEvent
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    private void onPlayerJoin(PlayerJoinEvent event) {
+        OnlinePlayerIndex.getInstance().add(event.getPlayer());
+        PlayerNameIndex.offlinePlayers().add(event.getPlayer().getName());
+    }
+
+    /**
+     * Event handler for PlayerQuitEvent.
+     * Removes the player from the online player index.
+     *
+     * @param event the PlayerQuitEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onPlayerQuit(PlayerQuitEvent event) {
+        OnlinePlayerIndex.getInstance().remove(event.getPlayer());
+    }
+}
@@ -0,0 +1,65 @@
+package com.coderandom.core.listener;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Invokes an event handler through an exactly typed method handle and records the time it takes.
+ * Unlike the reflective executor Bukkit creates, no argument array is allocated and no access check is made per call.
+ */
+final class TimedEventExecutor implements EventExecutor {
+
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, Listener.class, Event.class);
+
+    private final Class<? extends Event> eventClass;
+    private final MethodHandle handler;
+    private final HandlerStats stats;
+
+    private TimedEventExecutor(Class<? extends Event> eventClass, MethodHandle handler, HandlerStats stats) {
+        this.eventClass = eventClass;
+        this.handler = handler;
+        this.stats = stats;
+    }
+
+    /**
+     * Creates an executor for a handler method, which may be private.
+     *
+     * @param method     the handler method
+     * @param eventClass the event class it handles
+     * @param stats      the statistics to record into
+     * @return the executor
+     * @throws IllegalAccessException if the method cannot be accessed
+     */
+    static TimedEventExecutor create(Method method, Class<? extends Event> eventClass, HandlerStats stats) throws IllegalAccessException {
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+        MethodHandle handle = lookup.unreflect(method);
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Listener.class);
+        }
+        return new TimedEventExecutor(eventClass, handle.asType(HANDLER_TYPE), stats);
+    }
+
+    @Override
+    public void execute(Listener listener, Event event) throws EventException {
+        // Handler lists are shared with subclasses of some events
+        if (!eventClass.isInstance(event)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            handler.invokeExact(listener, event);
+        } catch (Throwable throwable) {
+            throw new EventException(throwable);
+        } finally {
+            stats.record(System.nanoTime() - start, !event.isAsynchronous());
+        }
+    }
+}
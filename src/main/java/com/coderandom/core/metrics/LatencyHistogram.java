@@ -0,0 +1,149 @@
+package com.coderandom.core.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram with power-of-two nanosecond buckets.
+ * Recording is lock-free and does not allocate; bucket {@code i} counts durations in
+ * {@code [2^i, 2^(i+1))} nanoseconds, which keeps percentile estimates within a factor of two.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * The number of buckets, covering durations up to 2^40 ns (about 18 minutes).
+     */
+    public static final int BUCKETS = 41;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Constructs an empty LatencyHistogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets[bucketOf(nanos)].increment();
+        count.increment();
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of all recorded durations.
+     *
+     * @return the total in nanoseconds
+     */
+    public long getSumNanos() {
+        return sum.sum();
+    }
+
+    /**
+     * Returns the largest recorded duration.
+     *
+     * @return the maximum in nanoseconds
+     */
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean recorded duration.
+     *
+     * @return the mean in nanoseconds, or 0 if nothing was recorded
+     */
+    public double getMeanNanos() {
+        long recorded = getCount();
+        return recorded == 0 ? 0 : (double) getSumNanos() / recorded;
+    }
+
+    /**
+     * Estimates a percentile as the upper bound of the bucket containing it.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the estimated duration in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        long[] counts = getBucketCounts();
+        long total = 0;
+        for (long bucketCount : counts) {
+            total += bucketCount;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target && counts[i] > 0) {
+                return Math.min(upperBound(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * Returns the current count of every bucket.
+     *
+     * @return a new array of bucket counts
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the exclusive upper bound of a bucket.
+     *
+     * @param bucket the bucket index
+     * @return the upper bound in nanoseconds
+     */
+    public static long upperBound(int bucket) {
+        return bucket >= BUCKETS - 1 ? Long.MAX_VALUE : 1L << (bucket + 1);
+    }
+
+    /**
+     * Clears all recorded durations.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    private static int bucketOf(long nanos) {
+        int bucket = 63 - Long.numberOfLeadingZeros(nanos | 1);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+}
@@ -0,0 +1,344 @@
+package com.coderandom.core.metrics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Singleton registry of counters, gauges and latency histograms shared by the core and dependent plugins.
+ * <p>
+ * Metrics are grouped into families by name, such as {@code coderandom_mysql_query_seconds}, and
+ * distinguished by label pairs passed as {@code "key", "value", ...}. Registering a metric returns the
+ * object to record into; recording never touches the registry, never locks and never allocates.
+ * Registering an existing series returns or replaces it, so plugins can re-register after a reload.
+ */
+public final class MetricsRegistry {
+
+    /**
+     * The kind of a metric family, as exported.
+     */
+    public enum Type {
+        COUNTER,
+        GAUGE,
+        HISTOGRAM
+    }
+
+    /**
+     * Exported histogram buckets range from 2^10 ns (about 1 µs) to 2^37 ns (about 137 s),
+     * so every export has the same bucket boundaries.
+     */
+    private static final int FIRST_EXPORTED_BUCKET = 9;
+    private static final int LAST_EXPORTED_BUCKET = 36;
+
+    private static volatile MetricsRegistry instance;
+
+    private final ConcurrentMap<String, Family> families = new ConcurrentHashMap<>();
+
+    private MetricsRegistry() {
+    }
+
+    /**
+     * Returns the singleton instance of MetricsRegistry.
+     *
+     * @return the MetricsRegistry instance
+     */
+    public static MetricsRegistry getInstance() {
+        if (instance == null) {
+            synchronized (MetricsRegistry.class) {
+                if (instance == null) {
+                    instance = new MetricsRegistry();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Returns a counter, creating it on first use.
+     *
+     * @param name   the metric name, conventionally ending in {@code _total}
+     * @param help   a short description of the metric
+     * @param labels label names and values, alternating
+     * @return the counter to increment
+     */
+    public LongAdder counter(String name, String help, String... labels) {
+        Series series = family(name, help, Type.COUNTER).series
+                .computeIfAbsent(labelKey(labels), key -> new Series(key, new LongAdder()));
+        if (!(series.source instanceof LongAdder adder)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered with a different source");
+        }
+        return adder;
+    }
+
+    /**
+     * Registers a counter whose value is read from an existing source.
+     *
+     * @param name   the metric name, conventionally ending in {@code _total}
+     * @param help   a short description of the metric
+     * @param value  the current value of the counter
+     * @param labels label names and values, alternating
+     */
+    public void counter(String name, String help, LongSupplier value, String... labels) {
+        put(name, help, Type.COUNTER, value, labels);
+    }
+
+    /**
+     * Registers a gauge whose value is read when metrics are exported.
+     *
+     * @param name   the metric name
+     * @param help   a short description of the metric
+     * @param value  the current value of the gauge; it must be cheap and safe to call from any thread
+     * @param labels label names and values, alternating
+     */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        put(name, help, Type.GAUGE, value, labels);
+    }
+
+    /**
+     * Returns a latency histogram, creating it on first use.
+     *
+     * @param name   the metric name, conventionally ending in {@code _seconds}
+     * @param help   a short description of the metric
+     * @param labels label names and values, alternating
+     * @return the histogram to record into
+     */
+    public LatencyHistogram histogram(String name, String help, String... labels) {
+        Series series = family(name, help, Type.HISTOGRAM).series
+                .computeIfAbsent(labelKey(labels), key -> new Series(key, new LatencyHistogram()));
+        return (LatencyHistogram) series.source;
+    }
+
+    /**
+     * Registers an existing latency histogram.
+     *
+     * @param name      the metric name, conventionally ending in {@code _seconds}
+     * @param help      a short description of the metric
+     * @param histogram the histogram
+     * @param labels    label names and values, alternating
+     */
+    public void histogram(String name, String help, LatencyHistogram histogram, String... labels) {
+        put(name, help, Type.HISTOGRAM, histogram, labels);
+    }
+
+    /**
+     * Removes every series of a metric family.
+     *
+     * @param name the metric name
+     */
+    public void unregister(String name) {
+        families.remove(name);
+    }
+
+    /**
+     * Removes every metric family whose name starts with a prefix, such as a plugin's namespace.
+     *
+     * @param prefix the name prefix
+     */
+    public void unregisterAll(String prefix) {
+        families.keySet().removeIf(name -> name.startsWith(prefix));
+    }
+
+    /**
+     * Reads every metric series.
+     *
+     * @return the current values, sorted by name
+     */
+    public List<Sample> snapshot() {
+        List<Sample> samples = new ArrayList<>();
+        for (Family family : sortedFamilies().values()) {
+            for (Series series : new TreeMap<>(family.series).values()) {
+                samples.add(new Sample(family.name, family.type, series.labels, series.source));
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * Writes every metric in the Prometheus text exposition format. Durations are exported in seconds.
+     *
+     * @param out the destination
+     * @throws IOException if writing fails
+     */
+    public void writePrometheus(Appendable out) throws IOException {
+        for (Family family : sortedFamilies().values()) {
+            out.append("# HELP ").append(family.name).append(' ').append(escapeHelp(family.help)).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type.name().toLowerCase(Locale.ROOT)).append('\n');
+            for (Series series : new TreeMap<>(family.series).values()) {
+                if (series.source instanceof LatencyHistogram histogram) {
+                    writeHistogram(out, family.name, series.labels, histogram);
+                } else {
+                    writeLine(out, family.name, series.labels, null, formatDouble(readValue(series.source)));
+                }
+            }
+        }
+    }
+
+    private void writeHistogram(Appendable out, String name, String labels, LatencyHistogram histogram) throws IOException {
+        long[] counts = histogram.getBucketCounts();
+        long cumulative = 0;
+        for (int i = 0; i <= LAST_EXPORTED_BUCKET; i++) {
+            cumulative += counts[i];
+            if (i >= FIRST_EXPORTED_BUCKET) {
+                String le = formatDouble(LatencyHistogram.upperBound(i) / 1e9);
+                writeLine(out, name + "_bucket", labels, "le=\"" + le + '"', Long.toString(cumulative));
+            }
+        }
+        // Counted from the same snapshot as the buckets, so +Inf is never below a finite bucket
+        long count = cumulative;
+        for (int i = LAST_EXPORTED_BUCKET + 1; i < counts.length; i++) {
+            count += counts[i];
+        }
+        writeLine(out, name + "_bucket", labels, "le=\"+Inf\"", Long.toString(count));
+        writeLine(out, name + "_sum", labels, null, formatDouble(histogram.getSumNanos() / 1e9));
+        writeLine(out, name + "_count", labels, null, Long.toString(count));
+    }
+
+    private static void writeLine(Appendable out, String name, String labels, String extraLabel, String value) throws IOException {
+        out.append(name);
+        if (!labels.isEmpty() || extraLabel != null) {
+            out.append('{').append(labels);
+            if (extraLabel != null) {
+                if (!labels.isEmpty()) {
+                    out.append(',');
+                }
+                out.append(extraLabel);
+            }
+            out.append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private Map<String, Family> sortedFamilies() {
+        return new TreeMap<>(families);
+    }
+
+    private void put(String name, String help, Type type, Object source, String... labels) {
+        String key = labelKey(labels);
+        family(name, help, type).series.put(key, new Series(key, source));
+    }
+
+    private Family family(String name, String help, Type type) {
+        Family family = families.computeIfAbsent(validateName(name), key -> new Family(key, help, type));
+        if (family.type != type) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type);
+        }
+        return family;
+    }
+
+    private static String validateName(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Metric names cannot be empty.");
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == ':'
+                    || (i > 0 && c >= '0' && c <= '9');
+            if (!valid) {
+                throw new IllegalArgumentException("Invalid metric name: " + name);
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Formats label pairs as they appear between the braces of an exported line.
+     */
+    private static String labelKey(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be given as name and value pairs.");
+        }
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append(validateName(labels[i])).append("=\"");
+            String value = labels[i + 1] == null ? "" : labels[i + 1];
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                switch (c) {
+                    case '\\' -> key.append("\\\\");
+                    case '"' -> key.append("\\\"");
+                    case '\n' -> key.append("\\n");
+                    default -> key.append(c);
+                }
+            }
+            key.append('"');
+        }
+        return key.toString();
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static double readValue(Object source) {
+        if (source instanceof LongAdder adder) {
+            return adder.sum();
+        }
+        if (source instanceof LongSupplier supplier) {
+            return supplier.getAsLong();
+        }
+        return ((DoubleSupplier) source).getAsDouble();
+    }
+
+    private static String formatDouble(double value) {
+        if (value == (long) value && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    /**
+     * The current value of one series.
+     *
+     * @param name   the metric name
+     * @param type   the metric type
+     * @param labels the formatted labels, empty if there are none
+     * @param source the counter, supplier or histogram backing the series
+     */
+    public record Sample(String name, Type type, String labels, Object source) {
+
+        /**
+         * Returns the value of a counter or gauge, or the count of a histogram.
+         *
+         * @return the value
+         */
+        public double value() {
+            return source instanceof LatencyHistogram histogram ? histogram.getCount() : readValue(source);
+        }
+
+        /**
+         * Returns the histogram of a histogram series.
+         *
+         * @return the histogram, or null for counters and gauges
+         */
+        public LatencyHistogram histogram() {
+            return source instanceof LatencyHistogram histogram ? histogram : null;
+        }
+    }
+
+    private static final class Family {
+        private final String name;
+        private final String help;
+        private final Type type;
+        private final ConcurrentMap<String, Series> series = new ConcurrentHashMap<>();
+
+        private Family(String name, String help, Type type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    private record Series(String labels, Object source) {
+    }
+}
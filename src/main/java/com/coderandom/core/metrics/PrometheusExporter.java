@@ -0,0 +1,122 @@
+package com.coderandom.core.metrics;
+
+import com.coderandom.core.scheduler.ManagedExecutor;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Periodically writes the {@link MetricsRegistry} to a local file in the Prometheus text format,
+ * for example for the node exporter's textfile collector. The file is replaced atomically so
+ * readers never see a partial write. The periodic export is started from an asynchronous scheduler
+ * thread, so the main thread never writes the file, even when the executor runs rejected tasks on the caller.
+ */
+public final class PrometheusExporter {
+
+    private final Logger LOGGER;
+    private final Plugin plugin;
+    private final MetricsRegistry registry;
+    private final File file;
+    private final ManagedExecutor executor;
+    private final AtomicBoolean writing = new AtomicBoolean();
+    private BukkitTask task;
+
+    /**
+     * Constructs a PrometheusExporter.
+     *
+     * @param plugin   the plugin that owns the export task
+     * @param registry the registry to export
+     * @param file     the file to write
+     * @param executor the executor to write the file on
+     */
+    public PrometheusExporter(Plugin plugin, MetricsRegistry registry, File file, ManagedExecutor executor) {
+        this.LOGGER = plugin.getLogger();
+        this.plugin = plugin;
+        this.registry = registry;
+        this.file = file;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts writing the file periodically.
+     *
+     * @param intervalSeconds the time between writes, in seconds
+     */
+    public synchronized void start(long intervalSeconds) {
+        if (task == null && intervalSeconds > 0) {
+            long ticks = intervalSeconds * 20L;
+            task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::writeAsync, ticks, ticks);
+        }
+    }
+
+    /**
+     * Stops writing the file periodically.
+     */
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Returns the file metrics are written to.
+     *
+     * @return the export file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Writes the file off the calling thread, unless a write is already in progress.
+     *
+     * @return a future completed with true once written, or false if skipped or failed
+     */
+    public CompletableFuture<Boolean> writeAsync() {
+        if (!writing.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        // supply never throws; a rejected or discarded write completes the future exceptionally instead,
+        // so the flag is always reset and later exports are not skipped for good
+        return executor.supply(this::write)
+                .whenComplete((written, throwable) -> writing.set(false))
+                .exceptionally(throwable -> {
+                    LOGGER.log(Level.WARNING, "Skipped a metrics export: " + throwable.getMessage());
+                    return false;
+                });
+    }
+
+    private boolean write() {
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+        try {
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                registry.writePrometheus(writer);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Could not write metrics to " + file.getPath(), e);
+            return false;
+        }
+    }
+}
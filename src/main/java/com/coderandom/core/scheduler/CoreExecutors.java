@@ -0,0 +1,133 @@
+package com.coderandom.core.scheduler;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The shared executors owned by the core plugin, configured from the {@code Executors} section of the config.
+ * <ul>
+ *     <li>{@link #io()} for blocking file, database and network work</li>
+ *     <li>{@link #cpu()} for computation that never blocks</li>
+ *     <li>{@link #virtual()} for many concurrent, mostly waiting tasks</li>
+ * </ul>
+ * Dependent plugins should use these instead of creating their own pools.
+ */
+public final class CoreExecutors {
+
+    private static volatile ManagedExecutor fallback;
+
+    private final Logger LOGGER;
+    private final ManagedExecutor io;
+    private final ManagedExecutor cpu;
+    private final ManagedExecutor virtual;
+    private final long shutdownTimeoutMillis;
+
+    /**
+     * Creates the executors.
+     *
+     * @param config the plugin configuration
+     * @param logger the logger for task failures and shutdown reports
+     */
+    public CoreExecutors(FileConfiguration config, Logger logger) {
+        this.LOGGER = logger;
+        int defaultCpuThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        int cpuThreads = config.getInt("Executors.cpu-threads", 0);
+        this.io = ManagedExecutor.pool("CodeRandomCore-io",
+                Math.max(1, config.getInt("Executors.io-threads", 4)),
+                Math.max(1, config.getInt("Executors.io-queue", 10_000)),
+                policy(config, "Executors.io-rejection", ManagedExecutor.RejectionPolicy.CALLER_RUNS), logger);
+        this.cpu = ManagedExecutor.pool("CodeRandomCore-cpu",
+                cpuThreads > 0 ? cpuThreads : defaultCpuThreads,
+                Math.max(1, config.getInt("Executors.cpu-queue", 10_000)),
+                policy(config, "Executors.cpu-rejection", ManagedExecutor.RejectionPolicy.ABORT), logger);
+        this.virtual = ManagedExecutor.virtual("CodeRandomCore-virtual",
+                Math.max(1, config.getInt("Executors.virtual-max-in-flight", 10_000)),
+                policy(config, "Executors.virtual-rejection", ManagedExecutor.RejectionPolicy.ABORT), logger);
+        this.shutdownTimeoutMillis = Math.max(0, config.getLong("Executors.shutdown-timeout-seconds", 10)) * 1000L;
+    }
+
+    private ManagedExecutor.RejectionPolicy policy(FileConfiguration config, String path, ManagedExecutor.RejectionPolicy fallback) {
+        String value = config.getString(path, fallback.name());
+        try {
+            return ManagedExecutor.RejectionPolicy.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            LOGGER.warning("Unknown rejection policy '" + value + "' for " + path + ", using " + fallback);
+            return fallback;
+        }
+    }
+
+    /**
+     * Returns the executor for blocking file, database and network work.
+     *
+     * @return the I/O executor
+     */
+    public ManagedExecutor io() {
+        return io;
+    }
+
+    /**
+     * Returns the executor for non-blocking computation.
+     *
+     * @return the CPU executor
+     */
+    public ManagedExecutor cpu() {
+        return cpu;
+    }
+
+    /**
+     * Returns the executor that runs each task on its own virtual thread.
+     *
+     * @return the virtual thread executor
+     */
+    public ManagedExecutor virtual() {
+        return virtual;
+    }
+
+    /**
+     * Returns all executors.
+     *
+     * @return the I/O, CPU and virtual thread executors
+     */
+    public List<ManagedExecutor> all() {
+        return List.of(io, cpu, virtual);
+    }
+
+    /**
+     * Returns a small I/O executor for work submitted while no core executors are running,
+     * before the core plugin is enabled or after it has been disabled. It is created on first use and never shut down.
+     *
+     * @return the fallback executor
+     */
+    public static ManagedExecutor fallback() {
+        if (fallback == null) {
+            synchronized (CoreExecutors.class) {
+                if (fallback == null) {
+                    fallback = ManagedExecutor.pool("CodeRandomCore-fallback", 2, 10_000,
+                            ManagedExecutor.RejectionPolicy.CALLER_RUNS, Logger.getLogger("CodeRandomCore"));
+                }
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Stops accepting work and waits for queued work to finish, up to the configured timeout
+     * shared by all executors. Work left at the deadline is dropped and logged.
+     */
+    public void shutdown() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMillis);
+        // CPU and virtual work may still hand off writes to the I/O executor, so it is drained last
+        for (ManagedExecutor executor : List.of(cpu, virtual, io)) {
+            int dropped = executor.shutdown(deadline);
+            if (dropped > 0 || executor.getActive() > 0) {
+                LOGGER.log(Level.WARNING, "Executor " + executor.getName() + " did not finish in time: dropped "
+                        + dropped + " queued tasks, interrupted " + executor.getActive() + " running tasks");
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.coderandom.core.scheduler;
+
+import com.coderandom.core.metrics.LatencyHistogram;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Singleton queue for handing work from any thread to the main thread.
+ * Submitting is lock-free and does not create a Bukkit task; a single repeating task runs queued
+ * work each tick until the per-tick time budget is used up, then carries the rest over to the next tick.
+ */
+public final class MainThreadQueue implements Executor {
+
+    private static final long SHUTDOWN_BUDGET_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static volatile MainThreadQueue instance;
+
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder carriedOverTicks = new LongAdder();
+    private final LongAccumulator maxPending = new LongAccumulator(Math::max, 0L);
+    private final LatencyHistogram drainTimes = new LatencyHistogram();
+
+    private volatile long budgetNanos = TimeUnit.MILLISECONDS.toNanos(2);
+    private volatile int capacity = 100_000;
+    private volatile Logger logger = Logger.getLogger(MainThreadQueue.class.getName());
+    private volatile boolean closed;
+    private BukkitTask task;
+
+    private MainThreadQueue() {
+    }
+
+    /**
+     * Returns the singleton instance of MainThreadQueue.
+     *
+     * @return the MainThreadQueue instance
+     */
+    public static MainThreadQueue getInstance() {
+        if (instance == null) {
+            synchronized (MainThreadQueue.class) {
+                if (instance == null) {
+                    instance = new MainThreadQueue();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Starts draining the queue every tick, accepting work again after a {@link #shutdown()}.
+     * Work submitted before this runs on the first tick.
+     *
+     * @param plugin       the plugin that owns the drain task
+     * @param budgetMillis the time the queue may use per tick, in milliseconds
+     * @param capacity     the maximum number of queued tasks before new ones are rejected
+     */
+    public synchronized void start(Plugin plugin, double budgetMillis, int capacity) {
+        this.budgetNanos = (long) (Math.max(0.1, budgetMillis) * 1_000_000L);
+        this.capacity = Math.max(1, capacity);
+        this.logger = plugin.getLogger();
+        this.closed = false;
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 0L, 1L);
+        }
+    }
+
+    /**
+     * Stops accepting work, stops the drain task and runs what is left, for at most one second.
+     * Must be called on the main thread.
+     */
+    public synchronized void shutdown() {
+        closed = true;
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        long deadline = System.nanoTime() + SHUTDOWN_BUDGET_NANOS;
+        while (!queue.isEmpty() && System.nanoTime() < deadline) {
+            runNext();
+        }
+        int dropped = 0;
+        while (queue.poll() != null) {
+            dropped++;
+        }
+        pending.addAndGet(-dropped);
+        if (dropped > 0) {
+            logger.warning("Dropped " + dropped + " main thread tasks that could not run before shutdown");
+        }
+    }
+
+    /**
+     * Queues a task to run on the main thread.
+     *
+     * @param task the task to run
+     * @return true if the task was queued, false if the queue is full or shut down
+     */
+    public boolean submit(Runnable task) {
+        if (closed) {
+            rejected.increment();
+            return false;
+        }
+        int size = pending.incrementAndGet();
+        if (size > capacity) {
+            pending.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        queue.add(task);
+        // A shutdown that started after the check above may already have drained the queue
+        if (closed && queue.remove(task)) {
+            pending.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        submitted.increment();
+        maxPending.accumulate(size);
+        return true;
+    }
+
+    /**
+     * Queues a task to run on the main thread.
+     *
+     * @param task the task to run
+     * @throws RejectedExecutionException if the queue is full or shut down
+     */
+    @Override
+    public void execute(Runnable task) {
+        if (!submit(task)) {
+            throw rejection();
+        }
+    }
+
+    /**
+     * Runs a task on the main thread and returns a future for its result.
+     *
+     * @param task the task to run
+     * @param <T>  the result type
+     * @return a future completed with the result, or exceptionally if the task failed or the queue is full or shut down
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        boolean queued = submit(() -> {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(task.get());
+            } catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+        });
+        if (!queued) {
+            future.completeExceptionally(rejection());
+        }
+        return future;
+    }
+
+    private RejectedExecutionException rejection() {
+        return closed
+                ? new RejectedExecutionException("The main thread queue is shut down")
+                : new RejectedExecutionException("The main thread queue is full (" + capacity + " tasks)");
+    }
+
+    /**
+     * Runs queued work until the queue is empty or the tick budget is used up.
+     */
+    private void drain() {
+        if (queue.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        do {
+            runNext();
+        } while (!queue.isEmpty() && System.nanoTime() < deadline);
+        drainTimes.record(System.nanoTime() - start);
+        if (!queue.isEmpty()) {
+            carriedOverTicks.increment();
+        }
+    }
+
+    private void runNext() {
+        Runnable next = queue.poll();
+        if (next == null) {
+            return;
+        }
+        pending.decrementAndGet();
+        try {
+            next.run();
+        } catch (Throwable throwable) {
+            failed.increment();
+            logger.log(Level.SEVERE, "Error running main thread task", throwable);
+        }
+        executed.increment();
+    }
+
+    /**
+     * Returns the number of tasks waiting to run.
+     *
+     * @return the number of pending tasks
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    /**
+     * Returns the highest number of tasks that were ever waiting at once.
+     *
+     * @return the peak backlog
+     */
+    public long getMaxPending() {
+        return maxPending.get();
+    }
+
+    /**
+     * Returns the number of tasks accepted.
+     *
+     * @return the submitted count
+     */
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    /**
+     * Returns the number of tasks run, including failed ones.
+     *
+     * @return the executed count
+     */
+    public long getExecuted() {
+        return executed.sum();
+    }
+
+    /**
+     * Returns the number of tasks rejected because the queue was full or shut down.
+     *
+     * @return the rejected count
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the number of tasks that threw an exception.
+     *
+     * @return the failed count
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Returns the number of ticks that used up their budget and left work for the next tick.
+     *
+     * @return the carried over tick count
+     */
+    public long getCarriedOverTicks() {
+        return carriedOverTicks.sum();
+    }
+
+    /**
+     * Returns how long each non-empty drain took.
+     *
+     * @return the drain time histogram
+     */
+    public LatencyHistogram getDrainTimes() {
+        return drainTimes;
+    }
+
+    /**
+     * Returns the time the queue may use per tick.
+     *
+     * @return the budget in nanoseconds
+     */
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+}
@@ -0,0 +1,380 @@
+package com.coderandom.core.scheduler;
+
+import com.coderandom.core.metrics.LatencyHistogram;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A named, bounded executor that records how saturated it is.
+ * Either a fixed pool of platform threads with a bounded queue, or virtual threads with
+ * a bounded number of tasks in flight. Work beyond the bound is handled by a {@link RejectionPolicy}.
+ */
+public final class ManagedExecutor implements Executor {
+
+    /**
+     * What to do with a task when the executor is saturated.
+     */
+    public enum RejectionPolicy {
+        /**
+         * Throw a {@link RejectedExecutionException}.
+         */
+        ABORT,
+        /**
+         * Run the task on the submitting thread, which slows down the submitter instead of losing work.
+         */
+        CALLER_RUNS,
+        /**
+         * Drop the task silently; it is still counted as rejected.
+         */
+        DISCARD
+    }
+
+    private final String name;
+    private final ExecutorService delegate;
+    private final Semaphore inFlight;
+    private final int capacity;
+    private final RejectionPolicy policy;
+    private final Logger logger;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAccumulator peakQueued = new LongAccumulator(Math::max, 0L);
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram runTime = new LatencyHistogram();
+
+    private ManagedExecutor(String name, ExecutorService delegate, Semaphore inFlight, int capacity,
+                            RejectionPolicy policy, Logger logger) {
+        this.name = name;
+        this.delegate = delegate;
+        this.inFlight = inFlight;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.logger = logger;
+    }
+
+    /**
+     * Creates a fixed pool of daemon platform threads with a bounded queue.
+     *
+     * @param name          the name of the executor, used for its threads
+     * @param threads       the number of threads
+     * @param queueCapacity the maximum number of queued tasks
+     * @param policy        what to do when the queue is full
+     * @param logger        the logger for task failures
+     * @return the executor
+     */
+    public static ManagedExecutor pool(String name, int threads, int queueCapacity, RejectionPolicy policy, Logger logger) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory(name), new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return new ManagedExecutor(name, executor, null, queueCapacity, policy, logger);
+    }
+
+    /**
+     * Creates an executor that runs each task on a new virtual thread, with a bound on tasks in flight.
+     *
+     * @param name        the name of the executor, used for its threads
+     * @param maxInFlight the maximum number of tasks running or waiting to start
+     * @param policy      what to do when the bound is reached
+     * @param logger      the logger for task failures
+     * @return the executor
+     */
+    public static ManagedExecutor virtual(String name, int maxInFlight, RejectionPolicy policy, Logger logger) {
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        return new ManagedExecutor(name, executor, new Semaphore(maxInFlight), maxInFlight, policy, logger);
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Runs a task on this executor, applying the rejection policy if it is saturated.
+     *
+     * @param task the task to run
+     * @throws RejectedExecutionException if the executor is shut down, or saturated with the {@link RejectionPolicy#ABORT} policy
+     */
+    @Override
+    public void execute(Runnable task) {
+        offer(task);
+    }
+
+    /**
+     * Runs a task on this executor and returns a future for its result.
+     *
+     * @param task the task to run
+     * @param <T>  the result type
+     * @return a future completed with the result, or exceptionally if the task failed or was rejected
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            boolean accepted = offer(() -> {
+                try {
+                    future.complete(task.get());
+                } catch (Throwable throwable) {
+                    future.completeExceptionally(throwable);
+                }
+            });
+            if (!accepted) {
+                future.completeExceptionally(new RejectedExecutionException("Executor " + name + " discarded the task"));
+            }
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Runs a task on this executor and returns a future for its completion.
+     *
+     * @param task the task to run
+     * @return a future completed once the task has run, or exceptionally if it failed or was rejected
+     */
+    public CompletableFuture<Void> run(Runnable task) {
+        return supply(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Hands a task to the delegate, or to the rejection policy if saturated.
+     *
+     * @return true if the task was queued or run, false if it was discarded
+     */
+    private boolean offer(Runnable task) {
+        if (delegate.isShutdown()) {
+            rejected.increment();
+            throw new RejectedExecutionException("Executor " + name + " is shut down");
+        }
+        TrackedTask tracked = new TrackedTask(task);
+        if (inFlight != null) {
+            if (!inFlight.tryAcquire()) {
+                return reject(tracked);
+            }
+            tracked.holdsPermit = true;
+        }
+        queued.incrementAndGet();
+        try {
+            delegate.execute(tracked);
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            if (tracked.holdsPermit) {
+                tracked.holdsPermit = false;
+                inFlight.release();
+            }
+            if (delegate.isShutdown()) {
+                rejected.increment();
+                throw e;
+            }
+            return reject(tracked);
+        }
+        submitted.increment();
+        peakQueued.accumulate(queued.get());
+        return true;
+    }
+
+    private boolean reject(TrackedTask task) {
+        rejected.increment();
+        switch (policy) {
+            case CALLER_RUNS -> {
+                submitted.increment();
+                queued.incrementAndGet();
+                task.run();
+                return true;
+            }
+            case DISCARD -> {
+                return false;
+            }
+            default -> throw new RejectedExecutionException("Executor " + name + " is saturated (" + capacity + " tasks)");
+        }
+    }
+
+    /**
+     * Checks whether this executor has stopped accepting tasks.
+     *
+     * @return true once {@link #shutdown(long)} has been called
+     */
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    /**
+     * Stops accepting tasks and waits for queued ones to finish until the deadline.
+     * Tasks still queued at the deadline are dropped and running ones are interrupted.
+     *
+     * @param deadlineNanos the {@link System#nanoTime()} by which work must be finished
+     * @return the number of tasks that were dropped
+     */
+    public int shutdown(long deadlineNanos) {
+        delegate.shutdown();
+        try {
+            if (delegate.awaitTermination(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                return 0;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Runnable> dropped = delegate.shutdownNow();
+        return dropped.size();
+    }
+
+    /**
+     * Returns the name of this executor.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of tasks accepted, including ones run by the caller.
+     *
+     * @return the submitted count
+     */
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    /**
+     * Returns the number of tasks that finished, including failed ones.
+     *
+     * @return the completed count
+     */
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    /**
+     * Returns the number of tasks that threw an exception.
+     *
+     * @return the failed count
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Returns the number of times the executor was saturated or shut down when a task was submitted.
+     *
+     * @return the rejected count
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the number of tasks waiting to start.
+     *
+     * @return the queued count
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * Returns the highest number of tasks that were ever waiting to start at once.
+     *
+     * @return the peak queued count
+     */
+    public long getPeakQueued() {
+        return peakQueued.get();
+    }
+
+    /**
+     * Returns the number of tasks currently running.
+     *
+     * @return the active count
+     */
+    public int getActive() {
+        return active.get();
+    }
+
+    /**
+     * Returns how full the executor is, as the number of queued and running tasks over its bound.
+     *
+     * @return the saturation between 0 and about 1
+     */
+    public double getSaturation() {
+        int load = inFlight != null ? capacity - inFlight.availablePermits() : queued.get();
+        return (double) load / capacity;
+    }
+
+    /**
+     * Returns how long tasks waited before starting.
+     *
+     * @return the queue wait histogram
+     */
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    /**
+     * Returns how long tasks took to run.
+     *
+     * @return the run time histogram
+     */
+    public LatencyHistogram getRunTime() {
+        return runTime;
+    }
+
+    /**
+     * Wraps a task to record its wait and run times.
+     */
+    private final class TrackedTask implements Runnable {
+        private final Runnable task;
+        private final long enqueuedNanos = System.nanoTime();
+        private boolean holdsPermit;
+
+        private TrackedTask(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            queued.decrementAndGet();
+            active.incrementAndGet();
+            queueWait.record(start - enqueuedNanos);
+            try {
+                task.run();
+            } catch (Throwable throwable) {
+                failed.increment();
+                logger.log(Level.SEVERE, "Uncaught error in executor " + name, throwable);
+            } finally {
+                active.decrementAndGet();
+                completed.increment();
+                runTime.record(System.nanoTime() - start);
+                if (holdsPermit) {
+                    inFlight.release();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,571 @@
+package com.coderandom.core.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.BiConsumer;
+
+/**
+ * Memory-compact, thread-safe store of player name to UUID mappings and their reverse.
+ * UUIDs are kept as packed {@code long} pairs and names as UTF-8 bytes in a shared pool,
+ * indexed by two open-addressing hash tables. Name lookups ignore ASCII case.
+ * <p>
+ * Reads never lock; writes are serialized. A name resolves to the UUID it was last saved with,
+ * and a UUID resolves to the name it was last saved with.
+ */
+public final class IdentityStore {
+
+    private static final int MAGIC = 0x43524944; // "CRID"
+    private static final int VERSION = 1;
+    private static final int MAX_NAME_BYTES = 255;
+    private static final int MAX_ENTRIES = 1 << 26;
+    private static final int MIN_ENTRY_BYTES = 1 + 8 + 8 + 1;
+    private static final int HEADER_BYTES = 4 + 4 + 4;
+    private static final int MIN_SLOTS = 64;
+    private static final int AVERAGE_NAME_BYTES = 16;
+
+    private static final byte NAME_LIVE = 1;
+    private static final byte UUID_LIVE = 2;
+
+    private volatile Table table;
+    private volatile int size;
+
+    /**
+     * Constructs an empty IdentityStore.
+     */
+    public IdentityStore() {
+        this(1024);
+    }
+
+    /**
+     * Constructs an empty IdentityStore sized for the expected number of players.
+     *
+     * @param expectedEntries the number of mappings expected to be stored
+     * @throws IllegalArgumentException if more than 2^26 entries are expected
+     */
+    public IdentityStore(int expectedEntries) {
+        this.table = new Table(slotsFor(expectedEntries), Math.max(expectedEntries, 1) * AVERAGE_NAME_BYTES);
+    }
+
+    /**
+     * Returns the form of a name that lookups compare, with ASCII letters lowercased.
+     * Maps kept alongside the store should be keyed by it so they treat names the same way.
+     *
+     * @param name the player name
+     * @return the normalized name
+     */
+    public static String normalize(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                char[] chars = name.toCharArray();
+                for (int j = i; j < chars.length; j++) {
+                    chars[j] = (char) lower(chars[j]);
+                }
+                return new String(chars);
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Retrieves the UUID last saved for a name, ignoring ASCII case.
+     *
+     * @param name the player name
+     * @return the UUID, or null if the name is not known
+     */
+    public UUID getUUID(String name) {
+        Table current = table;
+        int id = current.findName(name);
+        return id < 0 ? null : new UUID(current.msb[id], current.lsb[id]);
+    }
+
+    /**
+     * Retrieves the name last saved for a UUID.
+     *
+     * @param uuid the player UUID
+     * @return the name, or null if the UUID is not known
+     */
+    public String getName(UUID uuid) {
+        Table current = table;
+        int id = current.findUUID(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        return id < 0 ? null : current.name(id);
+    }
+
+    /**
+     * Checks whether a name is known, ignoring ASCII case.
+     *
+     * @param name the player name
+     * @return true if the name is known, false otherwise
+     */
+    public boolean containsName(String name) {
+        return table.findName(name) >= 0;
+    }
+
+    /**
+     * Returns the number of known names.
+     *
+     * @return the number of names in the store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Saves a name to UUID mapping, updating both directions.
+     *
+     * @param name the player name
+     * @param uuid the player UUID
+     * @return true if the store changed, false if the mapping was already current
+     * @throws IllegalArgumentException if the name is longer than 255 UTF-8 bytes
+     * @throws IllegalStateException    if the store already holds 2^26 entries
+     */
+    public synchronized boolean put(String name, UUID uuid) {
+        byte[] bytes = encode(name);
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        Table current = table;
+
+        int nameId = current.findName(bytes);
+        if (nameId >= 0 && current.msb[nameId] == msb && current.lsb[nameId] == lsb && current.nameEqualsExact(nameId, bytes)) {
+            // Same name and UUID; only the reverse mapping may point elsewhere
+            if (current.findUUID(msb, lsb) == nameId) {
+                return false;
+            }
+            current.setUUIDSlot(msb, lsb, nameId);
+            return true;
+        }
+
+        if (!current.canAppend(bytes.length)) {
+            current = rebuild(current, bytes.length);
+        }
+        int id = current.append(msb, lsb, bytes);
+        if (current.setNameSlot(bytes, id)) {
+            size++;
+        }
+        current.setUUIDSlot(msb, lsb, id);
+        return true;
+    }
+
+    /**
+     * Saves a name to UUID mapping only if the name is not already known.
+     *
+     * @param name the player name
+     * @param uuid the player UUID
+     * @return true if the mapping was added, false if the name was already known
+     */
+    public synchronized boolean putIfAbsent(String name, UUID uuid) {
+        return !containsName(name) && put(name, uuid);
+    }
+
+    /**
+     * Iterates over every known name and the UUID it was last saved with.
+     *
+     * @param action the action to run for each mapping
+     */
+    public void forEach(BiConsumer<String, UUID> action) {
+        Table current = table;
+        for (int slot = 0; slot < current.nameSlots.length(); slot++) {
+            int id = current.nameSlots.get(slot) - 1;
+            if (id >= 0) {
+                action.accept(current.name(id), new UUID(current.msb[id], current.lsb[id]));
+            }
+        }
+    }
+
+    /**
+     * Estimates the heap used by the store's arrays.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimatedHeapBytes() {
+        Table current = table;
+        long entries = current.msb.length;
+        return entries * (8 + 8 + 4 + 1) + current.pool.length + 4L * (current.nameSlots.length() + current.uuidSlots.length());
+    }
+
+    /**
+     * Writes a compact binary snapshot of the store. The file is replaced atomically.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path path) throws IOException {
+        Table current;
+        int[] ids;
+        byte[] flags;
+        synchronized (this) {
+            current = table;
+            flags = current.liveFlags();
+            int live = 0;
+            for (byte flag : flags) {
+                if (flag != 0) {
+                    live++;
+                }
+            }
+            ids = new int[live];
+            for (int id = 0, i = 0; id < flags.length; id++) {
+                if (flags[id] != 0) {
+                    ids[i++] = id;
+                }
+            }
+        }
+
+        // Entries below the captured count are never modified, so they can be written without the lock
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(ids.length);
+            for (int id : ids) {
+                out.writeByte(flags[id]);
+                out.writeLong(current.msb[id]);
+                out.writeLong(current.lsb[id]);
+                out.writeByte(current.nameLength[id]);
+                out.write(current.pool, current.nameOffset[id], current.nameLength[id] & 0xFF);
+            }
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads a snapshot written by {@link #save(Path)}.
+     *
+     * @param path the file to read
+     * @return the loaded store
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static IdentityStore load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not an identity snapshot: " + path);
+            }
+            int count = in.readInt();
+            // Every entry takes at least MIN_ENTRY_BYTES, so a larger count cannot be genuine
+            if (count < 0 || count > MAX_ENTRIES || count > (Files.size(path) - HEADER_BYTES) / MIN_ENTRY_BYTES) {
+                throw new IOException("Corrupt identity snapshot: " + path + " claims " + count + " entries");
+            }
+            IdentityStore store = new IdentityStore(count);
+            Table current = store.table;
+            byte[] buffer = new byte[MAX_NAME_BYTES];
+            int names = 0;
+            for (int i = 0; i < count; i++) {
+                byte flag = in.readByte();
+                long msb = in.readLong();
+                long lsb = in.readLong();
+                int length = in.readUnsignedByte();
+                in.readFully(buffer, 0, length);
+                byte[] bytes = Arrays.copyOf(buffer, length);
+                if (!current.canAppend(length)) {
+                    current = store.rebuild(current, length);
+                }
+                int id = current.append(msb, lsb, bytes);
+                if ((flag & NAME_LIVE) != 0 && current.setNameSlot(bytes, id)) {
+                    names++;
+                }
+                if ((flag & UUID_LIVE) != 0) {
+                    current.setUUIDSlot(msb, lsb, id);
+                }
+            }
+            store.size = names;
+            return store;
+        }
+    }
+
+    /**
+     * Copies the live entries into a new table with room for more, and publishes it.
+     * Readers still using the old table see a consistent, unchanging view.
+     */
+    private Table rebuild(Table old, int extraNameBytes) {
+        byte[] flags = old.liveFlags();
+        int live = 0;
+        long liveBytes = 0;
+        for (int id = 0; id < flags.length; id++) {
+            if (flags[id] != 0) {
+                live++;
+                liveBytes += old.nameLength[id] & 0xFF;
+            }
+        }
+        if (live >= MAX_ENTRIES) {
+            throw new IllegalStateException("IdentityStore cannot hold more than " + MAX_ENTRIES + " entries");
+        }
+        int expected = Math.min(Math.max(live * 2, MIN_SLOTS / 2), MAX_ENTRIES);
+        long poolBytes = Math.max(liveBytes * 2L, (long) expected * AVERAGE_NAME_BYTES) + extraNameBytes;
+        Table rebuilt = new Table(slotsFor(expected), (int) Math.min(poolBytes, Integer.MAX_VALUE - 8));
+
+        int[] remap = new int[old.count];
+        for (int id = 0; id < old.count; id++) {
+            remap[id] = flags[id] != 0
+                    ? rebuilt.append(old.msb[id], old.lsb[id], old.pool, old.nameOffset[id], old.nameLength[id] & 0xFF)
+                    : -1;
+        }
+        for (int slot = 0; slot < old.nameSlots.length(); slot++) {
+            int id = old.nameSlots.get(slot) - 1;
+            if (id >= 0) {
+                rebuilt.insertNameSlot(remap[id]);
+            }
+        }
+        for (int slot = 0; slot < old.uuidSlots.length(); slot++) {
+            int id = old.uuidSlots.get(slot) - 1;
+            if (id >= 0) {
+                rebuilt.setUUIDSlot(old.msb[id], old.lsb[id], remap[id]);
+            }
+        }
+        table = rebuilt;
+        return rebuilt;
+    }
+
+    private static int slotsFor(int entries) {
+        if (entries > MAX_ENTRIES) {
+            throw new IllegalArgumentException("IdentityStore cannot hold more than " + MAX_ENTRIES + " entries");
+        }
+        int slots = MIN_SLOTS;
+        while (slots < entries * 2L) {
+            slots <<= 1;
+        }
+        return slots;
+    }
+
+    private static byte[] encode(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Player name is too long: " + name);
+        }
+        return bytes;
+    }
+
+    private static int lower(int b) {
+        return b >= 'A' && b <= 'Z' ? b + 32 : b;
+    }
+
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int hashUUID(long msb, long lsb) {
+        long hash = msb ^ (lsb * 0x9E3779B97F4A7C15L);
+        return mix((int) (hash ^ (hash >>> 32)));
+    }
+
+    /**
+     * Fixed-capacity entry arrays and index tables. Entries are append-only; index slots hold
+     * {@code entry id + 1} (0 is empty) and are written after the entry they point to, so a
+     * reader that sees a slot also sees the entry.
+     */
+    private static final class Table {
+        private final long[] msb;
+        private final long[] lsb;
+        private final int[] nameOffset;
+        private final byte[] nameLength;
+        private final byte[] pool;
+        private final AtomicIntegerArray nameSlots;
+        private final AtomicIntegerArray uuidSlots;
+        private final int mask;
+        private int count;
+        private int poolSize;
+
+        private Table(int slots, int poolBytes) {
+            int entries = slots / 2;
+            this.msb = new long[entries];
+            this.lsb = new long[entries];
+            this.nameOffset = new int[entries];
+            this.nameLength = new byte[entries];
+            this.pool = new byte[poolBytes];
+            this.nameSlots = new AtomicIntegerArray(slots);
+            this.uuidSlots = new AtomicIntegerArray(slots);
+            this.mask = slots - 1;
+        }
+
+        private boolean canAppend(int nameBytes) {
+            return count < msb.length && poolSize + nameBytes <= pool.length;
+        }
+
+        private int append(long msb, long lsb, byte[] name) {
+            return append(msb, lsb, name, 0, name.length);
+        }
+
+        private int append(long msb, long lsb, byte[] source, int offset, int length) {
+            int id = count++;
+            this.msb[id] = msb;
+            this.lsb[id] = lsb;
+            this.nameOffset[id] = poolSize;
+            this.nameLength[id] = (byte) length;
+            System.arraycopy(source, offset, pool, poolSize, length);
+            poolSize += length;
+            return id;
+        }
+
+        private String name(int id) {
+            return new String(pool, nameOffset[id], nameLength[id] & 0xFF, StandardCharsets.UTF_8);
+        }
+
+        private int findName(String name) {
+            int length = name.length();
+            int hash = 0;
+            for (int i = 0; i < length; i++) {
+                char c = name.charAt(i);
+                if (c >= 0x80) {
+                    return findName(name.getBytes(StandardCharsets.UTF_8));
+                }
+                hash = 31 * hash + lower(c);
+            }
+            if (length > MAX_NAME_BYTES) {
+                return -1;
+            }
+            for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+                int id = nameSlots.get(slot) - 1;
+                if (id < 0) {
+                    return -1;
+                }
+                if (nameEqualsIgnoreCase(id, name)) {
+                    return id;
+                }
+            }
+        }
+
+        private int findName(byte[] name) {
+            for (int slot = hashName(name, 0, name.length) & mask; ; slot = (slot + 1) & mask) {
+                int id = nameSlots.get(slot) - 1;
+                if (id < 0) {
+                    return -1;
+                }
+                if (nameEqualsIgnoreCase(id, name)) {
+                    return id;
+                }
+            }
+        }
+
+        private int findUUID(long msb, long lsb) {
+            for (int slot = hashUUID(msb, lsb) & mask; ; slot = (slot + 1) & mask) {
+                int id = uuidSlots.get(slot) - 1;
+                if (id < 0) {
+                    return -1;
+                }
+                if (this.msb[id] == msb && this.lsb[id] == lsb) {
+                    return id;
+                }
+            }
+        }
+
+        /**
+         * Points the name's slot at an entry, replacing any previous entry for the same name.
+         *
+         * @return true if the name was not in the table before
+         */
+        private boolean setNameSlot(byte[] name, int id) {
+            for (int slot = hashName(name, 0, name.length) & mask; ; slot = (slot + 1) & mask) {
+                int existing = nameSlots.get(slot) - 1;
+                if (existing < 0 || nameEqualsIgnoreCase(existing, name)) {
+                    nameSlots.set(slot, id + 1);
+                    return existing < 0;
+                }
+            }
+        }
+
+        /**
+         * Inserts a slot for an entry whose name is known not to be in the table yet.
+         */
+        private void insertNameSlot(int id) {
+            int slot = hashName(pool, nameOffset[id], nameLength[id] & 0xFF) & mask;
+            while (nameSlots.get(slot) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            nameSlots.set(slot, id + 1);
+        }
+
+        private void setUUIDSlot(long msb, long lsb, int id) {
+            for (int slot = hashUUID(msb, lsb) & mask; ; slot = (slot + 1) & mask) {
+                int existing = uuidSlots.get(slot) - 1;
+                if (existing < 0 || (this.msb[existing] == msb && this.lsb[existing] == lsb)) {
+                    uuidSlots.set(slot, id + 1);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Marks which entries are still referenced by the name index, the UUID index, or both.
+         */
+        private byte[] liveFlags() {
+            byte[] flags = new byte[count];
+            for (int slot = 0; slot < nameSlots.length(); slot++) {
+                int id = nameSlots.get(slot) - 1;
+                if (id >= 0) {
+                    flags[id] |= NAME_LIVE;
+                }
+            }
+            for (int slot = 0; slot < uuidSlots.length(); slot++) {
+                int id = uuidSlots.get(slot) - 1;
+                if (id >= 0) {
+                    flags[id] |= UUID_LIVE;
+                }
+            }
+            return flags;
+        }
+
+        private int hashName(byte[] bytes, int offset, int length) {
+            int hash = 0;
+            for (int i = offset; i < offset + length; i++) {
+                hash = 31 * hash + lower(bytes[i] & 0xFF);
+            }
+            return mix(hash);
+        }
+
+        private boolean nameEqualsIgnoreCase(int id, String name) {
+            int length = nameLength[id] & 0xFF;
+            if (length != name.length()) {
+                return false;
+            }
+            int offset = nameOffset[id];
+            for (int i = 0; i < length; i++) {
+                if (lower(pool[offset + i] & 0xFF) != lower(name.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean nameEqualsIgnoreCase(int id, byte[] name) {
+            int length = nameLength[id] & 0xFF;
+            if (length != name.length) {
+                return false;
+            }
+            int offset = nameOffset[id];
+            for (int i = 0; i < length; i++) {
+                if (lower(pool[offset + i] & 0xFF) != lower(name[i] & 0xFF)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean nameEqualsExact(int id, byte[] name) {
+            int length = nameLength[id] & 0xFF;
+            if (length != name.length) {
+                return false;
+            }
+            int offset = nameOffset[id];
+            for (int i = 0; i < length; i++) {
+                if (pool[offset + i] != name[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -1,23 +1,45 @@
 package com.coderandom.core.storage;
 
+import com.coderandom.core.CodeRandomCore;
+import com.coderandom.core.metrics.LatencyHistogram;
+import com.coderandom.core.metrics.MetricsRegistry;
 import com.google.gson.*;
 import org.bukkit.plugin.Plugin;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Logger;
 
 /**
  * Manages JSON file operations asynchronously and synchronously for a Bukkit plugin.
+ * Files are replaced atomically, and writes hold the shared {@link #writeLock()} so that
+ * {@link SnapshotEngine snapshots} never copy a file mid-write.
  */
 public final class JsonFileManager {
 
+    private static final LatencyHistogram READ_TIMES = MetricsRegistry.getInstance().histogram(
+            "coderandom_json_file_seconds", "Time spent reading and writing JSON files", "operation", "read");
+    private static final LatencyHistogram WRITE_TIMES = MetricsRegistry.getInstance().histogram(
+            "coderandom_json_file_seconds", "Time spent reading and writing JSON files", "operation", "write");
+    private static final LongAdder ERRORS = MetricsRegistry.getInstance().counter(
+            "coderandom_json_file_errors_total", "JSON file reads and writes that failed");
+
+    private static final ReentrantReadWriteLock WRITES = new ReentrantReadWriteLock();
+    private static final AtomicInteger PENDING_WRITES = new AtomicInteger();
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
     private final Logger LOGGER;
     private final File file;
-    private final Gson gson;
 
     /**
      * Constructs a JsonFileManager for handling JSON file operations.
@@ -36,7 +58,6 @@ public final class JsonFileManager {
 
         this.LOGGER = plugin.getLogger();
         this.file = new File(directory, fileName + ".json");
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
 
         // Check if the file exists in the plugin data folder; if not, try to create it from JAR resources
         if (!file.exists()) {
@@ -56,6 +77,31 @@ public final class JsonFileManager {
         }
     }
 
+    /**
+     * Returns the lock held while data files are written. Any number of writers can hold it at once; snapshots wait
+     * for it to be released and hold back new writes while they copy files. Code that writes files in a plugin data
+     * folder without this class should hold it while writing.
+     *
+     * @return the lock shared by writers of data files
+     */
+    public static Lock writeLock() {
+        return WRITES.readLock();
+    }
+
+    /**
+     * Returns the lock that excludes all writers of data files while a snapshot copies them.
+     */
+    static Lock snapshotLock() {
+        return WRITES.writeLock();
+    }
+
+    /**
+     * Returns the number of asynchronous writes queued or running.
+     */
+    static int pendingWrites() {
+        return PENDING_WRITES.get();
+    }
+
     /**
      * Copies a file from the JAR resources to the plugin data folder.
      *
@@ -91,33 +137,38 @@ public final class JsonFileManager {
      * @return a CompletableFuture containing the JSON content
      */
     public CompletableFuture<JsonElement> getAsync() {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Reader reader = new FileReader(file, StandardCharsets.UTF_8)) {
-                return JsonParser.parseReader(reader);
-            } catch (FileNotFoundException e) {
-                LOGGER.severe("File not found: " + e.getMessage());
-                return null;
-            } catch (IOException | JsonSyntaxException e) {
-                LOGGER.severe("Error reading JSON from file: " + e.getMessage());
-                return null;
-            }
-        });
+        return CodeRandomCore.ioExecutor().supply(this::getSync);
     }
 
     /**
      * Asynchronously writes the JSON content to the file.
      *
      * @param jsonElement the JSON content to write
-     * @return a CompletableFuture representing the completion of the write operation
+     * @return a CompletableFuture representing the completion of the write operation, completed exceptionally
+     * if the write could not be queued
      */
     public CompletableFuture<Void> setAsync(JsonElement jsonElement) {
-        return CompletableFuture.runAsync(() -> {
-            try (Writer writer = new FileWriter(file, StandardCharsets.UTF_8, false)) {
-                gson.toJson(jsonElement, writer);
-            } catch (IOException e) {
-                LOGGER.severe("Error writing JSON to file: " + e.getMessage());
-            }
-        });
+        PENDING_WRITES.incrementAndGet();
+        return CodeRandomCore.ioExecutor().run(() -> setSync(jsonElement))
+                .whenComplete((ignored, throwable) -> PENDING_WRITES.decrementAndGet());
+    }
+
+    /**
+     * Synchronously writes the JSON content to the file.
+     * The content is written to a temporary file first, which then replaces the file,
+     * so readers and crashes never see a partially written file.
+     *
+     * @param jsonElement the JSON content to write
+     * @return true if the content was written, false otherwise
+     */
+    public boolean setSync(JsonElement jsonElement) {
+        try {
+            write(file.toPath(), jsonElement);
+            return true;
+        } catch (IOException e) {
+            LOGGER.severe("Error writing JSON to file: " + e.getMessage());
+            return false;
+        }
     }
 
     /**
@@ -126,27 +177,88 @@ public final class JsonFileManager {
      * @return the JSON content
      */
     public JsonElement getSync() {
-        try (Reader reader = new FileReader(file, StandardCharsets.UTF_8)) {
-            return JsonParser.parseReader(reader);
-        } catch (FileNotFoundException e) {
+        try {
+            return read(file.toPath());
+        } catch (NoSuchFileException e) {
             LOGGER.severe("File not found: " + e.getMessage());
             return null;
-        } catch (IOException | JsonSyntaxException e) {
+        } catch (IOException e) {
             LOGGER.severe("Error reading JSON from file: " + e.getMessage());
             return null;
         }
     }
 
+    /**
+     * Writes JSON content to a file the same way as {@link #setSync(JsonElement)}, for callers that manage many
+     * files and do not need an instance per file. The parent directory must exist.
+     *
+     * @param path        the file to write
+     * @param jsonElement the JSON content to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, JsonElement jsonElement) throws IOException {
+        long start = System.nanoTime();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Lock lock = writeLock();
+        lock.lock();
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                GSON.toJson(jsonElement, writer);
+            } catch (JsonIOException e) {
+                throw new IOException(e);
+            }
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            ERRORS.increment();
+            throw e;
+        } finally {
+            lock.unlock();
+            WRITE_TIMES.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Reads the JSON content of a file without creating it.
+     *
+     * @param path the file to read
+     * @return the JSON content, or {@link JsonNull} for an empty file
+     * @throws IOException if the file cannot be read or does not contain valid JSON
+     */
+    public static JsonElement read(Path path) throws IOException {
+        long start = System.nanoTime();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return JsonParser.parseReader(reader);
+        } catch (JsonParseException e) {
+            ERRORS.increment();
+            throw new IOException("Invalid JSON in " + path.getFileName() + ": " + e.getMessage(), e);
+        } catch (IOException e) {
+            ERRORS.increment();
+            throw e;
+        } finally {
+            READ_TIMES.record(System.nanoTime() - start);
+        }
+    }
+
     /**
      * Deletes the JSON file.
      */
     public void deleteFile() {
-        if (file.exists()) {
-            if (file.delete()) {
-                LOGGER.info("File deleted successfully: " + file.getName());
-            } else {
-                LOGGER.severe("Failed to delete the file: " + file.getName());
+        Lock lock = writeLock();
+        lock.lock();
+        try {
+            if (file.exists()) {
+                if (file.delete()) {
+                    LOGGER.info("File deleted successfully: " + file.getName());
+                } else {
+                    LOGGER.severe("Failed to delete the file: " + file.getName());
+                }
             }
+        } finally {
+            lock.unlock();
         }
     }
 }
@@ -0,0 +1,511 @@
+package com.coderandom.core.storage;
+
+import com.coderandom.core.metrics.LatencyHistogram;
+import com.coderandom.core.metrics.MetricsRegistry;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Singleton engine taking incremental, compressed snapshots of registered plugin data files.
+ * <p>
+ * Each snapshot waits briefly for queued {@link JsonFileManager} writes, then copies the files whose size or
+ * modification time changed since the previous snapshot to a staging folder. Writers are held back only while one
+ * file is copied, and copying, hashing and compressing run on the I/O executor, limited to a configured rate. Files are
+ * stored once per distinct content as gzip objects named by their SHA-256 hash, and every snapshot is a manifest
+ * listing the hash of each file. Old manifests are removed by the retention policy, and objects no manifest refers
+ * to are then deleted.
+ */
+public final class SnapshotEngine {
+
+    private static final String MANIFEST_SUFFIX = ".manifest";
+    private static final String MANIFEST_HEADER = "# CodeRandomCore snapshot";
+    private static final long PENDING_WAIT_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final long SHUTDOWN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static volatile SnapshotEngine instance;
+
+    private final Set<Path> sources = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Logger logger = Logger.getLogger(SnapshotEngine.class.getName());
+    private volatile Path root;
+    private Path directory;
+    private Path objects;
+    private Path manifests;
+    private Path staging;
+    private int keepLast;
+    private int keepDaily;
+    private long bytesPerSecond;
+    private volatile Executor executor;
+    private BukkitTask task;
+    private Map<String, Entry> previous;
+    private long throttleStartNanos;
+    private long throttledBytes;
+
+    private final LatencyHistogram snapshotTimes;
+    private final LongAdder changedFiles;
+    private final LongAdder unchangedFiles;
+    private final LongAdder storedObjects;
+    private final LongAdder deduplicatedObjects;
+    private final LongAdder storedBytes;
+    private final LongAdder failures;
+
+    private SnapshotEngine() {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        snapshotTimes = metrics.histogram("coderandom_snapshot_seconds", "Time spent taking data file snapshots");
+        changedFiles = metrics.counter("coderandom_snapshot_files_total", "Data files seen by snapshots", "state", "changed");
+        unchangedFiles = metrics.counter("coderandom_snapshot_files_total", "Data files seen by snapshots", "state", "unchanged");
+        storedObjects = metrics.counter("coderandom_snapshot_objects_total", "Changed files stored by snapshots", "result", "stored");
+        deduplicatedObjects = metrics.counter("coderandom_snapshot_objects_total", "Changed files stored by snapshots", "result", "deduplicated");
+        storedBytes = metrics.counter("coderandom_snapshot_stored_bytes_total", "Compressed bytes written by snapshots");
+        failures = metrics.counter("coderandom_snapshot_errors_total", "Snapshots that failed");
+    }
+
+    /**
+     * Returns the singleton instance of SnapshotEngine.
+     *
+     * @return the SnapshotEngine instance
+     */
+    public static SnapshotEngine getInstance() {
+        if (instance == null) {
+            synchronized (SnapshotEngine.class) {
+                if (instance == null) {
+                    instance = new SnapshotEngine();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Starts taking snapshots every interval.
+     *
+     * @param plugin                the plugin that owns the snapshot task; paths in snapshots are relative to its parent folder
+     * @param directory             the folder holding objects and manifests
+     * @param intervalMinutes       how often snapshots are taken, or 0 to take them only on request
+     * @param keepLast              the number of most recent snapshots kept
+     * @param keepDaily             the number of most recent days of which the last snapshot is also kept
+     * @param maxMegabytesPerSecond the rate at which changed files are copied, hashed and compressed, or 0 for no limit
+     * @param executor              the executor that takes snapshots
+     */
+    public synchronized void start(Plugin plugin, Path directory, long intervalMinutes, int keepLast, int keepDaily,
+                                   double maxMegabytesPerSecond, Executor executor) {
+        if (this.executor != null) {
+            throw new IllegalStateException("The snapshot engine has already been started.");
+        }
+        this.logger = plugin.getLogger();
+        this.root = plugin.getDataFolder().getAbsoluteFile().getParentFile().toPath();
+        this.directory = directory.toAbsolutePath();
+        this.objects = this.directory.resolve("objects");
+        this.manifests = this.directory.resolve("manifests");
+        this.staging = this.directory.resolve("staging");
+        this.keepLast = Math.max(1, keepLast);
+        this.keepDaily = Math.max(0, keepDaily);
+        this.bytesPerSecond = (long) (Math.max(0, maxMegabytesPerSecond) * 1024 * 1024);
+        this.executor = executor;
+        if (intervalMinutes > 0) {
+            long ticks = TimeUnit.MINUTES.toSeconds(intervalMinutes) * 20;
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::snapshotAsync, ticks, ticks);
+        }
+    }
+
+    /**
+     * Stops the snapshot task and waits for a running snapshot to finish, if the engine was started.
+     */
+    public static void shutdown() {
+        SnapshotEngine current = instance;
+        if (current == null) {
+            return;
+        }
+        synchronized (current) {
+            if (current.task != null) {
+                current.task.cancel();
+                current.task = null;
+            }
+        }
+        long deadline = System.nanoTime() + SHUTDOWN_TIMEOUT_NANOS;
+        while (current.running.get() && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(10_000_000L);
+        }
+    }
+
+    /**
+     * Includes a file, or a folder and everything in it, in every snapshot.
+     *
+     * @param plugin the plugin owning the data folder
+     * @param path   the path relative to the data folder of the plugin
+     */
+    public void register(Plugin plugin, String path) {
+        sources.add(new File(plugin.getDataFolder(), path).getAbsoluteFile().toPath().normalize());
+    }
+
+    /**
+     * Takes a snapshot on the executor. Does nothing if the engine was not started or a snapshot is already running.
+     *
+     * @return a future with the name of the new snapshot, or null if none was taken
+     */
+    public CompletableFuture<String> snapshotAsync() {
+        if (executor == null || !running.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                try {
+                    return takeSnapshot();
+                } catch (IOException e) {
+                    failures.increment();
+                    logger.log(Level.SEVERE, "Could not take a snapshot of the data files!", e);
+                    throw new CompletionException(e);
+                } finally {
+                    snapshotTimes.record(System.nanoTime() - start);
+                    running.set(false);
+                }
+            }, executor);
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the names of the kept snapshots, oldest first.
+     *
+     * @return the snapshot names, or an empty list if the engine was not started
+     * @throws IOException if the manifest folder cannot be read
+     */
+    public List<String> list() throws IOException {
+        if (manifests == null || !Files.isDirectory(manifests)) {
+            return List.of();
+        }
+        List<String> names = new ArrayList<>();
+        try (Stream<Path> files = Files.list(manifests)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(MANIFEST_SUFFIX))
+                    .forEach(name -> names.add(name.substring(0, name.length() - MANIFEST_SUFFIX.length())));
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * Restores a snapshot into a new folder next to the objects, leaving the live data files untouched.
+     *
+     * @param name the name of the snapshot
+     * @return a future with the folder the files were restored into
+     */
+    public CompletableFuture<Path> restoreAsync(String name) {
+        if (executor == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("The snapshot engine has not been started."));
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                if (!list().contains(name)) {
+                    throw new IOException("There is no snapshot named " + name);
+                }
+                Path target = directory.resolve("restore").resolve(name);
+                for (Map.Entry<String, Entry> file : readManifest(manifests.resolve(name + MANIFEST_SUFFIX)).entrySet()) {
+                    Path destination = target.resolve(file.getKey()).normalize();
+                    if (!destination.startsWith(target)) {
+                        throw new IOException("Invalid path in snapshot " + name + ": " + file.getKey());
+                    }
+                    Files.createDirectories(destination.getParent());
+                    try (InputStream in = new GZIPInputStream(Files.newInputStream(objectPath(file.getValue().hash())), BUFFER_SIZE)) {
+                        Files.copy(in, destination, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                return target;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    private String takeSnapshot() throws IOException {
+        if (previous == null) {
+            List<String> names = list();
+            previous = names.isEmpty() ? Map.of() : readManifest(manifests.resolve(names.get(names.size() - 1) + MANIFEST_SUFFIX));
+        }
+        Files.createDirectories(objects);
+        Files.createDirectories(manifests);
+        Files.createDirectories(staging);
+        waitForPendingWrites();
+
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        Map<String, Path> staged = new HashMap<>();
+        throttleStartNanos = System.nanoTime();
+        throttledBytes = 0;
+        try {
+            for (Path source : sources) {
+                capture(source, entries, staged);
+            }
+            for (Map.Entry<String, Path> file : staged.entrySet()) {
+                Entry entry = entries.get(file.getKey());
+                entries.put(file.getKey(), new Entry(store(file.getValue()), entry.size(), entry.modified()));
+            }
+        } finally {
+            for (Path file : staged.values()) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        String name = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS", Locale.ROOT).format(new Date());
+        writeManifest(manifests.resolve(name + MANIFEST_SUFFIX), entries);
+        previous = entries;
+        applyRetention();
+        return name;
+    }
+
+    /**
+     * Waits a few seconds for queued asynchronous writes, so the snapshot includes changes that were just made.
+     */
+    private void waitForPendingWrites() {
+        long deadline = System.nanoTime() + PENDING_WAIT_NANOS;
+        while (JsonFileManager.pendingWrites() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(10_000_000L);
+        }
+    }
+
+    /**
+     * Records the files under a source, copying those that changed since the previous snapshot to the staging folder.
+     * Writers are held back while a changed file is copied, one file at a time, so a file is never copied mid-write.
+     */
+    private void capture(Path source, Map<String, Entry> entries, Map<String, Path> staged) throws IOException {
+        if (!Files.exists(source)) {
+            return;
+        }
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(source)) {
+            walk.filter(Files::isRegularFile)
+                    .filter(file -> !file.startsWith(directory) && !file.getFileName().toString().endsWith(".tmp"))
+                    .forEach(files::add);
+        }
+        for (Path file : files) {
+            String relative = root.relativize(file).toString().replace('\\', '/');
+            if (entries.containsKey(relative)) {
+                continue;
+            }
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                // Deleted since the folder was listed
+                continue;
+            }
+            long modified = attributes.lastModifiedTime().toMillis();
+            Entry known = previous.get(relative);
+            if (known != null && known.size() == attributes.size() && known.modified() == modified) {
+                entries.put(relative, known);
+                unchangedFiles.increment();
+                continue;
+            }
+            Path copy = staging.resolve(Integer.toString(staged.size()));
+            Lock lock = JsonFileManager.snapshotLock();
+            lock.lock();
+            try {
+                // Read again, as the file may have been written since it was checked
+                attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+            } catch (NoSuchFileException e) {
+                continue;
+            } finally {
+                lock.unlock();
+            }
+            entries.put(relative, new Entry(null, attributes.size(), attributes.lastModifiedTime().toMillis()));
+            staged.put(relative, copy);
+            changedFiles.increment();
+            throttle(attributes.size());
+        }
+    }
+
+    /**
+     * Stores a staged file as a compressed object unless an object with the same content exists.
+     *
+     * @return the SHA-256 hash of the content
+     */
+    private String store(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+                throttle(read);
+            }
+        }
+        String hash = HexFormat.of().formatHex(digest.digest());
+        Path object = objectPath(hash);
+        if (Files.exists(object)) {
+            deduplicatedObjects.increment();
+            return hash;
+        }
+        Files.createDirectories(object.getParent());
+        Path temp = object.resolveSibling(object.getFileName() + ".tmp");
+        try (InputStream in = Files.newInputStream(file);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), BUFFER_SIZE)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+                throttle(read);
+            }
+        }
+        storedBytes.add(Files.size(temp));
+        move(temp, object);
+        storedObjects.increment();
+        return hash;
+    }
+
+    /**
+     * Sleeps as long as needed to keep hashing and compressing below the configured rate.
+     */
+    private void throttle(long bytes) {
+        if (bytesPerSecond <= 0) {
+            return;
+        }
+        throttledBytes += bytes;
+        long dueNanos = throttleStartNanos + throttledBytes * 1_000_000_000L / bytesPerSecond;
+        long waitNanos = dueNanos - System.nanoTime();
+        if (waitNanos > 0) {
+            LockSupport.parkNanos(waitNanos);
+        }
+    }
+
+    /**
+     * Deletes the snapshots outside the retention policy, then the objects no remaining snapshot refers to.
+     */
+    private void applyRetention() throws IOException {
+        List<String> names = list();
+        Set<String> kept = new HashSet<>(names.subList(Math.max(0, names.size() - keepLast), names.size()));
+        Map<String, String> lastOfDay = new LinkedHashMap<>();
+        for (String name : names) {
+            lastOfDay.put(name.substring(0, 8), name);
+        }
+        List<String> daily = new ArrayList<>(lastOfDay.values());
+        kept.addAll(daily.subList(Math.max(0, daily.size() - keepDaily), daily.size()));
+        boolean deleted = false;
+        for (String name : names) {
+            if (!kept.contains(name)) {
+                Files.deleteIfExists(manifests.resolve(name + MANIFEST_SUFFIX));
+                deleted = true;
+            }
+        }
+        if (!deleted) {
+            return;
+        }
+        Set<String> referenced = new HashSet<>();
+        for (String name : kept) {
+            readManifest(manifests.resolve(name + MANIFEST_SUFFIX)).values().forEach(entry -> referenced.add(entry.hash()));
+        }
+        List<Path> unreferenced = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(objects)) {
+            walk.filter(Files::isRegularFile).forEach(object -> {
+                String fileName = object.getFileName().toString();
+                if (!fileName.endsWith(".gz") || !referenced.contains(fileName.substring(0, fileName.length() - 3))) {
+                    unreferenced.add(object);
+                }
+            });
+        }
+        for (Path object : unreferenced) {
+            Files.deleteIfExists(object);
+        }
+    }
+
+    private Path objectPath(String hash) {
+        return objects.resolve(hash.substring(0, 2)).resolve(hash + ".gz");
+    }
+
+    private static Map<String, Entry> readManifest(Path manifest) throws IOException {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t", 4);
+            if (fields.length == 4) {
+                entries.put(fields[3], new Entry(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2])));
+            }
+        }
+        return entries;
+    }
+
+    private static void writeManifest(Path manifest, Map<String, Entry> entries) throws IOException {
+        Path temp = manifest.resolveSibling(manifest.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(MANIFEST_HEADER + " " + System.currentTimeMillis());
+            writer.newLine();
+            for (Map.Entry<String, Entry> file : entries.entrySet()) {
+                Entry entry = file.getValue();
+                writer.write(entry.hash() + "\t" + entry.size() + "\t" + entry.modified() + "\t" + file.getKey());
+                writer.newLine();
+            }
+        }
+        move(temp, manifest);
+    }
+
+    private static void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * A file in a snapshot.
+     *
+     * @param hash     the SHA-256 hash of the content, naming its object
+     * @param size     the size of the file in bytes
+     * @param modified the modification time of the file, in milliseconds since the epoch
+     */
+    private record Entry(String hash, long size, long modified) {
+    }
+}
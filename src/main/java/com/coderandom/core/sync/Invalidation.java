@@ -0,0 +1,31 @@
+package com.coderandom.core.sync;
+
+/**
+ * A notice that a cached item changed on some node and must be dropped or reloaded.
+ *
+ * @param origin        the id of the node that made the change
+ * @param topic         the kind of item, such as {@code "bedrock-uuid"}, or null to invalidate everything
+ * @param key           the changed item within the topic, or null to invalidate everything
+ * @param createdMillis when the change was published, in milliseconds since the epoch
+ */
+public record Invalidation(String origin, String topic, String key, long createdMillis) {
+
+    /**
+     * Creates a notice that every cached item may be stale, for example after changes were missed.
+     *
+     * @param origin the id of the node sending the notice
+     * @return the invalidation
+     */
+    public static Invalidation reset(String origin) {
+        return new Invalidation(origin, null, null, System.currentTimeMillis());
+    }
+
+    /**
+     * Checks whether this notice invalidates everything.
+     *
+     * @return true if every cached item must be dropped
+     */
+    public boolean isReset() {
+        return topic == null;
+    }
+}
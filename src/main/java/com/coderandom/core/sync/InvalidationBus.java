@@ -0,0 +1,234 @@
+package com.coderandom.core.sync;
+
+import com.coderandom.core.metrics.LatencyHistogram;
+import com.coderandom.core.metrics.MetricsRegistry;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Singleton bus that tells the other servers of a network which cached items changed, so every node
+ * can keep local caches and still see changes made elsewhere within about one poll interval.
+ * <p>
+ * Caches {@link #publish(String, String) publish} the key of every item they change, and
+ * {@link #subscribe(String, Consumer) subscribe} to drop or reload items changed by other nodes.
+ * Published keys are collected and sent in one batch per poll interval, with duplicates removed.
+ * Until the bus is started, for example when MySQL is not used, publishing does nothing.
+ */
+public final class InvalidationBus {
+
+    private static volatile InvalidationBus instance;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, List<Consumer<String>>> subscribers = new ConcurrentHashMap<>();
+    private final Set<TopicKey> outbox = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean cycleRunning = new AtomicBoolean();
+    private volatile InvalidationTransport transport;
+    private volatile Logger logger = Logger.getLogger(InvalidationBus.class.getName());
+    private Executor executor;
+    private BukkitTask task;
+
+    private final LongAdder published;
+    private final LongAdder received;
+    private final LatencyHistogram delays;
+
+    private InvalidationBus() {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        published = metrics.counter("coderandom_invalidations_total", "Cache invalidations by direction", "direction", "published");
+        received = metrics.counter("coderandom_invalidations_total", "Cache invalidations by direction", "direction", "received");
+        delays = metrics.histogram("coderandom_invalidation_delay_seconds", "Time from publishing an invalidation to applying it on another node");
+        metrics.gauge("coderandom_invalidation_outbox", "Invalidations waiting to be published", outbox::size);
+    }
+
+    /**
+     * Returns the singleton instance of InvalidationBus.
+     *
+     * @return the InvalidationBus instance
+     */
+    public static InvalidationBus getInstance() {
+        if (instance == null) {
+            synchronized (InvalidationBus.class) {
+                if (instance == null) {
+                    instance = new InvalidationBus();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Starts publishing and receiving invalidations every interval.
+     *
+     * @param plugin         the plugin that owns the poll task
+     * @param transport      the transport connecting this node to the others
+     * @param executor       the executor that talks to the transport and calls subscribers
+     * @param intervalMillis how often invalidations are exchanged
+     */
+    public synchronized void start(Plugin plugin, InvalidationTransport transport, Executor executor, long intervalMillis) {
+        if (this.transport != null) {
+            throw new IllegalStateException("The invalidation bus has already been started.");
+        }
+        this.logger = plugin.getLogger();
+        this.executor = executor;
+        this.transport = transport;
+        long ticks = Math.max(1, intervalMillis / 50);
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::scheduleCycle, ticks, ticks);
+    }
+
+    /**
+     * Stops the poll task, publishes what is left and closes the transport, if the bus was started.
+     */
+    public synchronized void shutdown() {
+        InvalidationTransport current = transport;
+        if (current == null) {
+            return;
+        }
+        task.cancel();
+        // Wait for a running cycle so the transport is never used from two threads
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!cycleRunning.compareAndSet(false, true) && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(1_000_000L);
+        }
+        try {
+            publishOutbox(current);
+        } finally {
+            transport = null;
+            current.close();
+            cycleRunning.set(false);
+        }
+    }
+
+    /**
+     * Checks whether invalidations are being exchanged with other nodes.
+     *
+     * @return true if the bus was started
+     */
+    public boolean isRunning() {
+        return transport != null;
+    }
+
+    /**
+     * Returns the id of this node, attached to every invalidation it publishes.
+     *
+     * @return the node id
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Registers a listener for items of a topic changed by other nodes. Listeners are called off the main thread,
+     * with the changed key, or with null if every item of the topic may be stale.
+     *
+     * @param topic    the topic, such as {@code "bedrock-uuid"}
+     * @param listener drops or reloads the changed item
+     */
+    public void subscribe(String topic, Consumer<String> listener) {
+        subscribers.computeIfAbsent(topic, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Tells the other nodes that an item changed. Does nothing if the bus is not running.
+     *
+     * @param topic the topic of the item
+     * @param key   the key of the item within the topic
+     */
+    public void publish(String topic, String key) {
+        if (transport != null) {
+            outbox.add(new TopicKey(topic, key));
+        }
+    }
+
+    private void scheduleCycle() {
+        if (!cycleRunning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    InvalidationTransport current = transport;
+                    if (current != null) {
+                        publishOutbox(current);
+                        dispatch(current.poll());
+                    }
+                } finally {
+                    cycleRunning.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            cycleRunning.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Sends the collected invalidations. Keys published again while sending stay queued for the next cycle.
+     */
+    private void publishOutbox(InvalidationTransport current) {
+        if (outbox.isEmpty()) {
+            return;
+        }
+        List<TopicKey> drained = new ArrayList<>();
+        List<Invalidation> batch = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (TopicKey topicKey : outbox) {
+            if (outbox.remove(topicKey)) {
+                drained.add(topicKey);
+                batch.add(new Invalidation(nodeId, topicKey.topic, topicKey.key, now));
+            }
+        }
+        if (current.publish(batch)) {
+            published.add(batch.size());
+        } else {
+            outbox.addAll(drained);
+        }
+    }
+
+    private void dispatch(List<Invalidation> invalidations) {
+        long now = System.currentTimeMillis();
+        for (Invalidation invalidation : invalidations) {
+            if (nodeId.equals(invalidation.origin())) {
+                continue;
+            }
+            received.increment();
+            delays.record(TimeUnit.MILLISECONDS.toNanos(Math.max(0, now - invalidation.createdMillis())));
+            if (invalidation.isReset()) {
+                subscribers.values().forEach(listeners -> notify(listeners, null));
+            } else {
+                List<Consumer<String>> listeners = subscribers.get(invalidation.topic());
+                if (listeners != null) {
+                    notify(listeners, invalidation.key());
+                }
+            }
+        }
+    }
+
+    private void notify(List<Consumer<String>> listeners, String key) {
+        for (Consumer<String> listener : listeners) {
+            try {
+                listener.accept(key);
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "Error applying cache invalidation " + key, e);
+            }
+        }
+    }
+
+    private record TopicKey(String topic, String key) {
+    }
+}
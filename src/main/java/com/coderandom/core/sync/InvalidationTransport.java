@@ -0,0 +1,30 @@
+package com.coderandom.core.sync;
+
+import java.util.List;
+
+/**
+ * Carries invalidations between the nodes of a network for an {@link InvalidationBus}.
+ * The bus calls a transport from one thread at a time.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Sends invalidations to the other nodes.
+     *
+     * @param batch the invalidations to send
+     * @return true if they were sent, false if they should be retried
+     */
+    boolean publish(List<Invalidation> batch);
+
+    /**
+     * Returns the invalidations received since the last poll. Invalidations this node sent may be included.
+     *
+     * @return the received invalidations, in the order they were sent; empty if there are none or receiving failed
+     */
+    List<Invalidation> poll();
+
+    /**
+     * Releases any resources held by the transport.
+     */
+    void close();
+}
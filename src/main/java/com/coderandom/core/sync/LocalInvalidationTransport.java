@@ -0,0 +1,64 @@
+package com.coderandom.core.sync;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory transport connecting buses in the same JVM, for single-server setups and tests.
+ * Create one transport, then {@link #join()} it once for every other simulated node.
+ */
+public final class LocalInvalidationTransport implements InvalidationTransport {
+
+    private final List<LocalInvalidationTransport> network;
+    private final Queue<Invalidation> inbox = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a transport on a new network of its own.
+     */
+    public LocalInvalidationTransport() {
+        this(new CopyOnWriteArrayList<>());
+    }
+
+    private LocalInvalidationTransport(List<LocalInvalidationTransport> network) {
+        this.network = network;
+        network.add(this);
+    }
+
+    /**
+     * Creates another transport on the same network as this one.
+     *
+     * @return the new transport
+     */
+    public LocalInvalidationTransport join() {
+        return new LocalInvalidationTransport(network);
+    }
+
+    @Override
+    public boolean publish(List<Invalidation> batch) {
+        for (LocalInvalidationTransport node : network) {
+            if (node != this) {
+                node.inbox.addAll(batch);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public List<Invalidation> poll() {
+        List<Invalidation> received = new ArrayList<>();
+        Invalidation next;
+        while ((next = inbox.poll()) != null) {
+            received.add(next);
+        }
+        return received;
+    }
+
+    @Override
+    public void close() {
+        network.remove(this);
+        inbox.clear();
+    }
+}
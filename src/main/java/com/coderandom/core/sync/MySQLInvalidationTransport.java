@@ -0,0 +1,150 @@
+package com.coderandom.core.sync;
+
+import com.coderandom.core.MySQLManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Transport that appends invalidations to a shared MySQL change-log table and reads new rows with a cursor.
+ * <p>
+ * Auto-increment ids can become visible out of order when nodes insert concurrently, so rows after a missing id
+ * are delivered at once but the cursor only moves past the gap once it is filled or a few seconds old.
+ * Old rows are deleted after the retention time. If polling fails for longer than half of it, changes may have
+ * been missed and a reset is delivered once polling works again.
+ */
+public final class MySQLInvalidationTransport implements InvalidationTransport {
+
+    private static final String TABLE = "coderandom_invalidation";
+    private static final int BATCH_SIZE = 1000;
+    private static final long GAP_GRACE_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final long PURGE_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Logger LOGGER;
+    private final MySQLManager mySQLManager;
+    private final long retentionMillis;
+    private final TreeSet<Long> deliveredAhead = new TreeSet<>();
+    private long cursor;
+    private long gapSinceNanos;
+    private long lastPurgeNanos = System.nanoTime();
+    private long failingSinceNanos;
+
+    /**
+     * Creates the change-log table if needed and starts reading after its newest row.
+     *
+     * @param mySQLManager     the connected MySQL manager
+     * @param logger           the logger for failures
+     * @param retentionMinutes how long rows are kept
+     * @throws SQLException if the table cannot be read
+     */
+    public MySQLInvalidationTransport(MySQLManager mySQLManager, Logger logger, long retentionMinutes) throws SQLException {
+        this.LOGGER = logger;
+        this.mySQLManager = mySQLManager;
+        this.retentionMillis = TimeUnit.MINUTES.toMillis(Math.max(1, retentionMinutes));
+        mySQLManager.createTables("CREATE TABLE IF NOT EXISTS " + TABLE + " (" +
+                "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, " +
+                "origin CHAR(36) NOT NULL, " +
+                "topic VARCHAR(64) NULL, " +
+                "item_key VARCHAR(255) NULL, " +
+                "created_at BIGINT NOT NULL, " +
+                "INDEX idx_created_at (created_at))");
+        try (Connection connection = mySQLManager.getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT COALESCE(MAX(id), 0) FROM " + TABLE);
+             ResultSet rs = ps.executeQuery()) {
+            cursor = rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    @Override
+    public boolean publish(List<Invalidation> batch) {
+        Object[][] parameters = new Object[batch.size()][];
+        for (int i = 0; i < batch.size(); i++) {
+            Invalidation invalidation = batch.get(i);
+            parameters[i] = new Object[]{invalidation.origin(), invalidation.topic(), invalidation.key(), invalidation.createdMillis()};
+        }
+        try {
+            mySQLManager.executeBatchUpdate("INSERT INTO " + TABLE + " (origin, topic, item_key, created_at) VALUES (?, ?, ?, ?)", parameters);
+            return true;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Could not publish cache invalidations to MySQL!", e);
+            return false;
+        }
+    }
+
+    @Override
+    public List<Invalidation> poll() {
+        List<Invalidation> received = new ArrayList<>();
+        long now = System.nanoTime();
+        try (Connection connection = mySQLManager.getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT id, origin, topic, item_key, created_at FROM " + TABLE +
+                     " WHERE id > ? ORDER BY id LIMIT " + BATCH_SIZE)) {
+            ps.setLong(1, cursor);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (deliveredAhead.add(rs.getLong(1))) {
+                        received.add(new Invalidation(rs.getString(2), rs.getString(3), rs.getString(4), rs.getLong(5)));
+                    }
+                }
+            }
+            purgeIfDue(connection, now);
+        } catch (SQLException e) {
+            if (failingSinceNanos == 0) {
+                failingSinceNanos = now;
+                LOGGER.log(Level.SEVERE, "Could not read cache invalidations from MySQL!", e);
+            }
+            return received;
+        }
+        if (failingSinceNanos != 0) {
+            if (TimeUnit.NANOSECONDS.toMillis(now - failingSinceNanos) > retentionMillis / 2) {
+                received.add(Invalidation.reset(""));
+            }
+            failingSinceNanos = 0;
+            LOGGER.info("Reading cache invalidations from MySQL again.");
+        }
+        advanceCursor(now);
+        return received;
+    }
+
+    /**
+     * Moves the cursor over delivered rows, and over a missing id once it has been missing for too long.
+     */
+    private void advanceCursor(long now) {
+        while (!deliveredAhead.isEmpty() && deliveredAhead.first() == cursor + 1) {
+            cursor = deliveredAhead.pollFirst();
+        }
+        if (deliveredAhead.isEmpty()) {
+            gapSinceNanos = 0;
+        } else if (gapSinceNanos == 0) {
+            gapSinceNanos = now;
+        } else if (now - gapSinceNanos > GAP_GRACE_NANOS) {
+            // The missing ids belong to rolled back or failed inserts
+            cursor = deliveredAhead.first() - 1;
+            gapSinceNanos = 0;
+            advanceCursor(now);
+        }
+    }
+
+    private void purgeIfDue(Connection connection, long now) throws SQLException {
+        if (now - lastPurgeNanos < PURGE_INTERVAL_NANOS) {
+            return;
+        }
+        lastPurgeNanos = now;
+        try (PreparedStatement ps = connection.prepareStatement("DELETE FROM " + TABLE + " WHERE created_at < ? LIMIT 10000")) {
+            ps.setLong(1, System.currentTimeMillis() - retentionMillis);
+            ps.executeUpdate();
+        }
+    }
+
+    @Override
+    public void close() {
+        // The connection pool is owned and closed by CodeRandomCore.
+    }
+}
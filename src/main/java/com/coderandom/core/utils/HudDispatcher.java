@@ -0,0 +1,252 @@
+package com.coderandom.core.utils;
+
+import com.coderandom.core.CodeRandomCore;
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.IllegalPluginAccessException;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Singleton that delivers action bars and titles from a single main-thread task.
+ * Requests can be made from any thread. Each player has at most one action bar and one title;
+ * a request only replaces the current one if its priority is at least as high, identical
+ * consecutive messages are not resent, and action bars are refreshed while they should stay visible.
+ */
+public final class HudDispatcher {
+
+    /**
+     * The priority of a HUD message. A message is ignored while one with a higher priority is showing.
+     */
+    public enum Priority {
+        LOW,
+        NORMAL,
+        HIGH,
+        CRITICAL
+    }
+
+    /**
+     * How often a staying action bar is resent; the client fades it out after about three seconds.
+     */
+    private static final int ACTION_BAR_REFRESH_TICKS = 40;
+
+    private static volatile HudDispatcher instance;
+
+    private final Queue<Request> inbox = new ConcurrentLinkedQueue<>();
+    private final Map<UUID, HudState> states = new HashMap<>();
+    private volatile BukkitTask task;
+    private long tick;
+
+    private HudDispatcher() {
+    }
+
+    /**
+     * Returns the singleton instance of HudDispatcher.
+     *
+     * @return the HudDispatcher instance
+     */
+    public static HudDispatcher getInstance() {
+        if (instance == null) {
+            synchronized (HudDispatcher.class) {
+                if (instance == null) {
+                    instance = new HudDispatcher();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Stops the dispatcher task and forgets all pending messages. Called when the plugin is disabled.
+     */
+    public static void shutdown() {
+        HudDispatcher current = instance;
+        if (current == null) {
+            return;
+        }
+        synchronized (current) {
+            if (current.task != null) {
+                current.task.cancel();
+                current.task = null;
+            }
+            current.inbox.clear();
+            current.states.clear();
+        }
+    }
+
+    /**
+     * Shows an action bar to a player.
+     *
+     * @param player     the player to show the action bar to
+     * @param message    the message to show
+     * @param stayTicks  how long the message should stay visible, or 0 to send it once
+     * @param priority   the priority of the message
+     */
+    public void actionBar(Player player, String message, int stayTicks, Priority priority) {
+        submit(new Request(player, false, message, null, 0, stayTicks, 0, priority));
+    }
+
+    /**
+     * Shows a title to a player.
+     *
+     * @param player   the player to show the title to
+     * @param title    the title text
+     * @param subTitle the subtitle text
+     * @param fadeIn   the fade-in duration in ticks
+     * @param stay     the stay duration in ticks
+     * @param fadeOut  the fade-out duration in ticks
+     * @param priority the priority of the title
+     */
+    public void title(Player player, String title, String subTitle, int fadeIn, int stay, int fadeOut, Priority priority) {
+        submit(new Request(player, true, title, subTitle, fadeIn, stay, fadeOut, priority));
+    }
+
+    /**
+     * Returns the number of players with an action bar or title currently tracked.
+     * Must be called on the main thread.
+     *
+     * @return the number of tracked players
+     */
+    public int activeCount() {
+        return states.size();
+    }
+
+    private void submit(Request request) {
+        inbox.add(request);
+        if (task == null) {
+            start();
+        }
+    }
+
+    private synchronized void start() {
+        if (task != null) {
+            return;
+        }
+        try {
+            task = Bukkit.getScheduler().runTaskTimer(CodeRandomCore.getInstance(), this::tick, 0L, 1L);
+        } catch (IllegalPluginAccessException e) {
+            // The plugin is disabled, so nothing can be shown anymore
+            inbox.clear();
+        }
+    }
+
+    /**
+     * Applies new requests, then sends whatever changed or needs refreshing.
+     */
+    private void tick() {
+        tick++;
+        Request request;
+        while ((request = inbox.poll()) != null) {
+            apply(request);
+        }
+        Iterator<HudState> iterator = states.values().iterator();
+        while (iterator.hasNext()) {
+            HudState state = iterator.next();
+            if (!state.player.isOnline()) {
+                iterator.remove();
+                continue;
+            }
+            if (state.actionBar != null) {
+                if (state.actionBarSentTick < 0 || tick - state.actionBarSentTick >= ACTION_BAR_REFRESH_TICKS) {
+                    state.player.spigot().sendMessage(ChatMessageType.ACTION_BAR, new TextComponent(state.actionBar));
+                    state.actionBarSentTick = tick;
+                }
+                if (tick >= state.actionBarExpiresTick) {
+                    state.actionBar = null;
+                }
+            }
+            if (state.title != null && !state.titleSent) {
+                state.player.sendTitle(state.title, state.subTitle, state.fadeIn, state.stay, state.fadeOut);
+                state.titleSent = true;
+            }
+            if (state.title != null && tick >= state.titleExpiresTick) {
+                state.title = null;
+            }
+            if (state.actionBar == null && state.title == null) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void apply(Request request) {
+        HudState state = states.computeIfAbsent(request.player.getUniqueId(), uuid -> new HudState(request.player));
+        state.player = request.player;
+        if (request.title) {
+            long expires = tick + request.fadeIn + request.stay + request.fadeOut;
+            if (state.title != null && request.priority.compareTo(state.titlePriority) < 0) {
+                return;
+            }
+            boolean same = state.title != null && state.title.equals(request.text)
+                    && Objects.equals(state.subTitle, request.subTitle);
+            if (!same) {
+                state.title = request.text;
+                state.subTitle = request.subTitle;
+                state.fadeIn = request.fadeIn;
+                state.stay = request.stay;
+                state.fadeOut = request.fadeOut;
+                state.titleSent = false;
+                state.titleExpiresTick = expires;
+            } else if (expires > state.titleExpiresTick) {
+                // The client hides a title after the times it was sent with, so a longer stay is sent again;
+                // a title already showing keeps showing instead of fading in again
+                state.fadeIn = state.titleSent ? 0 : request.fadeIn;
+                state.stay = state.titleSent ? request.fadeIn + request.stay : request.stay;
+                state.fadeOut = request.fadeOut;
+                state.titleSent = false;
+                state.titleExpiresTick = expires;
+            }
+            state.titlePriority = request.priority;
+        } else {
+            long expires = tick + Math.max(1, request.stay);
+            if (state.actionBar != null && request.priority.compareTo(state.actionBarPriority) < 0) {
+                return;
+            }
+            if (!request.text.equals(state.actionBar)) {
+                state.actionBar = request.text;
+                state.actionBarSentTick = -1;
+                state.actionBarExpiresTick = expires;
+            } else {
+                state.actionBarExpiresTick = Math.max(state.actionBarExpiresTick, expires);
+            }
+            state.actionBarPriority = request.priority;
+        }
+    }
+
+    private record Request(Player player, boolean title, String text, String subTitle,
+                           int fadeIn, int stay, int fadeOut, Priority priority) {
+    }
+
+    /**
+     * What is currently shown to one player. Only touched on the main thread.
+     */
+    private static final class HudState {
+        private Player player;
+
+        private String actionBar;
+        private Priority actionBarPriority;
+        private long actionBarSentTick;
+        private long actionBarExpiresTick;
+
+        private String title;
+        private String subTitle;
+        private int fadeIn;
+        private int stay;
+        private int fadeOut;
+        private Priority titlePriority;
+        private boolean titleSent;
+        private long titleExpiresTick;
+
+        private HudState(Player player) {
+            this.player = player;
+        }
+    }
+}
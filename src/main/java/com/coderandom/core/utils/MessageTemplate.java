@@ -0,0 +1,206 @@
+package com.coderandom.core.utils;
+
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A message compiled once into pre-colored segments with named placeholders, such as
+ * {@code "{player} paid you ${amount}."}. Formatting only colors the placeholder values,
+ * so frequently sent messages avoid re-scanning their static text.
+ * <p>
+ * The output is identical to {@link MessageUtils#formattedMessage(CommandSender, String)} or
+ * {@link MessageUtils#formattedErrorMessage(CommandSender, String)} on the filled-in message.
+ */
+public final class MessageTemplate {
+
+    static final String GREEN = ChatColor.GREEN.toString();
+    static final String RED = ChatColor.RED.toString();
+    private static final String DARK_PURPLE = ChatColor.DARK_PURPLE.toString();
+    private static final boolean[] ASCII_SPECIAL = new boolean[128];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            ASCII_SPECIAL[c] = !Character.isLetterOrDigit(c) && !Character.isWhitespace(c);
+        }
+    }
+
+    private final String base;
+    private final String[] literals;
+    private final int[] slots;
+    private final List<String> placeholders;
+    private final int literalLength;
+
+    private MessageTemplate(String base, String[] literals, int[] slots, List<String> placeholders) {
+        this.base = base;
+        this.literals = literals;
+        this.slots = slots;
+        this.placeholders = placeholders;
+        int length = base.length();
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compiles a message in the regular (green) style.
+     *
+     * @param pattern the message, with placeholders written as {@code {name}}
+     * @return the compiled template
+     */
+    public static MessageTemplate compile(String pattern) {
+        return compile(pattern, GREEN);
+    }
+
+    /**
+     * Compiles a message in the error (red) style.
+     *
+     * @param pattern the message, with placeholders written as {@code {name}}
+     * @return the compiled template
+     */
+    public static MessageTemplate compileError(String pattern) {
+        return compile(pattern, RED);
+    }
+
+    private static MessageTemplate compile(String pattern, String base) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        StringBuilder literal = new StringBuilder(pattern.length() * 2);
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            int end = c == '{' ? placeholderEnd(pattern, i) : -1;
+            if (end < 0) {
+                appendColored(literal, c, base);
+                i++;
+                continue;
+            }
+            String name = pattern.substring(i + 1, end);
+            int slot = placeholders.indexOf(name);
+            if (slot < 0) {
+                slot = placeholders.size();
+                placeholders.add(name);
+            }
+            literals.add(literal.toString());
+            literal.setLength(0);
+            slots.add(slot);
+            i = end + 1;
+        }
+        literals.add(literal.toString());
+        int[] slotArray = new int[slots.size()];
+        for (int s = 0; s < slotArray.length; s++) {
+            slotArray[s] = slots.get(s);
+        }
+        return new MessageTemplate(base, literals.toArray(new String[0]), slotArray,
+                Collections.unmodifiableList(placeholders));
+    }
+
+    /**
+     * Returns the index of the closing brace of a placeholder starting at {@code start},
+     * or -1 if the brace does not start a placeholder.
+     */
+    private static int placeholderEnd(String pattern, int start) {
+        for (int i = start + 1; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '}') {
+                return i > start + 1 ? i : -1;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '.') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the placeholder names, in the order their values are passed to {@link #format(Object...)}.
+     *
+     * @return the distinct placeholder names in order of first appearance
+     */
+    public List<String> getPlaceholders() {
+        return placeholders;
+    }
+
+    /**
+     * Fills in the placeholders.
+     *
+     * @param values one value per distinct placeholder, in order of first appearance
+     * @return the formatted message
+     * @throws IllegalArgumentException if the number of values does not match the placeholders
+     */
+    public String format(Object... values) {
+        if (values.length != placeholders.size()) {
+            throw new IllegalArgumentException("Expected " + placeholders.size() + " values for " + placeholders + " but got " + values.length);
+        }
+        StringBuilder message = new StringBuilder(literalLength + slots.length * 24);
+        message.append(base).append(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            appendColored(message, String.valueOf(values[slots[i]]), base);
+            message.append(literals[i + 1]);
+        }
+        return message.toString();
+    }
+
+    /**
+     * Fills in the placeholders by name. Placeholders without a value are left as written.
+     *
+     * @param values the placeholder values keyed by name
+     * @return the formatted message
+     */
+    public String format(Map<String, ?> values) {
+        Object[] ordered = new Object[placeholders.size()];
+        for (int i = 0; i < ordered.length; i++) {
+            String name = placeholders.get(i);
+            ordered[i] = values.containsKey(name) ? values.get(name) : '{' + name + '}';
+        }
+        return format(ordered);
+    }
+
+    /**
+     * Fills in the placeholders and sends the message.
+     *
+     * @param recipient the recipient of the message
+     * @param values    one value per distinct placeholder, in order of first appearance
+     */
+    public void send(CommandSender recipient, Object... values) {
+        recipient.sendMessage(format(values));
+    }
+
+    /**
+     * Formats a whole message in the given style without compiling it.
+     *
+     * @param message the message to format
+     * @param base    the base color code
+     * @return the formatted message
+     */
+    static String formatPlain(CharSequence message, String base) {
+        StringBuilder formatted = new StringBuilder(message.length() + (message.length() >> 1) + base.length());
+        formatted.append(base);
+        appendColored(formatted, message, base);
+        return formatted.toString();
+    }
+
+    /**
+     * Appends text, highlighting every character that is neither a letter, a digit nor whitespace.
+     */
+    private static void appendColored(StringBuilder target, CharSequence text, String base) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            appendColored(target, text.charAt(i), base);
+        }
+    }
+
+    private static void appendColored(StringBuilder target, char c, String base) {
+        if (c < 128 ? ASCII_SPECIAL[c] : !Character.isLetterOrDigit(c) && !Character.isWhitespace(c)) {
+            target.append(DARK_PURPLE).append(c).append(base);
+        } else {
+            target.append(c);
+        }
+    }
+}
@@ -1,13 +1,29 @@
 package com.coderandom.core.utils;
 
-import org.bukkit.ChatColor;
+import com.coderandom.core.CodeRandomCore;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.IllegalPluginAccessException;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
 
 /**
  * Utility class for sending formatted messages to command senders.
+ * Recently formatted messages are cached; use {@link MessageTemplate} for messages with variable parts.
  */
 public final class MessageUtils {
 
+    private static final FormatCache MESSAGE_CACHE = new FormatCache(MessageTemplate.GREEN);
+    private static final FormatCache ERROR_CACHE = new FormatCache(MessageTemplate.RED);
+    private static final long BROADCAST_TICK_BUDGET_NANOS = 1_000_000L;
+
     private MessageUtils() {
         throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
     }
@@ -53,6 +69,93 @@ public final class MessageUtils {
         recipient.sendMessage(formatWithBorder(lines));
     }
 
+    /**
+     * Sends a formatted message to every recipient. The message is formatted once; large
+     * audiences are spread over several ticks so a single tick never spends more than about
+     * a millisecond sending.
+     *
+     * @param recipients the recipients of the message
+     * @param message    the message to send
+     * @return a future completed with the number of recipients reached
+     */
+    public static CompletableFuture<Integer> broadcast(Collection<? extends CommandSender> recipients, String message) {
+        return broadcastFormatted(recipients, formatMessage(message));
+    }
+
+    /**
+     * Sends a formatted error message to every recipient, formatting it once.
+     *
+     * @param recipients the recipients of the message
+     * @param message    the error message to send
+     * @return a future completed with the number of recipients reached
+     */
+    public static CompletableFuture<Integer> broadcastError(Collection<? extends CommandSender> recipients, String message) {
+        return broadcastFormatted(recipients, formatErrorMessage(message));
+    }
+
+    /**
+     * Sends a formatted message to every online player matching the filter, such as
+     * {@link #withPermission(String)}, {@link #inWorld(World)} or {@link #withinRadius(Location, double)}.
+     * The filter is evaluated on the main thread.
+     *
+     * @param filter  the players to send the message to
+     * @param message the message to send
+     * @return a future completed with the number of players reached
+     */
+    public static CompletableFuture<Integer> broadcast(Predicate<? super Player> filter, String message) {
+        BroadcastTask task = new BroadcastTask(null, filter, formatMessage(message));
+        task.start();
+        return task.result;
+    }
+
+    /**
+     * Sends an already formatted message, such as the output of a {@link MessageTemplate}, to every recipient.
+     *
+     * @param recipients the recipients of the message
+     * @param formatted  the message to send as is
+     * @return a future completed with the number of recipients reached
+     */
+    public static CompletableFuture<Integer> broadcastFormatted(Collection<? extends CommandSender> recipients, String formatted) {
+        BroadcastTask task = new BroadcastTask(recipients.toArray(new CommandSender[0]), null, formatted);
+        task.start();
+        return task.result;
+    }
+
+    /**
+     * Matches players with a permission.
+     *
+     * @param permission the required permission
+     * @return the filter
+     */
+    public static Predicate<Player> withPermission(String permission) {
+        return player -> player.hasPermission(permission);
+    }
+
+    /**
+     * Matches players in a world.
+     *
+     * @param world the world
+     * @return the filter
+     */
+    public static Predicate<Player> inWorld(World world) {
+        return player -> player.getWorld().equals(world);
+    }
+
+    /**
+     * Matches players within a distance of a location, in the same world.
+     *
+     * @param center the center of the area
+     * @param radius the maximum distance in blocks
+     * @return the filter
+     */
+    public static Predicate<Player> withinRadius(Location center, double radius) {
+        double radiusSquared = radius * radius;
+        return player -> {
+            Location location = player.getLocation();
+            return location.getWorld().equals(center.getWorld()) && location.distanceSquared(center) <= radiusSquared;
+        };
+    }
+
     /**
      * Formats a message with a border.
      *
@@ -97,11 +200,12 @@ public final class MessageUtils {
         // Format and add the title
         message.append("========[ ").append(title).append(" ]========").append("\n");
         int titleLength = message.length();
-        int spaceCount = 0;
 
-        // Count spaces in the title
-        for (char c : message.toString().toCharArray()) {
-            if (Character.isWhitespace(c) || c == "'".toCharArray()[0]) {
+        // Count spaces in the title, including the two around it and the newline
+        int spaceCount = 3;
+        for (int i = 0; i < title.length(); i++) {
+            char c = title.charAt(i);
+            if (Character.isWhitespace(c) || c == '\'') {
                 spaceCount++;
             }
         }
@@ -128,23 +232,7 @@ public final class MessageUtils {
      * @return the formatted message
      */
     private static String formatMessage(String message) {
-        StringBuilder formattedMessage = new StringBuilder(message.length() * 2); // Pre-allocate enough space
-
-        // Append initial green color code
-        formattedMessage.append(ChatColor.GREEN);
-
-        // Iterate through each character in the message
-        for (char c : message.toCharArray()) {
-            if (!Character.isLetterOrDigit(c) && !Character.isWhitespace(c)) {
-                // Append the dark purple color code and the special character
-                formattedMessage.append(ChatColor.DARK_PURPLE).append(c).append(ChatColor.GREEN);
-            } else {
-                // Append the regular character
-                formattedMessage.append(c);
-            }
-        }
-
-        return formattedMessage.toString();
+        return MESSAGE_CACHE.format(message);
     }
 
     /**
@@ -154,22 +242,103 @@ public final class MessageUtils {
      * @return the formatted error message
      */
     private static String formatErrorMessage(String message) {
-        StringBuilder formattedMessage = new StringBuilder(message.length() * 2); // Pre-allocate enough space
-
-        // Append initial red color code
-        formattedMessage.append(ChatColor.RED);
-
-        // Iterate through each character in the message
-        for (char c : message.toCharArray()) {
-            if (!Character.isLetterOrDigit(c) && !Character.isWhitespace(c)) {
-                // Append the dark purple color code and the special character
-                formattedMessage.append(ChatColor.DARK_PURPLE).append(c).append(ChatColor.RED);
-            } else {
-                // Append the regular character
-                formattedMessage.append(c);
+        return ERROR_CACHE.format(message);
+    }
+
+    /**
+     * Fixed-size, direct-mapped cache of formatted messages. A colliding message simply
+     * replaces the previous one, so lookups never lock and the cache never grows.
+     */
+    private static final class FormatCache {
+        private static final int SIZE = 512;
+        private static final int MAX_CACHED_LENGTH = 256;
+
+        private final String base;
+        private final AtomicReferenceArray<String[]> entries = new AtomicReferenceArray<>(SIZE);
+
+        private FormatCache(String base) {
+            this.base = base;
+        }
+
+        private String format(String message) {
+            if (message.length() > MAX_CACHED_LENGTH) {
+                return MessageTemplate.formatPlain(message, base);
+            }
+            int hash = message.hashCode();
+            int slot = (hash ^ (hash >>> 16)) & (SIZE - 1);
+            String[] entry = entries.get(slot);
+            if (entry != null && entry[0].equals(message)) {
+                return entry[1];
+            }
+            String formatted = MessageTemplate.formatPlain(message, base);
+            entries.set(slot, new String[]{message, formatted});
+            return formatted;
+        }
+    }
+
+    /**
+     * Sends one formatted message to a list of recipients on the main thread, continuing
+     * on the next tick whenever the per-tick budget runs out.
+     */
+    private static final class BroadcastTask extends BukkitRunnable {
+        private final Predicate<? super Player> filter;
+        private final String formatted;
+        private final CompletableFuture<Integer> result = new CompletableFuture<>();
+        private CommandSender[] recipients;
+        private int next;
+        private int delivered;
+
+        private BroadcastTask(CommandSender[] recipients, Predicate<? super Player> filter, String formatted) {
+            this.recipients = recipients;
+            this.filter = filter;
+            this.formatted = formatted;
+        }
+
+        private void start() {
+            if (Bukkit.isPrimaryThread()) {
+                run();
+                if (result.isDone()) {
+                    return;
+                }
+            }
+            try {
+                runTaskTimer(CodeRandomCore.getInstance(), Bukkit.isPrimaryThread() ? 1L : 0L, 1L);
+            } catch (IllegalPluginAccessException e) {
+                // The plugin is disabled, so the remaining recipients are skipped
+                result.complete(delivered);
             }
         }
 
-        return formattedMessage.toString();
+        @Override
+        public void run() {
+            if (result.isDone()) {
+                // The first run finished before the task id was assigned
+                cancel();
+                return;
+            }
+            if (recipients == null) {
+                recipients = Bukkit.getOnlinePlayers().toArray(new CommandSender[0]);
+            }
+            long deadline = System.nanoTime() + BROADCAST_TICK_BUDGET_NANOS;
+            while (next < recipients.length) {
+                CommandSender recipient = recipients[next++];
+                if (recipient instanceof Player player) {
+                    if (!player.isOnline() || (filter != null && !filter.test(player))) {
+                        continue;
+                    }
+                }
+                recipient.sendMessage(formatted);
+                delivered++;
+                if ((delivered & 15) == 0 && System.nanoTime() > deadline) {
+                    return;
+                }
+            }
+            result.complete(delivered);
+            try {
+                cancel();
+            } catch (IllegalStateException e) {
+                // Finished before being scheduled, or before the task id was assigned
+            }
+        }
     }
 }
@@ -1,11 +1,10 @@
 package com.coderandom.core.utils;
 
-import com.coderandom.core.CodeRandomCore;
-import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
 /**
  * Utility class for sending titles to players.
+ * Titles are delivered by the {@link HudDispatcher}.
  */
 public final class TitleUtils {
 
@@ -58,8 +57,23 @@ public final class TitleUtils {
      * @param fadeOut  the fade-out duration in ticks
      */
     public static void title(Player player, String title, String subTitle, int fadeIn, int stay, int fadeOut) {
-        Bukkit.getScheduler().runTask(CodeRandomCore.getInstance(), () ->
-                player.sendTitle(title, subTitle, fadeIn, stay, fadeOut)
-        );
+        title(player, title, subTitle, fadeIn, stay, fadeOut, HudDispatcher.Priority.NORMAL);
+    }
+
+    /**
+     * Sends a title and subtitle to a player with specified timings. The title is ignored
+     * while a title with a higher priority is showing.
+     *
+     * @param player   the player to send the title to
+     * @param title    the title text
+     * @param subTitle the subtitle text
+     * @param fadeIn   the fade-in duration in ticks
+     * @param stay     the stay duration in ticks
+     * @param fadeOut  the fade-out duration in ticks
+     * @param priority the priority of the title
+     */
+    public static void title(Player player, String title, String subTitle, int fadeIn, int stay, int fadeOut,
+                             HudDispatcher.Priority priority) {
+        HudDispatcher.getInstance().title(player, title, subTitle, fadeIn, stay, fadeOut, priority);
     }
 }
@@ -0,0 +1,263 @@
+package com.coderandom.core.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+
+/**
+ * Allocation-light utility class for encoding, decoding and hashing UUIDs.
+ * Avoids regular expressions, intermediate strings and per-call digest lookups.
+ */
+public final class UuidCodec {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final byte[] OFFLINE_PREFIX = "OfflinePlayer:".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FLOODGATE_PREFIX = "Floodgate:".getBytes(StandardCharsets.UTF_8);
+
+    private static final ThreadLocal<DigestState> DIGEST = ThreadLocal.withInitial(DigestState::new);
+
+    private UuidCodec() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Parses a UUID in either the dashless (32 characters, as returned by Mojang)
+     * or the standard dashed (36 characters) form.
+     *
+     * @param input the string to parse
+     * @return the parsed UUID, or null if the input is not a valid UUID
+     */
+    public static UUID parse(CharSequence input) {
+        if (input == null) {
+            return null;
+        }
+        if (input.length() == 32) {
+            return parseDashless(input);
+        }
+        if (input.length() != 36 || input.charAt(8) != '-' || input.charAt(13) != '-'
+                || input.charAt(18) != '-' || input.charAt(23) != '-') {
+            return null;
+        }
+        long msb = parseHex(input, 0, 8);
+        long mid = parseHex(input, 9, 13);
+        long hi = parseHex(input, 14, 18);
+        long lo = parseHex(input, 19, 23);
+        long node = parseHex(input, 24, 36);
+        if ((msb | mid | hi | lo | node) < 0) {
+            return null;
+        }
+        return new UUID((msb << 32) | (mid << 16) | hi, (lo << 48) | node);
+    }
+
+    /**
+     * Parses a dashless UUID such as {@code 069a79f444e94726a5befca90e38aaf5}.
+     *
+     * @param input the 32 character hexadecimal string
+     * @return the parsed UUID, or null if the input is not a valid dashless UUID
+     */
+    public static UUID parseDashless(CharSequence input) {
+        if (input == null || input.length() != 32) {
+            return null;
+        }
+        long msbHigh = parseHex(input, 0, 8);
+        long msbLow = parseHex(input, 8, 16);
+        long lsbHigh = parseHex(input, 16, 24);
+        long lsbLow = parseHex(input, 24, 32);
+        if ((msbHigh | msbLow | lsbHigh | lsbLow) < 0) {
+            return null;
+        }
+        return new UUID((msbHigh << 32) | msbLow, (lsbHigh << 32) | lsbLow);
+    }
+
+    /**
+     * Formats a UUID without dashes, as used by the Mojang API.
+     *
+     * @param uuid the UUID to format
+     * @return the 32 character lowercase hexadecimal representation
+     */
+    public static String toDashless(UUID uuid) {
+        char[] chars = new char[32];
+        writeHex(chars, 0, uuid.getMostSignificantBits());
+        writeHex(chars, 16, uuid.getLeastSignificantBits());
+        return new String(chars);
+    }
+
+    /**
+     * Converts a UUID to its compact 16 byte big-endian representation.
+     *
+     * @param uuid the UUID to convert
+     * @return a new 16 byte array
+     */
+    public static byte[] toBytes(UUID uuid) {
+        byte[] bytes = new byte[16];
+        toBytes(uuid, bytes, 0);
+        return bytes;
+    }
+
+    /**
+     * Writes a UUID as 16 big-endian bytes into an existing array.
+     *
+     * @param uuid   the UUID to write
+     * @param dest   the destination array
+     * @param offset the offset to start writing at
+     */
+    public static void toBytes(UUID uuid, byte[] dest, int offset) {
+        writeLong(dest, offset, uuid.getMostSignificantBits());
+        writeLong(dest, offset + 8, uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Reads a UUID from its 16 byte big-endian representation.
+     *
+     * @param bytes the 16 byte array
+     * @return the UUID
+     * @throws IllegalArgumentException if the array is not 16 bytes long
+     */
+    public static UUID fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != 16) {
+            throw new IllegalArgumentException("A binary UUID must be exactly 16 bytes long.");
+        }
+        return fromBytes(bytes, 0);
+    }
+
+    /**
+     * Reads a UUID from 16 big-endian bytes in an existing array.
+     *
+     * @param bytes  the source array
+     * @param offset the offset to start reading at
+     * @return the UUID
+     */
+    public static UUID fromBytes(byte[] bytes, int offset) {
+        return new UUID(readLong(bytes, offset), readLong(bytes, offset + 8));
+    }
+
+    /**
+     * Generates the offline-mode UUID for a player name, identical to the one the server assigns.
+     *
+     * @param playerName the name of the player
+     * @return the version 3 UUID for {@code "OfflinePlayer:" + playerName}
+     */
+    public static UUID offlineUUID(String playerName) {
+        return nameUUID(OFFLINE_PREFIX, playerName);
+    }
+
+    /**
+     * Generates the UUID Floodgate derives for a Bedrock player name.
+     *
+     * @param playerName the name of the player
+     * @return the version 3 UUID for {@code "Floodgate:" + playerName}
+     */
+    public static UUID floodgateUUID(String playerName) {
+        return nameUUID(FLOODGATE_PREFIX, playerName);
+    }
+
+    /**
+     * Generates a version 3 (MD5, name based) UUID for a prefix followed by a UTF-8 encoded name.
+     * Produces the same result as {@link UUID#nameUUIDFromBytes(byte[])} on the concatenated bytes,
+     * but reuses a per-thread digest and scratch buffers.
+     *
+     * @param prefix the already encoded prefix bytes
+     * @param name   the name to append to the prefix
+     * @return the generated UUID
+     */
+    private static UUID nameUUID(byte[] prefix, String name) {
+        DigestState state = DIGEST.get();
+        MessageDigest md = state.digest;
+        md.reset();
+        md.update(prefix);
+        updateUtf8(state, name);
+        byte[] hash = state.hash;
+        try {
+            md.digest(hash, 0, 16);
+        } catch (DigestException e) {
+            throw new IllegalStateException("MD5 digest failed", e);
+        }
+        long msb = readLong(hash, 0);
+        long lsb = readLong(hash, 8);
+        msb = (msb & 0xFFFFFFFFFFFF0FFFL) | 0x0000000000003000L; // set the version to 3
+        lsb = (lsb & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L; // set the variant to 2
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Feeds the UTF-8 encoding of a string into the digest, copying ASCII names
+     * through the scratch buffer without allocating.
+     */
+    private static void updateUtf8(DigestState state, String name) {
+        int length = name.length();
+        byte[] scratch = state.scratch;
+        if (length <= scratch.length) {
+            for (int i = 0; i < length; i++) {
+                char c = name.charAt(i);
+                if (c >= 0x80) {
+                    state.digest.update(name.getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+                scratch[i] = (byte) c;
+            }
+            state.digest.update(scratch, 0, length);
+        } else {
+            state.digest.update(name.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static long parseHex(CharSequence input, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (c >= 'a' && c <= 'f') {
+                digit = c - 'a' + 10;
+            } else if (c >= 'A' && c <= 'F') {
+                digit = c - 'A' + 10;
+            } else {
+                return -1;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private static void writeHex(char[] dest, int offset, long value) {
+        for (int i = 15; i >= 0; i--) {
+            dest[offset + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    private static void writeLong(byte[] dest, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            dest[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static long readLong(byte[] src, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (src[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * Per-thread MD5 digest with reusable output and input buffers.
+     */
+    private static final class DigestState {
+        private final MessageDigest digest;
+        private final byte[] hash = new byte[16];
+        private final byte[] scratch = new byte[64];
+
+        private DigestState() {
+            try {
+                digest = MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("MD5 is not available on this JVM", e);
+            }
+        }
+    }
+}
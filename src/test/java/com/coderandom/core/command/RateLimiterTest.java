@@ -0,0 +1,93 @@
+package com.coderandom.core.command;
+
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the GCRA decisions of {@link RateLimiter} and that its time wheel reclaims expired keys.
+ */
+public class RateLimiterTest {
+
+    @Test
+    public void tokenBucketAllowsBurstThenOnePerInterval() {
+        RateLimiter limiter = new RateLimiter(RateLimit.tokenBucket(3, 1, TimeUnit.HOURS));
+        long interval = TimeUnit.HOURS.toNanos(1);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire(2L));
+        }
+        long wait = limiter.tryAcquire(2L);
+        assertTrue(wait > interval - TimeUnit.MINUTES.toNanos(1) && wait <= interval);
+        // A refused use does not push the next allowed use further out
+        assertTrue(limiter.tryAcquire(2L) <= wait);
+        // Other keys are independent
+        assertEquals(0, limiter.tryAcquire(3L));
+    }
+
+    @Test
+    public void cooldownAllowsOneUse() {
+        RateLimiter limiter = new RateLimiter(RateLimit.cooldown(10, TimeUnit.MINUTES));
+        UUID player = UUID.randomUUID();
+
+        assertEquals(0, limiter.remaining(player));
+        assertEquals(0, limiter.tryAcquire(player));
+        long remaining = limiter.remaining(player);
+        assertTrue(remaining > 0 && remaining <= TimeUnit.MINUTES.toNanos(10));
+        assertTrue(limiter.tryAcquire(player) > 0);
+        assertEquals(0, limiter.tryAcquire(UUID.randomUUID()));
+    }
+
+    @Test
+    public void usesAreAllowedAgainAfterTheInterval() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(RateLimit.cooldown(20, TimeUnit.MILLISECONDS));
+
+        assertEquals(0, limiter.tryAcquire(2L));
+        assertTrue(limiter.tryAcquire(2L) > 0);
+        Thread.sleep(40);
+        assertEquals(0, limiter.tryAcquire(2L));
+    }
+
+    @Test
+    public void timeWheelReclaimsExpiredKeys() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(RateLimit.cooldown(10, TimeUnit.MILLISECONDS));
+        for (long key = 2; key < 1002; key++) {
+            assertEquals(0, limiter.tryAcquire(key));
+        }
+        assertEquals(1000, limiter.size());
+
+        // Expired keys are reclaimed when a later call advances the wheel past their slot
+        Thread.sleep(250);
+        assertEquals(0, limiter.tryAcquire(5000L));
+        assertEquals(1, limiter.size());
+        assertEquals(0, limiter.tryAcquire(2L));
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    public void rebuildKeepsLiveKeys() {
+        RateLimiter limiter = new RateLimiter(RateLimit.cooldown(1, TimeUnit.HOURS));
+        for (long key = 2; key < 10_002; key++) {
+            assertEquals(0, limiter.tryAcquire(key));
+        }
+        assertEquals(10_000, limiter.size());
+        for (long key = 2; key < 10_002; key++) {
+            assertTrue(limiter.tryAcquire(key) > 0);
+        }
+
+        limiter.clear();
+        assertEquals(0, limiter.size());
+        assertEquals(0, limiter.tryAcquire(2L));
+    }
+
+    @Test
+    public void rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> RateLimit.cooldown(0, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class, () -> RateLimit.tokenBucket(0, 1, TimeUnit.SECONDS));
+    }
+}
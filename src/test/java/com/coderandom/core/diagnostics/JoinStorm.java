@@ -0,0 +1,356 @@
+package com.coderandom.core.diagnostics;
+
+import com.coderandom.core.CodeRandomCore;
+import com.coderandom.core.listener.HandlerStats;
+import com.coderandom.core.listener.ObserverLanes;
+import com.coderandom.core.metrics.LatencyHistogram;
+import com.coderandom.core.scheduler.ManagedExecutor;
+import com.coderandom.core.utils.UuidCodec;
+import org.bukkit.command.CommandSender;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.RegisteredListener;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Synthetic join storm against a MockBukkit server running the core plugin.
+ * <p>
+ * Every synthetic player fires a real {@link AsyncPlayerPreLoginEvent} on its own virtual thread and, once that
+ * allows the login, a {@link PlayerJoinEvent} on the main thread, so the core listeners run through their timed
+ * executors and are recorded in {@link HandlerStats}. Command lines are dispatched and tab-completed on the main
+ * thread by the console. Ticks are paced to 50 ms; the report covers main thread time per tick, event and command
+ * latencies, allocation rates, GC time, observer lane drops and executor saturation.
+ */
+final class JoinStorm {
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final String NAME_PREFIX = "Storm";
+
+    private final ServerMock server;
+    private final long ticks;
+    private final double joinsPerTick;
+    private final double commandsPerTick;
+    private final double bedrockShare;
+    private final List<String> commands;
+    private final CommandSender sender;
+    private final ExecutorService logins = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final LatencyHistogram tickTimes = new LatencyHistogram();
+    private final LatencyHistogram preLogins = new LatencyHistogram();
+    private final LatencyHistogram joins = new LatencyHistogram();
+    private final LatencyHistogram commandTimes = new LatencyHistogram();
+    private final LatencyHistogram tabCompletions = new LatencyHistogram();
+    private final ConcurrentLinkedQueue<Synthetic> loggedIn = new ConcurrentLinkedQueue<>();
+    private final List<PlayerMock> online = new ArrayList<>();
+    private final Map<String, UUID> bedrockPlayers = new HashMap<>();
+    private final LongAdder refused = new LongAdder();
+    private final LongAdder commandErrors = new LongAdder();
+
+    private int started;
+    private long slowTicks;
+    private double joinCredit;
+    private double commandCredit;
+    private int nextCommand;
+
+    /**
+     * Creates a join storm. Nothing runs until it is {@link #run() run}.
+     *
+     * @param server            the mock server the core plugin is loaded on
+     * @param seconds           how long new players keep joining
+     * @param joinsPerSecond    synthetic logins started per second
+     * @param commandsPerSecond command lines dispatched and tab-completed per second
+     * @param bedrockShare      the fraction of synthetic players that are Bedrock players, from 0 to 1
+     * @param commands          the command lines to cycle through, without a leading slash
+     */
+    JoinStorm(ServerMock server, int seconds, double joinsPerSecond, double commandsPerSecond, double bedrockShare,
+              List<String> commands) {
+        this.server = server;
+        this.ticks = seconds * 20L;
+        this.joinsPerTick = joinsPerSecond / 20.0;
+        this.commandsPerTick = commands.isEmpty() ? 0 : commandsPerSecond / 20.0;
+        this.bedrockShare = Math.max(0, Math.min(1, bedrockShare));
+        this.commands = List.copyOf(commands);
+        this.sender = server.getConsoleSender();
+    }
+
+    /**
+     * Runs the storm on the calling thread, which must be the mock server's main thread. Once the last login has
+     * been started, ticking continues until every login has joined and the observer lanes are empty.
+     *
+     * @return the report lines
+     * @throws InterruptedException if interrupted while waiting for logins to finish
+     */
+    List<String> run() throws InterruptedException {
+        long mainThreadId = Thread.currentThread().threadId();
+        long startMainAllocated = threadAllocated(mainThreadId);
+        long startTotalAllocated = totalAllocated();
+        long startGcCount = gcCount();
+        long startGcMillis = gcMillis();
+        long startLaneDrops = ObserverLanes.getInstance().getDropped();
+        HandlerStats.resetAll();
+        long start = System.nanoTime();
+
+        long next = start;
+        for (long tick = 0; tick < ticks; tick++) {
+            next = tick(next, true);
+        }
+        logins.shutdown();
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while ((!logins.isTerminated() || !loggedIn.isEmpty() || ObserverLanes.queuedEvents() > 0)
+                && System.nanoTime() < deadline) {
+            next = tick(next, false);
+        }
+        logins.awaitTermination(1, TimeUnit.SECONDS);
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        List<String> report = new ArrayList<>();
+        report.add(String.format(Locale.ROOT, "%.1fs, %d logins started, %d joined, %d refused, %d commands, %d errors",
+                seconds, started, joins.getCount(), refused.sum(), commandTimes.getCount(), commandErrors.sum()));
+        report.add("main thread per tick " + percentiles(tickTimes) + ", over 50ms " + slowTicks);
+        report.add("pre-login " + percentiles(preLogins));
+        report.add("join " + percentiles(joins));
+        report.add("command " + percentiles(commandTimes) + ", tab " + percentiles(tabCompletions));
+        for (HandlerStats handler : HandlerStats.all()) {
+            if (handler.getPlugin().equals(CodeRandomCore.getInstance().getName()) && handler.getCalls().getCount() > 0) {
+                report.add(handler.getListener() + "." + handler.getHandler() + "(" + handler.getEvent() + ") "
+                        + percentiles(handler.getCalls()) + ", slow ticks " + handler.getSlowTicks());
+            }
+        }
+        report.add(String.format(Locale.ROOT, "allocated %s/s on the main thread, %s/s in total",
+                megabytes((threadAllocated(mainThreadId) - startMainAllocated) / seconds),
+                megabytes((totalAllocated() - startTotalAllocated) / seconds)));
+        report.add(String.format(Locale.ROOT, "gc %d collections, %dms, observer lane drops %d",
+                gcCount() - startGcCount, gcMillis() - startGcMillis, getLaneDrops() - startLaneDrops));
+        for (ManagedExecutor executor : CodeRandomCore.getExecutors().all()) {
+            report.add(executor.getName() + " peak queued " + executor.getPeakQueued() + ", rejected " + executor.getRejected()
+                    + ", queue wait p99 " + millis(executor.getQueueWait().getPercentileNanos(99)));
+        }
+        return report;
+    }
+
+    /**
+     * Fires a quit event for every synthetic player that joined, so their data is saved and released.
+     */
+    void quitAll() {
+        for (PlayerMock player : online) {
+            server.getPluginManager().callEvent(new PlayerQuitEvent(player, player.getName() + " left the game"));
+        }
+        online.clear();
+        server.getScheduler().performOneTick();
+    }
+
+    /**
+     * Returns the number of logins started.
+     *
+     * @return the number of synthetic players
+     */
+    int getStarted() {
+        return started;
+    }
+
+    /**
+     * Returns the number of players whose join event was fired.
+     *
+     * @return the number of joined players
+     */
+    long getJoined() {
+        return joins.getCount();
+    }
+
+    /**
+     * Returns the number of logins a pre-login listener disallowed.
+     *
+     * @return the number of refused logins
+     */
+    long getRefused() {
+        return refused.sum();
+    }
+
+    /**
+     * Returns the events dropped by the observer lanes since the server started.
+     *
+     * @return the number of dropped events
+     */
+    long getLaneDrops() {
+        return ObserverLanes.getInstance().getDropped();
+    }
+
+    /**
+     * Returns the Bedrock players that joined.
+     *
+     * @return their UUIDs keyed by name
+     */
+    Map<String, UUID> getBedrockPlayers() {
+        return bedrockPlayers;
+    }
+
+    /**
+     * Runs one tick and waits for the next one to be due.
+     *
+     * @return the time the next tick is due
+     */
+    private long tick(long due, boolean storming) {
+        long start = System.nanoTime();
+        Synthetic player;
+        while ((player = loggedIn.poll()) != null) {
+            join(player);
+        }
+        if (storming) {
+            joinCredit += joinsPerTick;
+            for (; joinCredit >= 1; joinCredit--) {
+                preLogin();
+            }
+            commandCredit += commandsPerTick;
+            for (; commandCredit >= 1; commandCredit--) {
+                runCommand(commands.get(nextCommand++ % commands.size()));
+            }
+        }
+        server.getScheduler().performOneTick();
+        long busy = System.nanoTime() - start;
+        tickTimes.record(busy);
+        if (busy > TICK_NANOS) {
+            slowTicks++;
+        }
+        long next = Math.max(due + TICK_NANOS, System.nanoTime());
+        LockSupport.parkNanos(next - System.nanoTime());
+        return next;
+    }
+
+    /**
+     * Starts a login on its own virtual thread, as the server runs asynchronous pre-login events off the main thread.
+     */
+    private void preLogin() {
+        int id = started++;
+        boolean bedrock = ThreadLocalRandom.current().nextDouble() < bedrockShare;
+        String name = bedrock ? "." + NAME_PREFIX + id : NAME_PREFIX + id;
+        Synthetic player = new Synthetic(name, bedrock ? UuidCodec.floodgateUUID(name) : UuidCodec.offlineUUID(name), bedrock);
+        logins.execute(() -> {
+            AsyncPlayerPreLoginEvent event = new AsyncPlayerPreLoginEvent(name, InetAddress.getLoopbackAddress(), player.uuid);
+            long start = System.nanoTime();
+            fire(event);
+            preLogins.record(System.nanoTime() - start);
+            if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+                loggedIn.add(player);
+            } else {
+                refused.increment();
+            }
+        });
+    }
+
+    /**
+     * Fires the join event for a player whose login was allowed.
+     */
+    private void join(Synthetic synthetic) {
+        PlayerMock player = new PlayerMock(server, synthetic.name, synthetic.uuid);
+        long start = System.nanoTime();
+        server.getPluginManager().callEvent(new PlayerJoinEvent(player, synthetic.name + " joined the game"));
+        joins.record(System.nanoTime() - start);
+        online.add(player);
+        if (synthetic.bedrock) {
+            bedrockPlayers.put(synthetic.name, synthetic.uuid);
+        }
+    }
+
+    private void runCommand(String line) {
+        long start = System.nanoTime();
+        try {
+            server.dispatchCommand(sender, line);
+        } catch (RuntimeException e) {
+            commandErrors.increment();
+        }
+        commandTimes.record(System.nanoTime() - start);
+        start = System.nanoTime();
+        try {
+            server.getCommandMap().tabComplete(sender, line);
+        } catch (RuntimeException e) {
+            commandErrors.increment();
+        }
+        tabCompletions.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Calls the registered listeners of an event the way the server's plugin manager does. Used for pre-login
+     * events, so concurrent logins are neither serialized nor recorded by the mock plugin manager.
+     */
+    private static void fire(Event event) {
+        for (RegisteredListener listener : event.getHandlers().getRegisteredListeners()) {
+            if (!listener.getPlugin().isEnabled()) {
+                continue;
+            }
+            try {
+                listener.callEvent(event);
+            } catch (EventException e) {
+                throw new IllegalStateException("Could not pass " + event.getEventName() + " to " + listener.getPlugin().getName(), e);
+            }
+        }
+    }
+
+    private static String percentiles(LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return "n/a";
+        }
+        return "p50 " + millis(histogram.getPercentileNanos(50))
+                + ", p95 " + millis(histogram.getPercentileNanos(95))
+                + ", p99 " + millis(histogram.getPercentileNanos(99))
+                + ", max " + millis(histogram.getMaxNanos());
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2fms", nanos / 1_000_000.0);
+    }
+
+    private static String megabytes(double bytes) {
+        return bytes < 0 ? "n/a" : String.format(Locale.ROOT, "%.1fMB", bytes / (1024 * 1024));
+    }
+
+    private static long threadAllocated(long threadId) {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                ? threads.getThreadAllocatedBytes(threadId) : -1;
+    }
+
+    private static long totalAllocated() {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                ? threads.getTotalThreadAllocatedBytes() : -1;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    private record Synthetic(String name, UUID uuid, boolean bedrock) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.coderandom.core.diagnostics;
+
+import com.coderandom.core.BedrockUUID;
+import com.coderandom.core.CodeRandomCore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs a {@link JoinStorm} against the core plugin on a MockBukkit server, backed by an in-memory H2 database in
+ * MySQL mode. The size of the storm can be raised with system properties, for example
+ * {@code mvn test -Dtest=JoinStormTest -Djoinstorm.seconds=60 -Djoinstorm.joins=200}.
+ */
+public class JoinStormTest {
+
+    private static final String DATABASE_URL = "jdbc:h2:mem:joinstorm;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    private static final Logger LOGGER = Logger.getLogger(JoinStormTest.class.getName());
+
+    private ServerMock server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = MockBukkit.mock();
+        MockBukkit.createMockPlugin("Floodgate");
+        MockBukkit.load(CodeRandomCore.class);
+        assertTrue("Could not connect to the test database", CodeRandomCore.mySQLReady().get(30, TimeUnit.SECONDS));
+        BedrockUUID.getInstance().whenReady().get(30, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        if (MockBukkit.isMocked()) {
+            MockBukkit.unmock();
+        }
+        try (Connection connection = DriverManager.getConnection(DATABASE_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+    @Test
+    public void joinStormIsHandledWithoutRefusalsOrDrops() throws Exception {
+        JoinStorm storm = new JoinStorm(server,
+                Integer.getInteger("joinstorm.seconds", 5),
+                Double.parseDouble(System.getProperty("joinstorm.joins", "100")),
+                Double.parseDouble(System.getProperty("joinstorm.commands", "20")),
+                Double.parseDouble(System.getProperty("joinstorm.bedrock-share", "0.3")),
+                List.of("crcore listeners top", "crcore commands top", "crcore metrics"));
+        List<String> report = storm.run();
+        report.forEach(LOGGER::info);
+
+        assertEquals(0, storm.getRefused());
+        assertEquals(storm.getStarted(), storm.getJoined());
+        assertEquals(0, storm.getLaneDrops());
+        Map<String, UUID> bedrockPlayers = storm.getBedrockPlayers();
+        bedrockPlayers.forEach((name, uuid) -> assertEquals(name, uuid, BedrockUUID.getInstance().getUUID(name)));
+
+        // Disabling the plugin flushes the pending Bedrock UUIDs to the database
+        storm.quitAll();
+        MockBukkit.unmock();
+        try (Connection connection = DriverManager.getConnection(DATABASE_URL, "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT COUNT(*) FROM coderandom_bedrock_uuid")) {
+            rows.next();
+            assertEquals(bedrockPlayers.size(), rows.getInt(1));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.coderandom.core.leaderboard;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the ranks, spans and deletes of {@link RankedSkipList} against a sorted list.
+ */
+public class RankedSkipListTest {
+
+    private static final Comparator<LeaderboardEntry> ORDER = Comparator
+            .comparingDouble(LeaderboardEntry::score).reversed()
+            .thenComparing(LeaderboardEntry::uuid);
+
+    @Test
+    public void ranksFollowScoreThenUUID() {
+        RankedSkipList list = new RankedSkipList();
+        UUID a = new UUID(0, 1);
+        UUID b = new UUID(0, 2);
+        UUID c = new UUID(0, 3);
+        list.put(c, 10);
+        list.put(b, 20);
+        list.put(a, 10);
+
+        assertEquals(1, list.rankOf(b));
+        assertEquals(2, list.rankOf(a));
+        assertEquals(3, list.rankOf(c));
+        assertEquals(0, list.rankOf(new UUID(0, 4)));
+        assertEquals(0, list.countAbove(20));
+        assertEquals(1, list.countAbove(10));
+        assertEquals(3, list.countAbove(Double.NEGATIVE_INFINITY));
+        assertEquals(new LeaderboardEntry(a, 10), list.entryAt(2));
+        assertNull(list.entryAt(0));
+        assertNull(list.entryAt(4));
+    }
+
+    @Test
+    public void updatesMoveEntries() {
+        RankedSkipList list = new RankedSkipList();
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        list.put(a, 1);
+        list.put(b, 2);
+        list.put(a, 3);
+
+        assertEquals(2, list.size());
+        assertEquals(1, list.rankOf(a));
+        assertEquals(3, list.getScore(a), 0);
+        assertTrue(list.remove(a));
+        assertFalse(list.remove(a));
+        assertFalse(list.contains(a));
+        assertTrue(Double.isNaN(list.getScore(a)));
+        assertEquals(1, list.rankOf(b));
+    }
+
+    @Test
+    public void matchesSortedListUnderRandomOperations() {
+        Random random = new Random(7);
+        RankedSkipList list = new RankedSkipList();
+        Map<UUID, Double> scores = new HashMap<>();
+        List<UUID> players = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            players.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+
+        for (int step = 0; step < 20_000; step++) {
+            UUID uuid = players.get(random.nextInt(players.size()));
+            if (random.nextInt(4) == 0) {
+                assertEquals(scores.remove(uuid) != null, list.remove(uuid));
+            } else {
+                // Few distinct scores, so ties are ordered by UUID
+                double score = random.nextInt(50);
+                scores.put(uuid, score);
+                list.put(uuid, score);
+            }
+            if (step % 500 == 0) {
+                assertMatches(scores, list);
+            }
+        }
+        assertMatches(scores, list);
+
+        list.clear();
+        assertEquals(0, list.size());
+        assertNull(list.entryAt(1));
+        list.put(players.get(0), 1);
+        assertEquals(1, list.rankOf(players.get(0)));
+    }
+
+    private static void assertMatches(Map<UUID, Double> scores, RankedSkipList list) {
+        List<LeaderboardEntry> expected = new ArrayList<>();
+        scores.forEach((uuid, score) -> expected.add(new LeaderboardEntry(uuid, score)));
+        expected.sort(ORDER);
+
+        assertEquals(expected.size(), list.size());
+        assertEquals(expected, list.range(1, expected.size() + 10));
+        for (int rank = 1; rank <= expected.size(); rank++) {
+            LeaderboardEntry entry = expected.get(rank - 1);
+            assertEquals(entry, list.entryAt(rank));
+            assertEquals(rank, list.rankOf(entry.uuid()));
+        }
+        if (expected.size() > 20) {
+            assertEquals(expected.subList(10, 20), list.range(11, 10));
+        }
+        for (int score = -1; score <= 50; score++) {
+            double threshold = score;
+            assertEquals(expected.stream().filter(entry -> entry.score() > threshold).count(), list.countAbove(threshold));
+        }
+    }
+}
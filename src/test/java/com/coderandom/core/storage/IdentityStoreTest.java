@@ -0,0 +1,138 @@
+package com.coderandom.core.storage;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks lookups, growth and the binary snapshot format of {@link IdentityStore}.
+ */
+public class IdentityStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void lookupsIgnoreAsciiCase() {
+        IdentityStore store = new IdentityStore();
+        UUID uuid = UUID.randomUUID();
+        assertTrue(store.put("CodeRandom", uuid));
+        assertFalse(store.put("CodeRandom", uuid));
+
+        assertEquals(uuid, store.getUUID("coderandom"));
+        assertEquals(uuid, store.getUUID("CODERANDOM"));
+        assertEquals("CodeRandom", store.getName(uuid));
+        assertTrue(store.containsName("codeRANDOM"));
+        assertNull(store.getUUID("CodeRando"));
+        assertEquals("coderandom", IdentityStore.normalize("CodeRandom"));
+        assertEquals("zoë", IdentityStore.normalize("Zoë"));
+    }
+
+    @Test
+    public void laterSavesReplaceBothDirections() {
+        IdentityStore store = new IdentityStore();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        store.put("Alex", first);
+        store.put("alex", second);
+        store.put("Steve", first);
+
+        assertEquals(2, store.size());
+        assertEquals(second, store.getUUID("ALEX"));
+        assertEquals("alex", store.getName(second));
+        assertEquals("Steve", store.getName(first));
+        assertEquals(first, store.getUUID("steve"));
+        assertFalse(store.putIfAbsent("STEVE", second));
+        assertTrue(store.putIfAbsent("Herobrine", second));
+        assertEquals("Herobrine", store.getName(second));
+    }
+
+    @Test
+    public void growsPastItsInitialSize() {
+        IdentityStore store = new IdentityStore(1);
+        Map<String, UUID> expected = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            String name = (i % 3 == 0 ? ".Bedrock" : "Player") + i;
+            UUID uuid = new UUID(i, ~i);
+            store.put(name, uuid);
+            expected.put(name, uuid);
+        }
+        // Rename some players so rebuilds have dead entries to drop
+        for (int i = 0; i < 50_000; i += 7) {
+            String name = "Renamed" + i;
+            UUID uuid = new UUID(i, ~i);
+            store.put(name, uuid);
+            expected.put(name, uuid);
+        }
+
+        assertEquals(expected.size(), store.size());
+        expected.forEach((name, uuid) -> assertEquals(name, uuid, store.getUUID(name)));
+        for (int i = 0; i < 50_000; i++) {
+            String name = i % 7 == 0 ? "Renamed" + i : (i % 3 == 0 ? ".Bedrock" : "Player") + i;
+            assertEquals(name, store.getName(new UUID(i, ~i)));
+        }
+    }
+
+    @Test
+    public void saveAndLoadRoundTrip() throws IOException {
+        IdentityStore store = new IdentityStore();
+        Map<String, UUID> expected = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            String name = i % 10 == 0 ? "Zoë" + i : "Player" + i;
+            UUID uuid = UUID.randomUUID();
+            store.put(name, uuid);
+            expected.put(name, uuid);
+        }
+        UUID renamed = expected.get("Player1");
+        store.put("NewName", renamed);
+        expected.put("NewName", renamed);
+
+        Path file = folder.getRoot().toPath().resolve("identities.bin");
+        store.save(file);
+        IdentityStore loaded = IdentityStore.load(file);
+
+        assertEquals(store.size(), loaded.size());
+        expected.forEach((name, uuid) -> assertEquals(name, uuid, loaded.getUUID(name)));
+        assertEquals("NewName", loaded.getName(renamed));
+        Map<String, UUID> iterated = new HashMap<>();
+        loaded.forEach(iterated::put);
+        Map<String, UUID> original = new HashMap<>();
+        store.forEach(original::put);
+        assertEquals(original, iterated);
+        assertFalse(Files.exists(file.resolveSibling("identities.bin.tmp")));
+    }
+
+    @Test
+    public void loadRejectsImpossibleEntryCount() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("corrupt.bin");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(0x43524944);
+            out.writeInt(1);
+            out.writeInt(Integer.MAX_VALUE);
+        }
+        assertThrows(IOException.class, () -> IdentityStore.load(file));
+
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+        assertThrows(IOException.class, () -> IdentityStore.load(file));
+    }
+
+    @Test
+    public void rejectsOversizedInput() {
+        assertThrows(IllegalArgumentException.class, () -> new IdentityStore(Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> new IdentityStore().put("x".repeat(256), UUID.randomUUID()));
+    }
+}
@@ -0,0 +1,89 @@
+package com.coderandom.core.utils;
+
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Checks that {@link MessageTemplate} formats messages exactly like {@link MessageUtils} and its original loop.
+ */
+public class MessageTemplateTest {
+
+    private static final String[] MESSAGES = {
+            "", "Hello", "You paid 5.00 to Steve!", "[Shop] 50% off: swords & shields", "Ünïcødé — “quotes” € 😀",
+            "tabs\tand\nnewlines", "{not a placeholder}", "{}", "x".repeat(300)
+    };
+
+    @Test
+    public void plainMessagesMatchMessageUtils() {
+        for (String message : MESSAGES) {
+            assertEquals(legacyFormat(message, ChatColor.GREEN), sent(sender -> MessageUtils.formattedMessage(sender, message)));
+            assertEquals(legacyFormat(message, ChatColor.RED), sent(sender -> MessageUtils.formattedErrorMessage(sender, message)));
+            // Formatting twice goes through the cache
+            assertEquals(legacyFormat(message, ChatColor.GREEN), sent(sender -> MessageUtils.formattedMessage(sender, message)));
+        }
+    }
+
+    @Test
+    public void templatesMatchFormattingTheFilledInMessage() {
+        MessageTemplate paid = MessageTemplate.compile("{player} paid you ${amount}. Thanks, {player}!");
+        assertEquals(List.of("player", "amount"), paid.getPlaceholders());
+        for (Object[] values : new Object[][]{{"Steve", 5}, {"Jeb_", "1,000.50"}, {"Zoë", -3.5}, {"", ""}}) {
+            String filled = values[0] + " paid you $" + values[1] + ". Thanks, " + values[0] + "!";
+            assertEquals(legacyFormat(filled, ChatColor.GREEN), paid.format(values));
+            assertEquals(sent(sender -> MessageUtils.formattedMessage(sender, filled)), sent(sender -> paid.send(sender, values)));
+        }
+
+        MessageTemplate error = MessageTemplate.compileError("Unknown player: {name}");
+        assertEquals(legacyFormat("Unknown player: .Bedrock_1", ChatColor.RED), error.format(".Bedrock_1"));
+        for (String message : MESSAGES) {
+            assertEquals(legacyFormat(message, ChatColor.GREEN), MessageTemplate.compile(message).format());
+        }
+    }
+
+    @Test
+    public void namedValuesLeaveMissingPlaceholders() {
+        MessageTemplate template = MessageTemplate.compile("{a} and {b}");
+        assertEquals(legacyFormat("1 and {b}", ChatColor.GREEN), template.format(Map.of("a", 1)));
+        assertThrows(IllegalArgumentException.class, () -> template.format("only one"));
+    }
+
+    private static String sent(Consumer<CommandSender> action) {
+        List<String> messages = new ArrayList<>();
+        CommandSender sender = (CommandSender) Proxy.newProxyInstance(CommandSender.class.getClassLoader(),
+                new Class<?>[]{CommandSender.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("sendMessage") && args != null && args[0] instanceof String message) {
+                        messages.add(message);
+                    }
+                    return null;
+                });
+        action.accept(sender);
+        assertEquals(1, messages.size());
+        return messages.get(0);
+    }
+
+    /**
+     * The loop MessageUtils used before messages were cached and compiled.
+     */
+    private static String legacyFormat(String message, ChatColor base) {
+        StringBuilder formattedMessage = new StringBuilder(message.length() * 2);
+        formattedMessage.append(base);
+        for (char c : message.toCharArray()) {
+            if (!Character.isLetterOrDigit(c) && !Character.isWhitespace(c)) {
+                formattedMessage.append(ChatColor.DARK_PURPLE).append(c).append(base);
+            } else {
+                formattedMessage.append(c);
+            }
+        }
+        return formattedMessage.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package com.coderandom.core.utils;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Checks {@link UuidCodec} against the algorithms UUIDFetcher used before it delegated to the codec.
+ */
+public class UuidCodecTest {
+
+    private static final String[] NAMES = {
+            "Notch", "jeb_", "CodeRandom", ".BedrockPlayer", "a", "", "Player With Spaces",
+            "Zoë", "名前", "x".repeat(64), "y".repeat(65), "ünicode".repeat(20)
+    };
+
+    @Test
+    public void offlineUUIDMatchesMessageDigest() throws NoSuchAlgorithmException {
+        for (String name : names()) {
+            assertEquals(name, legacyOfflineUUID(name), UuidCodec.offlineUUID(name));
+        }
+    }
+
+    @Test
+    public void offlineUUIDMatchesNameUUIDFromBytes() {
+        for (String name : names()) {
+            UUID expected = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
+            assertEquals(name, expected, UuidCodec.offlineUUID(name));
+        }
+    }
+
+    @Test
+    public void floodgateUUIDMatchesGetBytes() {
+        // The old method used the platform charset, which is UTF-8 since JDK 18
+        for (String name : names()) {
+            assertEquals(name, UUID.nameUUIDFromBytes(("Floodgate:" + name).getBytes()), UuidCodec.floodgateUUID(name));
+        }
+    }
+
+    @Test
+    public void parseDashlessMatchesRegex() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            UUID uuid = new UUID(random.nextLong(), random.nextLong());
+            String dashless = uuid.toString().replace("-", "");
+            assertEquals(legacyParse(dashless), UuidCodec.parseDashless(dashless));
+            assertEquals(legacyParse(dashless), UuidCodec.parse(dashless.toUpperCase()));
+            assertEquals(uuid, UuidCodec.parse(uuid.toString()));
+            assertEquals(dashless, UuidCodec.toDashless(uuid));
+        }
+    }
+
+    @Test
+    public void parseRejectsMalformedInput() {
+        assertNull(UuidCodec.parse(null));
+        assertNull(UuidCodec.parse(""));
+        assertNull(UuidCodec.parse("069a79f444e94726a5befca90e38aaf"));
+        assertNull(UuidCodec.parse("069a79f444e94726a5befca90e38aafg"));
+        assertNull(UuidCodec.parse("069a79f4-44e9-4726-a5be-fca90e38aaf5-"));
+        assertNull(UuidCodec.parse("069a79f4+44e9-4726-a5be-fca90e38aaf5"));
+        assertNull(UuidCodec.parse("069a79f4-44e9-4726-a5be-fca90e38aafz"));
+        assertNull(UuidCodec.parseDashless("069a79f4-44e9-4726-a5be-fca90e38aaf5"));
+    }
+
+    @Test
+    public void bytesRoundTrip() {
+        UUID uuid = UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5");
+        byte[] bytes = UuidCodec.toBytes(uuid);
+        assertEquals(16, bytes.length);
+        assertEquals(0x06, bytes[0]);
+        assertEquals((byte) 0xf5, bytes[15]);
+        assertEquals(uuid, UuidCodec.fromBytes(bytes));
+
+        byte[] padded = new byte[20];
+        UuidCodec.toBytes(uuid, padded, 3);
+        assertArrayEquals(bytes, Arrays.copyOfRange(padded, 3, 19));
+        assertEquals(uuid, UuidCodec.fromBytes(padded, 3));
+        assertThrows(IllegalArgumentException.class, () -> UuidCodec.fromBytes(new byte[15]));
+    }
+
+    private static List<String> names() {
+        List<String> names = new ArrayList<>(List.of(NAMES));
+        for (int i = 0; i < 200; i++) {
+            names.add("Player" + i);
+        }
+        return names;
+    }
+
+    /**
+     * The offline UUID as UUIDFetcher computed it, with a new digest per call.
+     */
+    private static UUID legacyOfflineUUID(String playerName) throws NoSuchAlgorithmException {
+        MessageDigest md = MessageDigest.getInstance("MD5");
+        byte[] hash = md.digest(("OfflinePlayer:" + playerName).getBytes());
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < 8; i++) {
+            msb = (msb << 8) | (hash[i] & 0xff);
+        }
+        for (int i = 8; i < 16; i++) {
+            lsb = (lsb << 8) | (hash[i] & 0xff);
+        }
+        msb = (msb & 0xFFFFFFFFFFFF0FFFL) | 0x0000000000003000L;
+        lsb = (lsb & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * The Mojang id parsing UUIDFetcher used, inserting the dashes with a regular expression.
+     */
+    private static UUID legacyParse(String dashless) {
+        return UUID.fromString(dashless.replaceFirst(
+                "(\\p{XDigit}{8})(\\p{XDigit}{4})(\\p{XDigit}{4})(\\p{XDigit}{4})(\\p{XDigit}{12})",
+                "$1-$2-$3-$4-$5"
+        ));
+    }
+}